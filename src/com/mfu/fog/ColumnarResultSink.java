@@ -0,0 +1,73 @@
+package com.mfu.fog;
+
+import org.workflowsim.Job;
+import org.workflowsim.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the results to a compact binary file, a block per simulation with
+ * the jobs stored column by column. All values are big-endian, as written by
+ * {@link DataOutputStream}:
+ * <pre>
+ * file   := MAGIC:int VERSION:int block*
+ * block  := dag:UTF algorithm:UTF n:int
+ *           jobId:int[n] taskId:int[n] status:int[n] resourceId:int[n] vmId:int[n]
+ *           start:double[n] finish:double[n] depth:int[n] cost:double[n]
+ *           parentCount:int[n] parentId:int[sum of parentCount]
+ * </pre>
+ * The status is the {@link org.cloudbus.cloudsim.Cloudlet} status code.
+ */
+class ColumnarResultSink implements ResultSink {
+    static final int MAGIC = 0x46575352;
+    static final int VERSION = 1;
+    private final DataOutputStream output;
+
+    ColumnarResultSink(String directory) throws IOException {
+        String fileName = "result-" + System.currentTimeMillis() + ".fwr";
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(directory + fileName)));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    @Override
+    public void write(String dagName, String algorithmName, List<Job> jobs) throws IOException {
+        output.writeUTF(dagName);
+        output.writeUTF(algorithmName);
+        output.writeInt(jobs.size());
+        for (Job job : jobs)
+            output.writeInt(job.getCloudletId());
+        for (Job job : jobs)
+            output.writeInt(job.getTaskList().get(0).getCloudletId());
+        for (Job job : jobs)
+            output.writeInt(job.getCloudletStatus());
+        for (Job job : jobs)
+            output.writeInt(job.getResourceId());
+        for (Job job : jobs)
+            output.writeInt(job.getVmId());
+        for (Job job : jobs)
+            output.writeDouble(job.getExecStartTime());
+        for (Job job : jobs)
+            output.writeDouble(job.getTaskFinishTime());
+        for (Job job : jobs)
+            output.writeInt(job.getDepth());
+        for (Job job : jobs)
+            output.writeDouble(job.getProcessingCost());
+        for (Job job : jobs)
+            output.writeInt(job.getParentList().size());
+        for (Job job : jobs) {
+            for (Task parent : job.getParentList())
+                output.writeInt(parent.getCloudletId());
+        }
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.mfu.fog;
+
+import org.workflowsim.Job;
+import org.workflowsim.Task;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes a row per job to a CSV file, with the DAG and the algorithm of the
+ * simulation in the first two columns. The rows are written as each simulation
+ * ends, so nothing is kept in memory.
+ */
+class CsvResultSink implements ResultSink {
+    private static final String HEADER = "DAG,Algorithm,Job ID,Task ID,Status,Datacenter ID,VM ID,"
+            + "Start Time,Finish Time,Execution Time,Depth,Parent,Cost";
+    private final Writer writer;
+
+    CsvResultSink(String directory) throws IOException {
+        String fileName = "result-" + System.currentTimeMillis() + ".csv";
+        writer = new BufferedWriter(new FileWriter(directory + fileName));
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(String dagName, String algorithmName, List<Job> jobs) throws IOException {
+        StringBuilder row = new StringBuilder();
+        for (Job job : jobs) {
+            row.setLength(0);
+            double startTime = job.getExecStartTime();
+            double finishTime = job.getTaskFinishTime();
+            row.append(escape(dagName)).append(',')
+                    .append(escape(algorithmName)).append(',')
+                    .append(job.getCloudletId()).append(',')
+                    .append(job.getTaskList().get(0).getCloudletId()).append(',')
+                    .append(job.getCloudletStatusString()).append(',')
+                    .append(escape(job.getResourceName(job.getResourceId()))).append(',')
+                    .append(job.getVmId()).append(',')
+                    .append(startTime).append(',')
+                    .append(finishTime).append(',')
+                    .append(finishTime - startTime).append(',')
+                    .append(job.getDepth()).append(',')
+                    .append(escape(getParents(job))).append(',')
+                    .append(job.getProcessingCost()).append('\n');
+            writer.write(row.toString());
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private String getParents(Job job) {
+        StringBuilder parents = new StringBuilder();
+        for (Task parent : job.getParentList()) {
+            if (parents.length() > 0)
+                parents.append(' ');
+            parents.append(parent.getCloudletId());
+        }
+        return parents.length() == 0 ? "-" : parents.toString();
+    }
+
+    private String escape(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
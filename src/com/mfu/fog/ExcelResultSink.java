@@ -0,0 +1,320 @@
+package com.mfu.fog;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.workflowsim.CondorVM;
+import org.workflowsim.Job;
+import org.workflowsim.Task;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Writes the results to an Excel workbook with a sheet per DAG, the algorithms
+ * one under the other. The workbook is streamed: only the last rows of each
+ * sheet are kept in memory, and the older ones are flushed to a temporary file
+ * until the workbook is written on close.
+ */
+class ExcelResultSink implements ResultSink {
+    private static final int COLUMN_WIDTH = 3_500;
+    private final SXSSFWorkbook WORKBOOK;
+    private final String directory;
+    private final List<String> RESULT_HEADER_NAMES = new ArrayList<>(Arrays.asList("Job ID", "Task ID", "Status",
+            "Datacenter ID", "VM ID", "Start Time", "Finish Time", "Execution Time", "Depth", "Parent", "Cost"));
+    private final Font CONTENT_FONT;
+    private final CellStyle HEADER_STYLE;
+    private final CellStyle CONTENT_STYLE;
+
+    /**
+     * The sheet of each DAG, and the next free row of each sheet.
+     */
+    private final Map<String, Sheet> sheets = new HashMap<>();
+    private final Map<String, Integer> nextRows = new HashMap<>();
+
+    enum Style {
+        HEADER, CONTENT, PORT_CONSTRAINT_ON, PORT_CONSTRAINT_OFF
+    }
+
+    /**
+     * Creates the workbook and writes the environment setting.
+     *
+     * @param portDelay the I/O port delay
+     * @param virtualMachines the VMs of the environment
+     * @param directory the directory of the workbook
+     * @param rowWindow the number of rows of a sheet kept in memory
+     */
+    ExcelResultSink(double portDelay, List<CondorVM> virtualMachines, String directory, int rowWindow) {
+        this.directory = directory;
+        WORKBOOK = new SXSSFWorkbook(rowWindow);
+        Font HEADER_FONT = createFont(Style.HEADER);
+        CONTENT_FONT = createFont(Style.CONTENT);
+        HEADER_STYLE = createCellStyle(HEADER_FONT, Style.HEADER);
+        CONTENT_STYLE = createCellStyle(CONTENT_FONT, Style.CONTENT);
+        Sheet environmentSettingSheet = WORKBOOK.createSheet("Environment Setting");
+        int totalWidth = 3;
+        writeEnvironmentSetting(environmentSettingSheet, portDelay, virtualMachines, totalWidth, COLUMN_WIDTH);
+    }
+
+    @Override
+    public void write(String dagName, String algorithmName, List<Job> jobs) {
+        Sheet schedulingResultSheet = sheets.get(dagName);
+        if (schedulingResultSheet == null) {
+            schedulingResultSheet = WORKBOOK.createSheet(dagName);
+            setColumnWidth(COLUMN_WIDTH, schedulingResultSheet, RESULT_HEADER_NAMES.size());
+            sheets.put(dagName, schedulingResultSheet);
+        }
+        int startingRowIndex = nextRows.getOrDefault(dagName, 0);
+
+        Row algorithmNameRow = schedulingResultSheet.createRow(startingRowIndex);
+        writeAlgorithmName(algorithmName, algorithmNameRow);
+
+        Row resultHeaderRow = schedulingResultSheet.createRow(++startingRowIndex);
+        writeSchedulingHeader(resultHeaderRow);
+
+        for (int i = 0, currentRow = 1; currentRow <= jobs.size(); currentRow++, i++) {
+            Row outputRow = schedulingResultSheet.createRow(startingRowIndex + currentRow);
+            Job job = jobs.get(i);
+            writeSchedulingResult(outputRow, job, CONTENT_STYLE);
+        }
+        nextRows.put(dagName, startingRowIndex + jobs.size() + 2);
+    }
+
+    @Override
+    public void close() throws IOException {
+        System.out.println("writing results to an excel file...");
+        long currentTime = System.currentTimeMillis();
+        String fileName = "result-" + currentTime + ".xlsx";
+        File file = new File(directory + fileName);
+        try (FileOutputStream outputStream = new FileOutputStream(file.getAbsolutePath())) {
+            WORKBOOK.write(outputStream);
+        } finally {
+            // deletes the temporary files of the flushed rows
+            WORKBOOK.dispose();
+            WORKBOOK.close();
+        }
+    }
+
+    private Font createFont(Style style) {
+        Font font = WORKBOOK.createFont();
+        font.setFontName("IBM Plex Sans Condensed");
+        if (style.equals(Style.HEADER))
+            font.setBold(true);
+        return font;
+    }
+
+    private CellStyle createCellStyle(Font font, Style style) {
+        CellStyle cellStyle = WORKBOOK.createCellStyle();
+        cellStyle.setWrapText(true);
+        cellStyle.setFont(font);
+        setCellFillColor(style, cellStyle);
+        setCellAlignment(cellStyle);
+        setCellBorder(cellStyle);
+        return cellStyle;
+    }
+
+    private void setCellFillColor(Style style, CellStyle cellStyle) {
+        switch (style) {
+            case HEADER -> {
+                cellStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+                cellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            }
+            case CONTENT -> {
+            }
+            case PORT_CONSTRAINT_ON -> {
+                cellStyle.setFillForegroundColor(IndexedColors.LIGHT_GREEN.getIndex());
+                cellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            }
+            case PORT_CONSTRAINT_OFF -> {
+                cellStyle.setFillForegroundColor(IndexedColors.RED.getIndex());
+                cellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + style);
+        }
+    }
+
+    private void setCellBorder(CellStyle cellStyle) {
+        cellStyle.setBorderTop(BorderStyle.THIN);
+        cellStyle.setBorderRight(BorderStyle.THIN);
+        cellStyle.setBorderBottom(BorderStyle.THIN);
+        cellStyle.setBorderLeft(BorderStyle.THIN);
+    }
+
+    private void setCellAlignment(CellStyle cellStyle) {
+        cellStyle.setAlignment(HorizontalAlignment.CENTER);
+        cellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+    }
+
+    private void setColumnWidth(int columnWidth, Sheet sheet, int numberOfColumn) {
+        for (int i = 0; i < numberOfColumn; i++) {
+            sheet.setColumnWidth(i, columnWidth);
+        }
+    }
+
+    private void writeEnvironmentSetting(Sheet inputSheet, double portDelay, List<CondorVM> virtualMachines,
+                                         int totalWidth, int columnWidth) {
+        setColumnWidth(columnWidth, inputSheet, totalWidth);
+        int inputConstraintRowIndex = 0;
+        int inputHeaderRowIndex = 1;
+        writePortConstraint(inputSheet, portDelay, inputConstraintRowIndex);
+        writeInputHeader(inputSheet, inputHeaderRowIndex);
+
+        for (int row = 2, i = 0; i < virtualMachines.size(); row += 2, i++) {
+            CondorVM virtualMachine = virtualMachines.get(i);
+            Row inputContentRow = inputSheet.createRow(row);
+            int nextRow = row + 1;
+            int firstColumn = 0, lastColumn = 0;
+
+            Cell inputHostCell = inputContentRow.createCell(0);
+            inputHostCell.setCellValue(virtualMachine.getHost().getDatacenter().getName());
+            inputHostCell.setCellStyle(CONTENT_STYLE);
+
+            Cell inputVmIdCell = inputContentRow.createCell(1);
+            inputVmIdCell.setCellValue(virtualMachine.getId());
+            inputVmIdCell.setCellStyle(CONTENT_STYLE);
+
+            Cell inputMipsHeaderCell = inputContentRow.createCell(2);
+            inputMipsHeaderCell.setCellValue("MIPS");
+            inputMipsHeaderCell.setCellStyle(HEADER_STYLE);
+
+            Cell inputMipsContentCell = inputContentRow.createCell(3);
+            inputMipsContentCell.setCellValue(virtualMachine.getMips());
+            inputMipsContentCell.setCellStyle(CONTENT_STYLE);
+
+            Row nextInputContentRow = inputSheet.createRow(nextRow);
+            Cell inputHostEmptyCell = nextInputContentRow.createCell(0);
+            inputHostEmptyCell.setCellStyle(CONTENT_STYLE);
+            Cell inputVmIdEmptyCell = nextInputContentRow.createCell(1);
+            inputVmIdEmptyCell.setCellStyle(CONTENT_STYLE);
+
+            Cell inputCostHeaderCell = nextInputContentRow.createCell(2);
+            inputCostHeaderCell.setCellValue("Cost Per MIPS");
+            inputCostHeaderCell.setCellStyle(HEADER_STYLE);
+
+            Cell inputCostContentCell = nextInputContentRow.createCell(3);
+            PowerHost powerHost = (PowerHost) virtualMachine.getHost();
+            inputCostContentCell.setCellValue(powerHost.getcostPerMips());
+            inputCostContentCell.setCellStyle(CONTENT_STYLE);
+
+            CellRangeAddress hostCellRangeAddress = new CellRangeAddress(row, nextRow, firstColumn, lastColumn);
+            CellRangeAddress vmCellRangeAddress = new CellRangeAddress(row, nextRow, firstColumn + 1, lastColumn + 1);
+            inputSheet.addMergedRegion(hostCellRangeAddress);
+            inputSheet.addMergedRegion(vmCellRangeAddress);
+        }
+    }
+
+    private void writeInputHeader(Sheet inputSheet, int inputHeaderRowIndex) {
+        Row inputHeaderRow = inputSheet.createRow(inputHeaderRowIndex);
+        Cell hostCell = inputHeaderRow.createCell(0);
+        hostCell.setCellValue("Host");
+        hostCell.setCellStyle(HEADER_STYLE);
+        Cell vmIdCell = inputHeaderRow.createCell(1);
+        vmIdCell.setCellValue("VM ID");
+        vmIdCell.setCellStyle(HEADER_STYLE);
+        Cell specCell = inputHeaderRow.createCell(2);
+        specCell.setCellValue("Spec");
+        specCell.setCellStyle(HEADER_STYLE);
+        Cell specEmptyCell = inputHeaderRow.createCell(3);
+        specEmptyCell.setCellStyle(HEADER_STYLE);
+        CellRangeAddress specCellRangeAddress = new CellRangeAddress(inputHeaderRow.getRowNum(),
+                inputHeaderRow.getRowNum(), specCell.getColumnIndex(), specEmptyCell.getColumnIndex());
+        inputSheet.addMergedRegion(specCellRangeAddress);
+    }
+
+    private void writePortConstraint(Sheet inputSheet, double portDelay, int inputConstraintRowIndex) {
+        Row inputConstraintRow = inputSheet.createRow(inputConstraintRowIndex);
+        Cell inputConstraintHeaderCell = inputConstraintRow.createCell(0);
+        inputConstraintHeaderCell.setCellValue("I/O Port Delay");
+        inputConstraintHeaderCell.setCellStyle(HEADER_STYLE);
+        Cell inputConstraintCell = inputConstraintRow.createCell(1);
+        inputConstraintCell.setCellValue(portDelay);
+        Style portConstraintStyle = portDelay != 0 ? Style.PORT_CONSTRAINT_ON : Style.PORT_CONSTRAINT_OFF;
+        inputConstraintCell.setCellStyle(createCellStyle(CONTENT_FONT, portConstraintStyle));
+    }
+
+    private void writeAlgorithmName(String algorithmName, Row algorithmNameRow) {
+        Cell algorithmCell = algorithmNameRow.createCell(0);
+        algorithmCell.setCellValue("Algorithm");
+        algorithmCell.setCellStyle(HEADER_STYLE);
+        Cell algorithmNameCell = algorithmNameRow.createCell(1);
+        algorithmNameCell.setCellValue(algorithmName);
+        algorithmNameCell.setCellStyle(CONTENT_STYLE);
+    }
+
+    private void writeSchedulingHeader(Row resultHeaderRow) {
+        for (int i = 0; i < RESULT_HEADER_NAMES.size(); i++) {
+            Cell headerCell = resultHeaderRow.createCell(i);
+            headerCell.setCellValue(RESULT_HEADER_NAMES.get(i));
+            headerCell.setCellStyle(HEADER_STYLE);
+        }
+    }
+
+    private void writeSchedulingResult(Row row, Job job, CellStyle cellStyle) {
+        int jobId = job.getCloudletId();
+        int taskId = job.getTaskList().get(0).getCloudletId();
+        int resourceId = job.getResourceId();
+        String jobStatus = job.getCloudletStatusString();
+        String resourceName = job.getResourceName(resourceId);
+        int vmId = job.getVmId();
+        double startTime = job.getExecStartTime();
+        double finishTime = job.getTaskFinishTime();
+        double executionTime = finishTime - startTime;
+        int depth = job.getDepth();
+        double processingCost = job.getProcessingCost();
+
+        Cell jobIdCell = row.createCell(0);
+        jobIdCell.setCellValue(jobId);
+        jobIdCell.setCellStyle(cellStyle);
+
+        Cell taskIdCell = row.createCell(1);
+        taskIdCell.setCellValue(taskId);
+        taskIdCell.setCellStyle(cellStyle);
+
+        Cell statusCell = row.createCell(2);
+        statusCell.setCellValue(jobStatus);
+        statusCell.setCellStyle(cellStyle);
+
+        Cell datacenterCell = row.createCell(3);
+        datacenterCell.setCellValue(resourceName);
+        datacenterCell.setCellStyle(cellStyle);
+
+        Cell vmIdCell = row.createCell(4);
+        vmIdCell.setCellValue(vmId);
+        vmIdCell.setCellStyle(cellStyle);
+
+        Cell startTimeCell = row.createCell(5);
+        startTimeCell.setCellValue(startTime);
+        startTimeCell.setCellStyle(cellStyle);
+
+        Cell finishTimeCell = row.createCell(6);
+        finishTimeCell.setCellValue(finishTime);
+        finishTimeCell.setCellStyle(cellStyle);
+
+        Cell executionTimeCell = row.createCell(7);
+        executionTimeCell.setCellValue(executionTime);
+        executionTimeCell.setCellStyle(cellStyle);
+
+        Cell depthCell = row.createCell(8);
+        depthCell.setCellValue(depth);
+        depthCell.setCellStyle(cellStyle);
+
+        List<Task> parentTasks = job.getParentList();
+        StringBuilder parent = new StringBuilder();
+        for (Task parentTask : parentTasks) {
+            int parentTaskId = parentTask.getCloudletId();
+            parent.append(parentTaskId).append(",");
+        }
+        if (parent.length() == 0)
+            parent = new StringBuilder("-");
+        Cell parentCell = row.createCell(9);
+        parentCell.setCellValue(parent.toString());
+        parentCell.setCellStyle(cellStyle);
+
+        Cell costCell = row.createCell(10);
+        costCell.setCellValue(processingCost);
+        costCell.setCellStyle(cellStyle);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mfu.fog;
+
+import com.mfu.fog.constant.simulation.ExperimentConstants;
+import com.mfu.fog.constant.simulation.engine.WorkflowEngineConstants;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.fog.entities.Controller;
+import org.fog.entities.FogDevice;
+import org.fog.utils.FogUtils;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.scheduling.GASchedulingAlgorithm;
+import org.workflowsim.scheduling.PsoScheduling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+
+/**
+ * Runs one cell of an {@link ExperimentSpec}. It is called by the
+ * {@link ExperimentRunner} through
+ * {@link org.cloudbus.cloudsim.core.SimulationContext#invoke}, so the spec
+ * comes serialized and the results go back as an array of metrics.
+ */
+public final class ExperimentCell {
+    public static final int MAKESPAN = 0;
+    public static final int ENERGY = 1;
+    public static final int COST = 2;
+    public static final int JOBS = 3;
+    public static final int ALGORITHM_TIME = 4;
+    public static final int METRICS = 5;
+
+    /**
+     * The spec of the last call, read once per context.
+     */
+    private static byte[] specBytes;
+    private static ExperimentSpec spec;
+
+    private ExperimentCell() {
+    }
+
+    /**
+     * Simulates a cell.
+     *
+     * @param serializedSpec the serialized spec
+     * @param cellIndex the index of the cell in {@link ExperimentSpec#getCells()}
+     * @return the metrics of the cell, indexed by {@link #MAKESPAN},
+     * {@link #ENERGY}, {@link #COST}, {@link #JOBS} and {@link #ALGORITHM_TIME}
+     */
+    public static double[] run(byte[] serializedSpec, int cellIndex) throws Exception {
+        if (!Arrays.equals(serializedSpec, specBytes)) {
+            try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serializedSpec))) {
+                spec = (ExperimentSpec) input.readObject();
+            }
+            specBytes = serializedSpec;
+        }
+        ExperimentSpec.Cell cell = spec.getCells().get(cellIndex);
+        Log.disable();
+        WorkflowEngine.clearFlag();
+        FogUtils.set1();
+        setSearchParameters(cell.getSeed());
+        UserInput.setPortDelay(cell.getPortDelay());
+
+        SimulationScenario scenario = new SimulationScenario(spec.getEnvironments().get(cell.getEnvironment()),
+                null, cell.getDagPath(), cell.getAlgorithmName());
+        scenario.setOffloadingStrategy(cell.getOffloadingStrategy());
+        scenario.build();
+        WorkflowEngine workflowEngine = scenario.getWorkflowEngine();
+        Controller controller = workflowEngine.getController();
+        // the cells already run in parallel, so the candidates are not replayed on replicas
+        WorkflowEngine.setAnalyticFitness(scenario.isMetaheuristic()
+                && WorkflowEngineConstants.DEFAULT.ANALYTIC_FITNESS, 0);
+        try {
+            CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+        } finally {
+            WorkflowEngine.setAnalyticFitness(false, 0);
+        }
+
+        FogDevice mobile = controller.getmobile();
+        double[] metrics = new double[METRICS];
+        metrics[MAKESPAN] = controller.TotalExecutionTime;
+        metrics[ENERGY] = mobile == null ? 0 : mobile.getEnergyConsumption();
+        metrics[COST] = controller.TotalCost;
+        metrics[JOBS] = workflowEngine.getJobsReceivedList().size();
+        metrics[ALGORITHM_TIME] = workflowEngine.algorithmTime;
+        return metrics;
+    }
+
+    /**
+     * Sets the parameters of the GA and PSO searches, which are otherwise only
+     * given in the settings window.
+     */
+    private static void setSearchParameters(long seed) {
+        ExperimentConstants experimentConstants = ExperimentConstants.DEFAULT;
+        GASchedulingAlgorithm.setSeed(seed);
+        GASchedulingAlgorithm.popsize = experimentConstants.GA_POPULATION_SIZE;
+        GASchedulingAlgorithm.gmax = experimentConstants.GA_GENERATIONS;
+        GASchedulingAlgorithm.crossoverProb = experimentConstants.GA_CROSSOVER_PROBABILITY;
+        GASchedulingAlgorithm.mutationRate = experimentConstants.GA_MUTATION_RATE;
+        WorkflowEngine.fitnessForGA = new double[GASchedulingAlgorithm.popsize];
+        PsoScheduling.setSeed(seed);
+        PsoScheduling.particleNum = experimentConstants.PSO_PARTICLES;
+        PsoScheduling.iterateNum = experimentConstants.PSO_ITERATIONS;
+        PsoScheduling.c1 = experimentConstants.PSO_C1;
+        PsoScheduling.c2 = experimentConstants.PSO_C2;
+        PsoScheduling.w = experimentConstants.PSO_INERTIA_WEIGHT;
+        WorkflowEngine.fitness = new double[PsoScheduling.particleNum];
+        WorkflowEngine.fitness2 = new double[PsoScheduling.particleNum];
+    }
+}
@@ -0,0 +1,273 @@
+package com.mfu.fog;
+
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the cells of an {@link ExperimentSpec} in parallel. Every worker thread
+ * runs its cells one after the other in an isolated
+ * {@link SimulationContext} of its own, since the simulator keeps its state in
+ * static fields. The results are added to a {@link SchedulingResult} as the
+ * cells finish, so only the aggregates of a sweep are kept in memory.
+ *
+ * A cell that runs longer than the timeout is stopped at its next simulation
+ * event, and its worker is interrupted, then the cell is counted as timed out;
+ * its context is dropped, and the worker goes on in a new one. A cell that is
+ * stuck outside the event loop, for instance in planning or in a search that
+ * never ends, ignores both. If it has not returned after a grace period, it is
+ * counted as timed out anyway and abandoned with its thread and context: a new
+ * worker takes its place, and the abandoned one is a daemon thread, so it does
+ * not hold the experiment or the JVM.
+ */
+class ExperimentRunner {
+    private static final long ABANDON_GRACE_MILLIS = 10 * 1000;
+
+    private final ExperimentSpec spec;
+    private final int parallelism;
+    private final long cellTimeoutMillis;
+    private final List<SimulationContext> contexts = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<SimulationContext> context = new ThreadLocal<>();
+    private final AtomicInteger abandoned = new AtomicInteger();
+
+    /**
+     * @param spec the experiment
+     * @param parallelism the number of cells run at the same time
+     * @param cellTimeoutMillis the time a cell may run, or 0 for no limit
+     */
+    ExperimentRunner(ExperimentSpec spec, int parallelism, long cellTimeoutMillis) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("an experiment needs at least one worker");
+        }
+        this.spec = spec;
+        this.parallelism = parallelism;
+        this.cellTimeoutMillis = cellTimeoutMillis;
+    }
+
+    /**
+     * Runs every cell of the experiment.
+     *
+     * @param schedulingResult the result the cells are aggregated into
+     */
+    void run(SchedulingResult schedulingResult) throws IOException, InterruptedException {
+        byte[] serializedSpec = serialize(spec);
+        List<ExperimentSpec.Cell> cells = spec.getCells();
+        ThreadPoolExecutor workers = (ThreadPoolExecutor) Executors.newFixedThreadPool(
+                Math.min(parallelism, Math.max(1, cells.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "experiment-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "experiment-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        try {
+            for (ExperimentSpec.Cell cell : cells) {
+                workers.execute(() -> {
+                    Attempt attempt = new Attempt(cell);
+                    try {
+                        runCell(serializedSpec, attempt, watchdog, workers, outcomes);
+                    } catch (Throwable e) {
+                        attempt.report(outcomes, new Outcome(cell, e));
+                    }
+                });
+            }
+            for (int done = 1; done <= cells.size(); done++) {
+                Outcome outcome = outcomes.take();
+                if (outcome.failure != null) {
+                    throw new IllegalStateException("an experiment worker failed", outcome.failure);
+                }
+                ExperimentSpec.Cell cell = outcome.cell;
+                schedulingResult.addCellResult(new UserInput().getDagName(cell.getDagPath()), cell.getLabel(),
+                        outcome.metrics, outcome.status);
+                System.out.printf("[%d/%d] %s %s #%d: %s (%d ms)%n", done, cells.size(),
+                        cell.getDagPath(), cell.getLabel(), cell.getRepetition(), outcome.status, outcome.wallMillis);
+            }
+        } finally {
+            workers.shutdownNow();
+            watchdog.shutdownNow();
+            // an abandoned worker never terminates, so there is nothing to wait for
+            if (abandoned.get() == 0) {
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            synchronized (contexts) {
+                for (SimulationContext simulationContext : contexts) {
+                    simulationContext.close();
+                }
+                contexts.clear();
+            }
+        }
+    }
+
+    private void runCell(byte[] serializedSpec, Attempt attempt, ScheduledExecutorService watchdog,
+                         ThreadPoolExecutor workers, BlockingQueue<Outcome> outcomes) {
+        ExperimentSpec.Cell cell = attempt.cell;
+        SimulationContext simulationContext = context.get();
+        if (simulationContext == null) {
+            simulationContext = SimulationContext.create();
+            contexts.add(simulationContext);
+            context.set(simulationContext);
+        }
+        ScheduledFuture<?> timeout = null;
+        long start = System.currentTimeMillis();
+        if (cellTimeoutMillis > 0) {
+            SimulationContext target = simulationContext;
+            timeout = watchdog.schedule(() -> {
+                if (attempt.stop(target)) {
+                    watchdog.schedule(() -> abandon(attempt, target, workers, outcomes, start),
+                            ABANDON_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }, cellTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        double[] metrics = null;
+        SchedulingResult.CellStatus status;
+        try {
+            metrics = (double[]) simulationContext.invoke(ExperimentCell.class.getName(), "run",
+                    new Class<?>[]{byte[].class, int.class}, serializedSpec, cell.getIndex());
+            status = SchedulingResult.CellStatus.COMPLETED;
+        } catch (Exception | LinkageError e) {
+            System.err.println("cell " + cell.getIndex() + " failed: " + e);
+            status = SchedulingResult.CellStatus.FAILED;
+        }
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        if (!attempt.finish()) {
+            status = SchedulingResult.CellStatus.TIMED_OUT;
+        }
+        if (status != SchedulingResult.CellStatus.COMPLETED) {
+            // the state of an aborted or failed simulation is not reused
+            contexts.remove(simulationContext);
+            simulationContext.close();
+            context.remove();
+            metrics = null;
+        }
+        if (!attempt.report(outcomes, new Outcome(cell, metrics, status, System.currentTimeMillis() - start))) {
+            // the cell was abandoned but returned at last, so the worker added in its place is taken back
+            synchronized (workers) {
+                workers.setCorePoolSize(workers.getCorePoolSize() - 1);
+                workers.setMaximumPoolSize(workers.getMaximumPoolSize() - 1);
+            }
+        }
+    }
+
+    /**
+     * Gives up on a cell that did not return after it was stopped: it is
+     * counted as timed out, its context is dropped, and a new worker is added
+     * in place of the one it holds.
+     */
+    private void abandon(Attempt attempt, SimulationContext target, ThreadPoolExecutor workers,
+                         BlockingQueue<Outcome> outcomes, long start) {
+        if (!attempt.report(outcomes, new Outcome(attempt.cell, null, SchedulingResult.CellStatus.TIMED_OUT,
+                System.currentTimeMillis() - start))) {
+            return;
+        }
+        System.err.println("cell " + attempt.cell.getIndex() + " did not stop and was abandoned");
+        contexts.remove(target);
+        abandoned.incrementAndGet();
+        synchronized (workers) {
+            workers.setMaximumPoolSize(workers.getMaximumPoolSize() + 1);
+            workers.setCorePoolSize(workers.getCorePoolSize() + 1);
+        }
+    }
+
+    private static byte[] serialize(ExperimentSpec spec) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(spec);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A cell being run by a worker thread. Its outcome is reported once,
+     * either by the worker or, when the cell is abandoned, by the watchdog.
+     */
+    private static class Attempt {
+        private final ExperimentSpec.Cell cell;
+        private final Thread worker = Thread.currentThread();
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private boolean running = true;
+
+        Attempt(ExperimentSpec.Cell cell) {
+            this.cell = cell;
+        }
+
+        /**
+         * Stops the cell, if it still runs.
+         *
+         * @return true if the cell was stopped
+         */
+        synchronized boolean stop(SimulationContext target) {
+            if (!running) {
+                return false;
+            }
+            running = false;
+            target.abort();
+            worker.interrupt();
+            return true;
+        }
+
+        /**
+         * Marks the cell as returned, and clears the interrupt of a stop.
+         *
+         * @return false if the cell was stopped
+         */
+        synchronized boolean finish() {
+            boolean finished = running;
+            running = false;
+            Thread.interrupted();
+            return finished;
+        }
+
+        boolean report(BlockingQueue<Outcome> outcomes, Outcome outcome) {
+            if (!reported.compareAndSet(false, true)) {
+                return false;
+            }
+            outcomes.add(outcome);
+            return true;
+        }
+    }
+
+    private static class Outcome {
+        private final ExperimentSpec.Cell cell;
+        private final double[] metrics;
+        private final SchedulingResult.CellStatus status;
+        private final long wallMillis;
+        private final Throwable failure;
+
+        Outcome(ExperimentSpec.Cell cell, double[] metrics, SchedulingResult.CellStatus status, long wallMillis) {
+            this.cell = cell;
+            this.metrics = metrics;
+            this.status = status;
+            this.wallMillis = wallMillis;
+            this.failure = null;
+        }
+
+        Outcome(ExperimentSpec.Cell cell, Throwable failure) {
+            this.cell = cell;
+            this.metrics = null;
+            this.status = SchedulingResult.CellStatus.FAILED;
+            this.wallMillis = 0;
+            this.failure = failure;
+        }
+    }
+}
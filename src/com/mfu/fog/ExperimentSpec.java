@@ -0,0 +1,188 @@
+package com.mfu.fog;
+
+import com.mfu.fog.constant.simulation.engine.OffloadingEngineConstants;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sweep of an experiment: every combination of a DAG, an algorithm, a port
+ * delay, a host environment, an offloading strategy and a repetition is a
+ * {@link Cell} simulated on its own. A spec starts from the DAGs, algorithms,
+ * port delay and hosts of a {@link UserInput}, with the default offloading
+ * strategy and one repetition; the setters widen it.
+ *
+ * Repetition r of every cell runs with the seed {@code seed + r}, so the
+ * algorithms of one repetition are compared under the same random numbers.
+ */
+class ExperimentSpec implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final List<String> dagPaths;
+    private final List<String> algorithmNames;
+    private List<Double> portDelays;
+    private List<UserInput> environments;
+    private List<String> offloadingStrategies;
+    private int repetitions;
+    private long seed;
+    private transient List<Cell> cells;
+
+    public ExperimentSpec(UserInput userInput) {
+        this.dagPaths = new ArrayList<>(userInput.getDagPaths());
+        this.algorithmNames = new ArrayList<>(userInput.getAlgorithmNames());
+        this.portDelays = List.of(UserInput.getPortDelay());
+        this.environments = List.of(userInput);
+        this.offloadingStrategies = List.of(OffloadingEngineConstants.DEFAULT.name());
+        this.repetitions = 1;
+    }
+
+    public void setPortDelays(List<Double> portDelays) {
+        this.portDelays = List.copyOf(portDelays);
+        cells = null;
+    }
+
+    /**
+     * Sets the host environments, each given by the MIPS and costs of its hosts.
+     */
+    public void setEnvironments(List<UserInput> environments) {
+        this.environments = List.copyOf(environments);
+        cells = null;
+    }
+
+    /**
+     * Sets the offloading strategies, by their names in
+     * {@link OffloadingEngineConstants}.
+     */
+    public void setOffloadingStrategies(List<String> offloadingStrategies) {
+        for (String offloadingStrategy : offloadingStrategies) {
+            OffloadingEngineConstants.valueOf(offloadingStrategy);
+        }
+        this.offloadingStrategies = List.copyOf(offloadingStrategies);
+        cells = null;
+    }
+
+    public void setRepetitions(int repetitions, long seed) {
+        if (repetitions < 1) {
+            throw new IllegalArgumentException("an experiment needs at least one repetition");
+        }
+        this.repetitions = repetitions;
+        this.seed = seed;
+        cells = null;
+    }
+
+    public List<UserInput> getEnvironments() {
+        return environments;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    /**
+     * Gets the cells of the sweep, DAG by DAG and algorithm by algorithm.
+     */
+    public List<Cell> getCells() {
+        if (cells != null) {
+            return cells;
+        }
+        List<Cell> list = new ArrayList<>();
+        for (String dagPath : dagPaths) {
+            for (String algorithmName : algorithmNames) {
+                for (double portDelay : portDelays) {
+                    for (int environment = 0; environment < environments.size(); environment++) {
+                        for (String offloadingStrategy : offloadingStrategies) {
+                            String label = getLabel(algorithmName, portDelay, environment, offloadingStrategy);
+                            for (int repetition = 0; repetition < repetitions; repetition++) {
+                                list.add(new Cell(list.size(), dagPath, algorithmName, label, portDelay,
+                                        environment, offloadingStrategy, repetition, seed + repetition));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        cells = List.copyOf(list);
+        return cells;
+    }
+
+    /**
+     * Gets the name the results of a cell are aggregated under: the algorithm
+     * name, followed by the dimensions the sweep varies besides the DAG and the
+     * repetition.
+     */
+    private String getLabel(String algorithmName, double portDelay, int environment, String offloadingStrategy) {
+        StringBuilder label = new StringBuilder(algorithmName);
+        if (portDelays.size() > 1) {
+            label.append(" delay=").append(portDelay);
+        }
+        if (environments.size() > 1) {
+            label.append(" env=").append(environment);
+        }
+        if (offloadingStrategies.size() > 1) {
+            label.append(" offloading=").append(offloadingStrategy);
+        }
+        return label.toString();
+    }
+
+    public static class Cell implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int index;
+        private final String dagPath;
+        private final String algorithmName;
+        private final String label;
+        private final double portDelay;
+        private final int environment;
+        private final String offloadingStrategy;
+        private final int repetition;
+        private final long seed;
+
+        Cell(int index, String dagPath, String algorithmName, String label, double portDelay, int environment,
+             String offloadingStrategy, int repetition, long seed) {
+            this.index = index;
+            this.dagPath = dagPath;
+            this.algorithmName = algorithmName;
+            this.label = label;
+            this.portDelay = portDelay;
+            this.environment = environment;
+            this.offloadingStrategy = offloadingStrategy;
+            this.repetition = repetition;
+            this.seed = seed;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getDagPath() {
+            return dagPath;
+        }
+
+        public String getAlgorithmName() {
+            return algorithmName;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public double getPortDelay() {
+            return portDelay;
+        }
+
+        public int getEnvironment() {
+            return environment;
+        }
+
+        public String getOffloadingStrategy() {
+            return offloadingStrategy;
+        }
+
+        public int getRepetition() {
+            return repetition;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+    }
+}
@@ -1,34 +1,27 @@
 package com.mfu.fog;
 
-import com.mfu.fog.constant.simulation.CloudSimConstants;
-import com.mfu.fog.constant.simulation.engine.ControllerConstants;
-import com.mfu.fog.constant.simulation.engine.OffloadingEngineConstants;
+import com.mfu.fog.constant.simulation.ExperimentConstants;
 import com.mfu.fog.constant.simulation.engine.WorkflowEngineConstants;
-import com.mfu.fog.constant.simulation.engine.WorkflowPlannerConstants;
-import com.mfu.fog.constant.simulation.file.ReplicaCatalogConstants;
-import com.mfu.fog.constant.simulation.parameter.ParameterConstants;
+import com.mfu.fog.constant.simulation.file.OutputConstants;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.fog.entities.Controller;
 import org.fog.entities.FogBroker;
-import org.fog.entities.FogDevice;
+import org.workflowsim.Job;
 import org.workflowsim.WorkflowEngine;
-import org.workflowsim.WorkflowPlanner;
-import org.workflowsim.utils.Parameters;
-import org.workflowsim.utils.ReplicaCatalog;
+import org.workflowsim.scheduling.PopulationEvaluator;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 public class MainSimulation {
-    private static final CloudSimConstants cloudSimConstants = CloudSimConstants.DEFAULT;
     private static final WorkflowEngineConstants workflowEngineConstants = WorkflowEngineConstants.DEFAULT;
-    private static final WorkflowPlannerConstants workflowPlannerConstants = WorkflowPlannerConstants.DEFAULT;
-    private static final OffloadingEngineConstants offloadingEngineConstants = OffloadingEngineConstants.DEFAULT;
-    private static final ControllerConstants controllerConstants = ControllerConstants.DEFAULT;
-    private static final ReplicaCatalogConstants replicaCatalogConstants = ReplicaCatalogConstants.DEFAULT;
-    private static final ParameterConstants parameterConstants = ParameterConstants.DEFAULT;
     private static final String inputPath = "config/dax/";
+    private static final OutputConstants outputConstants = OutputConstants.DEFAULT;
     private static final SchedulingResult schedulingResult = new SchedulingResult();
+    private static final List<ResultSink> resultSinks = new ArrayList<>();
 
     public static void main(String[] args) {
         System.out.println("Starting the Simulation...");
@@ -37,53 +30,87 @@ public class MainSimulation {
             userInput.readSimulationInput(new Scanner(System.in));
             userInput.readDagPaths(inputPath);
             HostEnvironment hostEnvironment = new HostEnvironment(userInput);
-            for (String dagPath : userInput.getDagPaths()) {
-                for (String algorithmName : userInput.getAlgorithmNames()) {
-                    startSimulation(userInput, hostEnvironment, dagPath, algorithmName);
+            if (Arrays.asList(args).contains("--experiment")) {
+                runExperiment(userInput, hostEnvironment);
+                return;
+            }
+            try {
+                for (ResultSink.Format format : outputConstants.RESULT_FORMATS) {
+                    resultSinks.add(createResultSink(format, hostEnvironment));
+                }
+                for (String dagPath : userInput.getDagPaths()) {
+                    for (String algorithmName : userInput.getAlgorithmNames()) {
+                        startSimulation(userInput, hostEnvironment, dagPath, algorithmName);
+                    }
+                }
+            } finally {
+                for (ResultSink resultSink : resultSinks) {
+                    resultSink.close();
                 }
+                resultSinks.clear();
             }
-            SimulationOutputPrinter simulationOutputPrinter = new SimulationOutputPrinter(UserInput.getPortDelay(),
-                    hostEnvironment.getVirtualMachines(),
-                    schedulingResult.getSchedulingResultsByAlgorithmsEachDag());
-            simulationOutputPrinter.printSchedulingResults();
-         //   simulationOutputPrinter.exportSchedulingResult();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    private static ResultSink createResultSink(ResultSink.Format format, HostEnvironment hostEnvironment) throws IOException {
+        String directory = outputConstants.RESULT_DIRECTORY;
+        return switch (format) {
+            case CONSOLE -> new SimulationOutputPrinter();
+            case EXCEL -> new ExcelResultSink(UserInput.getPortDelay(), hostEnvironment.getVirtualMachines(),
+                    directory, outputConstants.EXCEL_ROW_WINDOW);
+            case CSV -> new CsvResultSink(directory);
+            case COLUMNAR -> new ColumnarResultSink(directory);
+            case SUMMARY -> new SummaryResultSink();
+        };
+    }
+
+    /**
+     * Runs the DAGs and algorithms of the input as an experiment, with the
+     * cells in parallel, and prints the summary of each DAG and algorithm.
+     */
+    private static void runExperiment(UserInput userInput, HostEnvironment hostEnvironment) throws Exception {
+        ExperimentConstants experimentConstants = ExperimentConstants.DEFAULT;
+        ExperimentSpec spec = new ExperimentSpec(userInput);
+        spec.setRepetitions(experimentConstants.REPETITIONS, experimentConstants.SEED);
+        ExperimentRunner runner = new ExperimentRunner(spec, experimentConstants.PARALLELISM,
+                experimentConstants.CELL_TIMEOUT_MILLIS);
+        runner.run(schedulingResult);
+        SimulationOutputPrinter simulationOutputPrinter = new SimulationOutputPrinter();
+        simulationOutputPrinter.printExperimentSummaries(schedulingResult.getCellSummariesEachDag());
+    }
+
     private static void startSimulation(UserInput userInput, HostEnvironment hostEnvironment, String dagPath, String algorithmName) throws Exception {
-        CloudSim.init(cloudSimConstants.NUMBER_OF_USER,
-                cloudSimConstants.CALENDAR_INSTANCE,
-                cloudSimConstants.TRACE_FLAG);
-        hostEnvironment.createComputingDevices(workflowEngineConstants.WORKFLOW_ENGINE_ID);
-        Parameters.init(hostEnvironment.getNumberOfVirtualMachine(), dagPath,
-                parameterConstants.RUNTIME,
-                parameterConstants.DATA_SIZE,
-                parameterConstants.OVERHEAD_PARAMETERS,
-                parameterConstants.CLUSTERING_PARAMETERS,
-                userInput.getSchedulingAlgorithm(algorithmName),
-                parameterConstants.OPTIMIZATION_OBJECTIVE,
-                userInput.getPlanningAlgorithm(algorithmName),
-                parameterConstants.REDUCER_MODE,
-                parameterConstants.DEADLINE);
-        ReplicaCatalog.init(replicaCatalogConstants.FILE_SYSTEM);
-        WorkflowPlanner workflowPlanner = new WorkflowPlanner(workflowPlannerConstants.WORKFLOW_PLANNER_NAME,
-                workflowPlannerConstants.NUMBER_OF_SCHEDULER);
-        WorkflowEngine workflowEngine = workflowPlanner.getWorkflowEngine();
-        workflowEngine.getoffloadingEngine().setOffloadingStrategy(offloadingEngineConstants.OFFLOADING_STRATEGY);
-        workflowEngine.submitVmList(hostEnvironment.getVirtualMachines(), workflowEngineConstants.SCHEDULER_ID);
-        Controller controller = new Controller(controllerConstants.NAME, hostEnvironment.getFogDevices(), workflowEngine);
-        for (FogDevice fogdevice : controller.getFogDevices()) {
-            workflowEngine.bindSchedulerDatacenter(fogdevice.getId(), workflowEngineConstants.SCHEDULER_ID);
+        SimulationScenario scenario = new SimulationScenario(userInput, hostEnvironment, dagPath, algorithmName);
+        scenario.build();
+        if (scenario.isMetaheuristic()) {
+            boolean analytic = workflowEngineConstants.ANALYTIC_FITNESS;
+            int verificationInterval = workflowEngineConstants.FITNESS_VERIFICATION_INTERVAL;
+            WorkflowEngine.setAnalyticFitness(analytic, verificationInterval);
+            // replicas verify the analytic scores, or replay candidates when several threads are configured
+            if (analytic ? verificationInterval > 0 : workflowEngineConstants.FITNESS_EVALUATION_THREADS > 1) {
+                WorkflowEngine.setPopulationEvaluator(new PopulationEvaluator(scenario,
+                        workflowEngineConstants.FITNESS_EVALUATION_THREADS));
+            }
+        }
+        try {
+            CloudSim.startSimulation();
+            CloudSim.stopSimulation();
+        } finally {
+            if (WorkflowEngine.getPopulationEvaluator() != null) {
+                WorkflowEngine.getPopulationEvaluator().shutdown();
+                WorkflowEngine.setPopulationEvaluator(null);
+            }
+            WorkflowEngine.setAnalyticFitness(false, 0);
         }
-        CloudSim.startSimulation();
-        CloudSim.stopSimulation();
-        schedulingResult.addResult(userInput.getDagName(dagPath),
-                algorithmName,
-                UserInput.getPortDelay(),
-                workflowEngine.getJobsReceivedList(),
+        // the jobs are written out now, so they are released before the next simulation
+        List<Job> jobs = SchedulingResult.orderJobs(UserInput.getPortDelay(),
+                scenario.getWorkflowEngine().getJobsReceivedList(),
                 FogBroker.getJobSubmissionOrders());
+        for (ResultSink resultSink : resultSinks) {
+            resultSink.write(userInput.getDagName(dagPath), algorithmName, jobs);
+        }
         Log.enable();
     }
 }
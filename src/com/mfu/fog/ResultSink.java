@@ -0,0 +1,56 @@
+package com.mfu.fog;
+
+import org.workflowsim.Job;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the scheduling result of each simulation as soon as the simulation
+ * ends, so the jobs of a run can be released before the next run starts.
+ */
+public interface ResultSink extends Closeable {
+
+    /**
+     * The formats a result can be written in.
+     */
+    enum Format {
+        /**
+         * The jobs printed to the console, as each simulation ends.
+         */
+        CONSOLE,
+        /**
+         * An Excel workbook with a sheet per DAG, streamed to disk.
+         */
+        EXCEL,
+        /**
+         * A CSV file with a row per job.
+         */
+        CSV,
+        /**
+         * A binary file with a block of columns per DAG and algorithm.
+         */
+        COLUMNAR,
+        /**
+         * The aggregates of each DAG and algorithm only, printed at the end.
+         */
+        SUMMARY
+    }
+
+    /**
+     * Writes the result of one simulation.
+     *
+     * @param dagName the name of the DAG
+     * @param algorithmName the name of the algorithm
+     * @param jobs the jobs, in the order they were submitted
+     */
+    void write(String dagName, String algorithmName, List<Job> jobs) throws IOException;
+
+    /**
+     * Finishes the output once every simulation was written.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -2,84 +2,87 @@ package com.mfu.fog;
 
 import org.workflowsim.Job;
 import org.workflowsim.Task;
+import org.workflowsim.utils.PortSlotAllocator;
+import org.workflowsim.utils.RankIndex;
 
 import java.util.*;
 
-class SchedulingResult {
+/**
+ * Keeps the results of the simulations in memory: the jobs of each DAG and
+ * algorithm when used as a sink, and the summaries of the experiment cells.
+ */
+class SchedulingResult implements ResultSink {
     private final Map<String, Map<String, List<Job>>> schedulingResultsByAlgorithmsEachDag;
+    private final Map<String, Map<String, CellSummary>> cellSummariesEachDag;
+
+    enum CellStatus {
+        COMPLETED, FAILED, TIMED_OUT
+    }
 
     SchedulingResult() {
         this.schedulingResultsByAlgorithmsEachDag = new HashMap<>();
+        this.cellSummariesEachDag = new TreeMap<>();
+    }
+
+    @Override
+    public void write(String dagName, String algorithmName, List<Job> jobs) {
+        setSchedulingResult(dagName, algorithmName, jobs);
     }
 
-    public void addResult(String dagName, String algorithmName, double portDelay, List<Job> scheduledJobs, List<Integer> jobSubmissionOrders) {
+    /**
+     * Gets the jobs of a simulation as they are written to the sinks: in the
+     * order they were submitted, with their finish time and the port delay set.
+     */
+    static List<Job> orderJobs(double portDelay, List<Job> scheduledJobs, List<Integer> jobSubmissionOrders) {
         List<Job> orderedJobs = getOrderedJobs(scheduledJobs, jobSubmissionOrders);
         setTaskFinishTime(orderedJobs);
         setPortDelayToJobs(portDelay, orderedJobs);
-        setSchedulingResult(dagName, algorithmName, orderedJobs);
+        return orderedJobs;
     }
 
-    private List<Job> getOrderedJobs(List<Job> scheduledJobs, List<Integer> jobSubmissionOrders) {
-        List<Job> orderedJobs = new ArrayList<>();
-        for (int jobArrivalId : jobSubmissionOrders) {
-            for (Job job : scheduledJobs) {
-                int jobId = job.getCloudletId();
-                if (jobArrivalId == jobId) {
-                    orderedJobs.add(job);
-                    break;
-                }
+    /**
+     * Puts the jobs in the order they were submitted. The jobs that were never
+     * submitted are left out.
+     */
+    private static List<Job> getOrderedJobs(List<Job> scheduledJobs, List<Integer> jobSubmissionOrders) {
+        RankIndex submissionRanks = new RankIndex(jobSubmissionOrders);
+        List<Job> submittedJobs = new ArrayList<>();
+        for (Job job : scheduledJobs) {
+            if (submissionRanks.contains(job.getCloudletId())) {
+                submittedJobs.add(job);
             }
         }
-        return orderedJobs;
+        return submissionRanks.sort(submittedJobs);
     }
 
-    private void setTaskFinishTime(List<Job> jobs) {
+    private static void setTaskFinishTime(List<Job> jobs) {
         for (Job job : jobs) {
             job.setTaskFinishTime(job.getFinishTime());
         }
     }
 
-    private void setPortDelayToJobs(double portDelay, List<Job> jobs) {
+    private static void setPortDelayToJobs(double portDelay, List<Job> jobs) {
         if (portDelay == 0) return;
-        Set<Double> eventTimes = new HashSet<>();
-        for (int i = 0; i < jobs.size(); i++) {
-            Job job = jobs.get(i);
+        PortSlotAllocator slots = new PortSlotAllocator();
+        for (Job job : jobs) {
             double startTime = job.getExecStartTime();
             double finishTime = job.getTaskFinishTime();
 
-            // check the latest finish time by the same vm
-            double latestFinishTime = Double.MIN_VALUE;
-            for (int j = 0; j < i; j++) {
-                Job previousJob = jobs.get(j);
-                if (previousJob.getVmId() == job.getVmId()) {
-                    latestFinishTime = previousJob.getTaskFinishTime();
-                }
-            }
-
-            while (startTime <= latestFinishTime) {
-                startTime += portDelay;
-                finishTime += portDelay;
-            }
-
-            // check parent's finish time
+            // start after the latest finish time by the same vm and the finish time of the parents
+            double bound = slots.getLastFinishTime(job.getVmId());
             for (Task parent : job.getParentList()) {
-                double parentFinishTime = parent.getTaskFinishTime();
-                while (startTime <= parentFinishTime) {
-                    startTime += portDelay;
-                    finishTime += portDelay;
-                }
+                bound = Math.max(bound, parent.getTaskFinishTime());
             }
+            long steps = PortSlotAllocator.stepsAfter(startTime, bound, portDelay);
 
             // check all event time
-            while (eventTimes.contains(startTime)) {
-                startTime += portDelay;
-                finishTime += portDelay;
-            }
+            steps += slots.stepsToFreeInstant(startTime + steps * portDelay, portDelay);
 
+            startTime += steps * portDelay;
+            finishTime += steps * portDelay;
             job.setExecStartTime(startTime);
             job.setTaskFinishTime(finishTime);
-            eventTimes.add(startTime);
-            eventTimes.add(finishTime);
+            slots.occupy(job.getVmId(), startTime, finishTime);
         }
     }
 
@@ -96,4 +99,85 @@ class SchedulingResult {
     public Map<String, Map<String, List<Job>>> getSchedulingResultsByAlgorithmsEachDag() {
         return schedulingResultsByAlgorithmsEachDag;
     }
+
+    /**
+     * Adds the result of an experiment cell to the summary of its DAG and
+     * label. Only the summary is kept, not the jobs.
+     *
+     * @param metrics the metrics of the cell, as returned by {@link ExperimentCell#run},
+     *                or null if it did not complete
+     */
+    public synchronized void addCellResult(String dagName, String label, double[] metrics, CellStatus status) {
+        cellSummariesEachDag.computeIfAbsent(dagName, name -> new TreeMap<>())
+                .computeIfAbsent(label, name -> new CellSummary())
+                .add(metrics, status);
+    }
+
+    public synchronized Map<String, Map<String, CellSummary>> getCellSummariesEachDag() {
+        return cellSummariesEachDag;
+    }
+
+    /**
+     * The running mean, deviation and range of the metrics of the cells of
+     * one DAG and label, updated with Welford's method.
+     */
+    static class CellSummary {
+        private int completed;
+        private int failed;
+        private int timedOut;
+        private final double[] means = new double[ExperimentCell.METRICS];
+        private final double[] squares = new double[ExperimentCell.METRICS];
+        private final double[] minimums = new double[ExperimentCell.METRICS];
+        private final double[] maximums = new double[ExperimentCell.METRICS];
+
+        CellSummary() {
+            Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+            Arrays.fill(maximums, Double.NEGATIVE_INFINITY);
+        }
+
+        private void add(double[] metrics, CellStatus status) {
+            switch (status) {
+                case FAILED -> failed++;
+                case TIMED_OUT -> timedOut++;
+                case COMPLETED -> {
+                    completed++;
+                    for (int i = 0; i < ExperimentCell.METRICS; i++) {
+                        double delta = metrics[i] - means[i];
+                        means[i] += delta / completed;
+                        squares[i] += delta * (metrics[i] - means[i]);
+                        minimums[i] = Math.min(minimums[i], metrics[i]);
+                        maximums[i] = Math.max(maximums[i], metrics[i]);
+                    }
+                }
+            }
+        }
+
+        public int getCompleted() {
+            return completed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getTimedOut() {
+            return timedOut;
+        }
+
+        public double getMean(int metric) {
+            return completed == 0 ? Double.NaN : means[metric];
+        }
+
+        public double getStandardDeviation(int metric) {
+            return completed < 2 ? 0 : Math.sqrt(squares[metric] / (completed - 1));
+        }
+
+        public double getMin(int metric) {
+            return completed == 0 ? Double.NaN : minimums[metric];
+        }
+
+        public double getMax(int metric) {
+            return completed == 0 ? Double.NaN : maximums[metric];
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.mfu.fog;
+
+import com.mfu.fog.constant.simulation.CloudSimConstants;
+import com.mfu.fog.constant.simulation.engine.ControllerConstants;
+import com.mfu.fog.constant.simulation.engine.OffloadingEngineConstants;
+import com.mfu.fog.constant.simulation.engine.WorkflowEngineConstants;
+import com.mfu.fog.constant.simulation.engine.WorkflowPlannerConstants;
+import com.mfu.fog.constant.simulation.file.ReplicaCatalogConstants;
+import com.mfu.fog.constant.simulation.parameter.ParameterConstants;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.fog.entities.Controller;
+import org.fog.entities.FogDevice;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.WorkflowPlanner;
+import org.workflowsim.scheduling.ReplayScenario;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.ReplicaCatalog;
+
+class SimulationScenario implements ReplayScenario {
+    private static final long serialVersionUID = 1L;
+    private final UserInput userInput;
+    private final String dagPath;
+    private final String algorithmName;
+    private final double portDelay;
+    private String offloadingStrategy = OffloadingEngineConstants.DEFAULT.name();
+    private transient HostEnvironment hostEnvironment;
+    private transient WorkflowEngine workflowEngine;
+
+    SimulationScenario(UserInput userInput, HostEnvironment hostEnvironment, String dagPath, String algorithmName) {
+        this.userInput = userInput;
+        this.hostEnvironment = hostEnvironment;
+        this.dagPath = dagPath;
+        this.algorithmName = algorithmName;
+        this.portDelay = UserInput.getPortDelay();
+    }
+
+    @Override
+    public void build() throws Exception {
+        CloudSimConstants cloudSimConstants = CloudSimConstants.DEFAULT;
+        WorkflowEngineConstants workflowEngineConstants = WorkflowEngineConstants.DEFAULT;
+        WorkflowPlannerConstants workflowPlannerConstants = WorkflowPlannerConstants.DEFAULT;
+        OffloadingEngineConstants offloadingEngineConstants = OffloadingEngineConstants.valueOf(offloadingStrategy);
+        ControllerConstants controllerConstants = ControllerConstants.DEFAULT;
+        ReplicaCatalogConstants replicaCatalogConstants = ReplicaCatalogConstants.DEFAULT;
+        ParameterConstants parameterConstants = ParameterConstants.DEFAULT;
+        if (hostEnvironment == null) {
+            hostEnvironment = new HostEnvironment(userInput);
+        }
+        UserInput.setPortDelay(portDelay);
+        CloudSim.init(cloudSimConstants.NUMBER_OF_USER,
+                cloudSimConstants.CALENDAR_INSTANCE,
+                cloudSimConstants.TRACE_FLAG);
+        hostEnvironment.createComputingDevices(workflowEngineConstants.WORKFLOW_ENGINE_ID);
+        Parameters.init(hostEnvironment.getNumberOfVirtualMachine(), dagPath,
+                parameterConstants.RUNTIME,
+                parameterConstants.DATA_SIZE,
+                parameterConstants.OVERHEAD_PARAMETERS,
+                parameterConstants.CLUSTERING_PARAMETERS,
+                userInput.getSchedulingAlgorithm(algorithmName),
+                parameterConstants.OPTIMIZATION_OBJECTIVE,
+                userInput.getPlanningAlgorithm(algorithmName),
+                parameterConstants.REDUCER_MODE,
+                parameterConstants.DEADLINE);
+        ReplicaCatalog.init(replicaCatalogConstants.FILE_SYSTEM);
+        WorkflowPlanner workflowPlanner = new WorkflowPlanner(workflowPlannerConstants.WORKFLOW_PLANNER_NAME,
+                workflowPlannerConstants.NUMBER_OF_SCHEDULER);
+        workflowEngine = workflowPlanner.getWorkflowEngine();
+        workflowEngine.getoffloadingEngine().setOffloadingStrategy(offloadingEngineConstants.OFFLOADING_STRATEGY);
+        workflowEngine.submitVmList(hostEnvironment.getVirtualMachines(), workflowEngineConstants.SCHEDULER_ID);
+        Controller controller = new Controller(controllerConstants.NAME, hostEnvironment.getFogDevices(), workflowEngine);
+        for (FogDevice fogdevice : controller.getFogDevices()) {
+            workflowEngine.bindSchedulerDatacenter(fogdevice.getId(), workflowEngineConstants.SCHEDULER_ID);
+        }
+    }
+
+    /**
+     * Sets the offloading strategy, by its name in {@link OffloadingEngineConstants}.
+     */
+    void setOffloadingStrategy(String offloadingStrategy) {
+        this.offloadingStrategy = offloadingStrategy;
+    }
+
+    public boolean isMetaheuristic() {
+        Parameters.SchedulingAlgorithm schedulingAlgorithm = userInput.getSchedulingAlgorithm(algorithmName);
+        return schedulingAlgorithm == Parameters.SchedulingAlgorithm.GA
+                || schedulingAlgorithm == Parameters.SchedulingAlgorithm.PSO;
+    }
+
+    public WorkflowEngine getWorkflowEngine() {
+        return workflowEngine;
+    }
+}
@@ -0,0 +1,59 @@
+package com.mfu.fog;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+import org.workflowsim.Job;
+
+import java.util.Formatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps only the aggregates of each DAG and algorithm, not the jobs, and
+ * prints them once every simulation was written.
+ */
+class SummaryResultSink implements ResultSink {
+    private final Map<String, Map<String, Summary>> summariesEachDag = new TreeMap<>();
+
+    @Override
+    public void write(String dagName, String algorithmName, List<Job> jobs) {
+        Summary summary = summariesEachDag.computeIfAbsent(dagName, name -> new TreeMap<>())
+                .computeIfAbsent(algorithmName, name -> new Summary());
+        for (Job job : jobs) {
+            summary.add(job);
+        }
+    }
+
+    @Override
+    public void close() {
+        Formatter formatter = new Formatter(System.out);
+        for (Map.Entry<String, Map<String, Summary>> dagSummaries : summariesEachDag.entrySet()) {
+            Log.printLine();
+            Log.printLine("=================== SUMMARY ==================");
+            Log.printLine("DAG: " + dagSummaries.getKey());
+            formatter.format("%-32s\t%-8s\t%-8s\t%-12s\t%-12s\n", "Algorithm", "Jobs", "Failed", "Makespan", "Cost");
+            for (Map.Entry<String, Summary> entry : dagSummaries.getValue().entrySet()) {
+                Summary summary = entry.getValue();
+                formatter.format("%-32s\t%-8d\t%-8d\t%-12.2f\t%-12.2f\n", entry.getKey(), summary.jobs,
+                        summary.failed, summary.makespan, summary.cost);
+            }
+        }
+        formatter.flush();
+    }
+
+    private static class Summary {
+        private int jobs;
+        private int failed;
+        private double makespan;
+        private double cost;
+
+        private void add(Job job) {
+            jobs++;
+            if (job.getCloudletStatus() == Cloudlet.FAILED)
+                failed++;
+            makespan = Math.max(makespan, job.getTaskFinishTime());
+            cost += job.getProcessingCost();
+        }
+    }
+}
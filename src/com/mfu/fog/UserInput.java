@@ -7,9 +7,12 @@ import org.workflowsim.utils.Parameters;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.Serializable;
 import java.util.*;
 
-public class UserInput {
+public class UserInput implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private int numberOfCloud;
     private int numberOfFog;
@@ -27,6 +30,28 @@ public class UserInput {
         //"MINMIN", "MAXMIN", "FCFS", "ROUNDROBIN",
     }
 
+    /**
+     * Creates the input of a host environment given as MIPS and cost vectors
+     * rather than read from the console.
+     */
+    public UserInput(List<Long> cloudMips, List<Double> cloudCosts, List<Long> fogMips, List<Double> fogCosts,
+                     List<Long> mobileMips, List<Double> mobileCosts) {
+        this();
+        if (cloudMips.size() != cloudCosts.size() || fogMips.size() != fogCosts.size()
+                || mobileMips.size() != mobileCosts.size()) {
+            throw new IllegalArgumentException("each host needs a MIPS and a cost");
+        }
+        this.numberOfCloud = cloudMips.size();
+        this.numberOfFog = fogMips.size();
+        this.numberOfMobile = mobileMips.size();
+        hostMips.put(CloudConstants.DEFAULT.HOST_NAME, new ArrayList<>(cloudMips));
+        hostCosts.put(CloudConstants.DEFAULT.HOST_NAME, new ArrayList<>(cloudCosts));
+        hostMips.put(FogDeviceConstants.DEFAULT.HOST_NAME, new ArrayList<>(fogMips));
+        hostCosts.put(FogDeviceConstants.DEFAULT.HOST_NAME, new ArrayList<>(fogCosts));
+        hostMips.put(EndDeviceConstants.DEFAULT.HOST_NAME, new ArrayList<>(mobileMips));
+        hostCosts.put(EndDeviceConstants.DEFAULT.HOST_NAME, new ArrayList<>(mobileCosts));
+    }
+
     public void readSimulationInput(Scanner scanner) throws FileNotFoundException {
         readEnvironmentSetting(scanner);
         readPortConstraint(scanner);
@@ -161,6 +186,10 @@ public class UserInput {
         return portDelay;
     }
 
+    static void setPortDelay(double delay) {
+        portDelay = delay;
+    }
+
     public List<String> getAlgorithmNames() {
         return algorithmNames;
     }
@@ -0,0 +1,18 @@
+package com.mfu.fog.constant.simulation;
+
+public enum ExperimentConstants {
+    DEFAULT();
+    public final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    public final long CELL_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    public final int REPETITIONS = 1;
+    public final long SEED = 0;
+    public final int GA_POPULATION_SIZE = 20;
+    public final int GA_GENERATIONS = 50;
+    public final double GA_CROSSOVER_PROBABILITY = 0.8;
+    public final double GA_MUTATION_RATE = 0.1;
+    public final int PSO_PARTICLES = 20;
+    public final int PSO_ITERATIONS = 50;
+    public final double PSO_C1 = 2;
+    public final double PSO_C2 = 2;
+    public final double PSO_INERTIA_WEIGHT = 0.5;
+}
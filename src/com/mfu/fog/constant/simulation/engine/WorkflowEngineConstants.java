@@ -4,4 +4,10 @@ public enum WorkflowEngineConstants {
     DEFAULT();
     public final int WORKFLOW_ENGINE_ID = 9;
     public final int SCHEDULER_ID = 0;
+    // replica scores differ from the serial flow, so the replicas are opt-in: 1 scores serially
+    public final int FITNESS_EVALUATION_THREADS = 1;
+    // opt-in: the analytic time and cost differ slightly from the simulation, and its
+    // energy is nonzero where the simulated Controller.TotalEnergy is always 0
+    public final boolean ANALYTIC_FITNESS = false;
+    public final int FITNESS_VERIFICATION_INTERVAL = 0;
 }
@@ -0,0 +1,13 @@
+package com.mfu.fog.constant.simulation.file;
+
+import com.mfu.fog.ResultSink;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum OutputConstants {
+    DEFAULT();
+    public final Set<ResultSink.Format> RESULT_FORMATS = EnumSet.of(ResultSink.Format.CONSOLE);
+    public final String RESULT_DIRECTORY = "results/scheduling-results/";
+    public final int EXCEL_ROW_WINDOW = 100;
+}
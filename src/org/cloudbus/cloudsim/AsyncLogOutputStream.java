@@ -0,0 +1,157 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An output for the {@link Log} that hands the messages to a background thread, which writes them
+ * buffered to another stream, so the simulation does not wait for the console or the disk. A
+ * message is written whole; when the queue is full the simulation waits for room rather than
+ * losing messages. Once the writer has failed, writing throws its error instead of queueing. The
+ * stream must be closed to write the messages still queued.
+ * 
+ * @since CloudSim Toolkit 2.0
+ */
+public class AsyncLogOutputStream extends OutputStream {
+
+	/** The default number of messages queued. */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/** How long to wait for room in the queue before checking the writer again, in milliseconds. */
+	private static final long OFFER_TIMEOUT = 100;
+
+	/** The message that stops the writer. */
+	private static final byte[] END = new byte[0];
+
+	/** The messages waiting to be written. */
+	private final BlockingQueue<byte[]> messages;
+
+	/** The thread writing the messages. */
+	private final Thread writer;
+
+	/** The first error of the writer, reported by the next write or on close. */
+	private volatile IOException error;
+
+	private boolean closed;
+
+	/**
+	 * Creates an output writing to a stream with the default capacity.
+	 * 
+	 * @param target the stream the messages are written to
+	 */
+	public AsyncLogOutputStream(OutputStream target) {
+		this(target, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an output writing to a stream.
+	 * 
+	 * @param target the stream the messages are written to
+	 * @param capacity the number of messages queued
+	 */
+	public AsyncLogOutputStream(final OutputStream target, int capacity) {
+		messages = new ArrayBlockingQueue<byte[]>(capacity);
+		writer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				drain(new BufferedOutputStream(target, 1 << 16));
+			}
+		}, "AsyncLogOutputStream");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	private void drain(OutputStream output) {
+		try {
+			while (true) {
+				byte[] message = messages.take();
+				if (message == END) {
+					break;
+				}
+				output.write(message);
+				if (messages.isEmpty()) {
+					output.flush();
+				}
+			}
+			output.flush();
+		} catch (IOException e) {
+			error = e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("The log output is closed.");
+		}
+		if (error != null) {
+			throw error;
+		}
+		put(Arrays.copyOfRange(b, off, off + len));
+	}
+
+	/**
+	 * Queues a message, waiting for room only as long as the writer runs.
+	 * 
+	 * @param message the message
+	 * @throws IOException if the writer failed or stopped
+	 */
+	private void put(byte[] message) throws IOException {
+		try {
+			while (!messages.offer(message, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				if (error != null) {
+					throw error;
+				}
+				if (!writer.isAlive()) {
+					throw new IOException("The log writer has stopped.");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while queueing a log message.", e);
+		}
+	}
+
+	/**
+	 * Writes the messages still queued and stops the writer. The target stream is not closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (writer.isAlive()) {
+			put(END);
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+}
@@ -9,7 +9,10 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.workflowsim.WorkflowEngine;
@@ -46,7 +49,11 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	/** The used PEs. */
 	protected int usedPes;
 
-	public static List<? extends ResCloudlet> cloudlets = new ArrayList<ResCloudlet>();
+	/**
+	 * The cloudlets finished in this scheduler since the last {@link #clear()}, each of them
+	 * once, so that they can be reset for the next run of the workflow.
+	 */
+	private final Set<ResCloudlet> completedCloudlets;
 
 	/**
 	 * Creates a new CloudletSchedulerSpaceShared object. This method must be
@@ -61,6 +68,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		cloudletExecList = new ArrayList<ResCloudlet>();
 		cloudletPausedList = new ArrayList<ResCloudlet>();
 		cloudletFinishedList = new ArrayList<ResCloudlet>();
+		completedCloudlets = Collections.newSetFromMap(new IdentityHashMap<ResCloudlet, Boolean>());
 		usedPes = 0;
 		currentCpus = 0;
 	}
@@ -117,7 +125,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 			}
 		}
 		getCloudletExecList().removeAll(toRemove);
-		cloudlets.addAll(getCloudletFinishedList());
+		completedCloudlets.addAll(getCloudletFinishedList());
 
 		// for each finished cloudlet, add a new one from the waiting list
 		if (!getCloudletWaitingList().isEmpty()) {
@@ -155,8 +163,12 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		return nextEvent;
 	}
 
+	/**
+	 * Resets the cloudlets finished since the last call, so that the workflow can run again, and
+	 * empties the waiting list. It takes a time proportional to the number of those cloudlets.
+	 */
 	public void clear() {
-		for (ResCloudlet rcl : cloudlets) {
+		for (ResCloudlet rcl : completedCloudlets) {
 			// finished anyway, rounding issue...
 			rcl.setCloudletFinishedSoFar(0);
 			rcl.updateCloudletFinishedSoFar(0);
@@ -170,10 +182,18 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		}
 		usedPes = 0;
 		currentCpus = 0;
-		getCloudletFinishedList().removeAll(cloudlets);
-		getCloudletWaitingList().removeAll(getCloudletWaitingList());
-		cloudlets.removeAll(cloudlets);
+		getCloudletFinishedList().removeIf(completedCloudlets::contains);
+		getCloudletWaitingList().clear();
+		completedCloudlets.clear();
+	}
 
+	/**
+	 * Gets the number of cloudlets finished since the last {@link #clear()}.
+	 * 
+	 * @return the number of distinct finished cloudlets
+	 */
+	public int getCompletedCloudletCount() {
+		return completedCloudlets.size();
 	}
 
 	/**
@@ -10,10 +10,18 @@ package org.cloudbus.cloudsim;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.function.Supplier;
 
 /**
  * The Log class used for performing loggin of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ * <p>
+ * The print methods write unless the output is disabled. The leveled methods also need their
+ * level to be at least the one set with {@link #setLevel(Level)}, and take the message as a
+ * supplier, so it is only built if it is written. Debug messages are only written when the JVM
+ * runs with {@code -Dcloudsim.log.debug=true}; the flag is a constant, so without it the JIT
+ * drops the debug calls altogether. In a hot path, guard the call with {@link #isDebugEnabled()}
+ * so that not even the supplier is created.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
@@ -29,6 +37,80 @@ public class Log {
 	/** The disable output flag. */
 	private static boolean disabled;
 
+	/** The levels of the leveled messages, from the most detailed. */
+	public enum Level {
+		DEBUG, INFO, WARNING, ERROR
+	}
+
+	/** Whether debug messages can be written at all, read once from the system properties. */
+	public static final boolean DEBUG_ENABLED = Boolean.getBoolean("cloudsim.log.debug");
+
+	/** The lowest level written. */
+	private static Level level = Level.INFO;
+
+	/**
+	 * Writes a message as a line if its level is written.
+	 * 
+	 * @param messageLevel the level of the message
+	 * @param message the supplier of the message, only called if it is written
+	 */
+	public static void log(Level messageLevel, Supplier<String> message) {
+		if (isLoggable(messageLevel)) {
+			printLine(message.get());
+		}
+	}
+
+	/**
+	 * Writes a debug message as a line if debug messages are written.
+	 * 
+	 * @param message the supplier of the message, only called if it is written
+	 */
+	public static void debug(Supplier<String> message) {
+		if (isDebugEnabled()) {
+			printLine(message.get());
+		}
+	}
+
+	/**
+	 * Checks if the messages of a level are written.
+	 * 
+	 * @param messageLevel the level
+	 * @return true if they are written
+	 */
+	public static boolean isLoggable(Level messageLevel) {
+		if (messageLevel == Level.DEBUG) {
+			return isDebugEnabled();
+		}
+		return !disabled && messageLevel.compareTo(level) >= 0;
+	}
+
+	/**
+	 * Checks if debug messages are written.
+	 * 
+	 * @return true if they are written
+	 */
+	public static boolean isDebugEnabled() {
+		return DEBUG_ENABLED && !disabled && level == Level.DEBUG;
+	}
+
+	/**
+	 * Sets the lowest level written. Debug messages also need {@link #DEBUG_ENABLED}.
+	 * 
+	 * @param _level the level
+	 */
+	public static void setLevel(Level _level) {
+		level = _level;
+	}
+
+	/**
+	 * Gets the lowest level written.
+	 * 
+	 * @return the level
+	 */
+	public static Level getLevel() {
+		return level;
+	}
+
 	/**
 	 * Prints the message.
 	 * 
@@ -0,0 +1,136 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Base class of the {@link FutureQueue} implementations. It assigns the serials that break ties
+ * between events with the same time, so that every implementation delivers the events in the same
+ * order.
+ * <p>
+ * Historically the events put at the head of the queue (and the very first event added) got the
+ * serial 0 and were kept in insertion order among themselves. Here they get increasing serials
+ * starting from {@link Long#MIN_VALUE} instead, which yields the same order while making the
+ * serials unique, so {@link SimEvent#compareTo(SimEvent)} is a total order that heaps and calendar
+ * buckets can rely on.
+ *
+ * @author Marcos Dias de Assuncao
+ * @since CloudSim Toolkit 1.0
+ * @see FutureQueue
+ */
+public abstract class AbstractFutureQueue implements FutureQueue {
+
+	/** The serial. */
+	private long serial = 0;
+
+	/** The serial of the events put at the head of the queue. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		long next = serial++;
+		newEvent.setSerial(next == 0 ? firstSerial++ : next);
+		insert(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(firstSerial++);
+		insert(newEvent);
+	}
+
+	/**
+	 * Inserts an event whose serial has already been set.
+	 *
+	 * @param newEvent the event
+	 */
+	protected abstract void insert(SimEvent newEvent);
+
+	@Override
+	public int pollAllAtTime(double time, List<SimEvent> events) {
+		int count = 0;
+		SimEvent next = first();
+		while (next != null && next.eventTime() == time) {
+			events.add(poll());
+			count++;
+			next = first();
+		}
+		return count;
+	}
+
+	@Override
+	public boolean removeAll(Collection<SimEvent> events) {
+		boolean changed = false;
+		for (SimEvent event : events) {
+			changed |= remove(event);
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super SimEvent> filter) {
+		boolean changed = false;
+		Iterator<SimEvent> iterator = iterator();
+		while (iterator.hasNext()) {
+			if (filter.test(iterator.next())) {
+				iterator.remove();
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns an iterator over a sorted copy of the given events. Removing through the iterator
+	 * removes the event from this queue. It is meant for the implementations that do not keep the
+	 * events totally ordered, and costs O(n log n).
+	 *
+	 * @param events a copy of the events in the queue; it is sorted in place
+	 * @return the iterator
+	 */
+	protected Iterator<SimEvent> snapshotIterator(final SimEvent[] events) {
+		Arrays.sort(events);
+		return new Iterator<SimEvent>() {
+
+			private int next = 0;
+
+			private SimEvent last = null;
+
+			@Override
+			public boolean hasNext() {
+				return next < events.length;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = events[next++];
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				AbstractFutureQueue.this.remove(last);
+				last = null;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,380 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * A future event queue implemented as a calendar queue (R. Brown, "Calendar Queues: A Fast O(1)
+ * Priority Queue Implementation for the Simulation Event Set Problem", CACM 31(10), 1988).
+ * <p>
+ * The time line is cut into slots of a fixed width and slot <code>s</code> is stored in bucket
+ * <code>s mod buckets</code>. Each bucket keeps its events sorted, so all the events sharing a
+ * time lie next to each other in the same bucket. The number of buckets follows the queue size and
+ * the slot width is re-estimated from the events at the head of the queue on each resize, which
+ * keeps adding and polling at amortized O(1) for the usual simulation workloads. Removing an
+ * arbitrary event only searches its bucket; iterating sorts a copy of the queue, while removing the
+ * events that match a filter compacts each bucket in place.
+ *
+ * @author Marcos Dias de Assuncao
+ * @since CloudSim Toolkit 1.0
+ * @see FutureQueue
+ */
+public class CalendarFutureQueue extends AbstractFutureQueue {
+
+	/** The minimum number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The number of head events sampled to estimate the slot width. */
+	private static final int WIDTH_SAMPLES = 25;
+
+	/** The buckets; their number is a power of two. */
+	private Bucket[] buckets;
+
+	/** The mask mapping a slot to its bucket. */
+	private int mask;
+
+	/** The width of a slot. */
+	private double width = 1.0;
+
+	/** The slot of the first event; no event in the queue lies in an earlier slot. */
+	private long currentSlot = 0;
+
+	/** The number of events in the queue. */
+	private int size = 0;
+
+	/**
+	 * Creates an empty calendar queue.
+	 */
+	public CalendarFutureQueue() {
+		allocate(MIN_BUCKETS);
+	}
+
+	@Override
+	protected void insert(SimEvent newEvent) {
+		long slot = slotOf(newEvent.eventTime());
+		if (size == 0 || slot < currentSlot) {
+			currentSlot = slot;
+		}
+		buckets[(int) (slot & mask)].add(newEvent);
+		size++;
+		if (size > 2 * buckets.length) {
+			resize(buckets.length * 2);
+		}
+	}
+
+	@Override
+	public SimEvent first() {
+		int index = findFirst();
+		return index < 0 ? null : buckets[index].first();
+	}
+
+	@Override
+	public SimEvent poll() {
+		int index = findFirst();
+		if (index < 0) {
+			return null;
+		}
+		SimEvent first = buckets[index].removeFirst();
+		size--;
+		if (buckets.length > MIN_BUCKETS && size < buckets.length / 2) {
+			resize(buckets.length / 2);
+		}
+		return first;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		SimEvent[] events = new SimEvent[size];
+		int count = 0;
+		for (Bucket bucket : buckets) {
+			count = bucket.copyTo(events, count);
+		}
+		return snapshotIterator(events);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		if (size > 0 && buckets[(int) (slotOf(event.eventTime()) & mask)].remove(event)) {
+			size--;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super SimEvent> filter) {
+		int removed = 0;
+		for (Bucket bucket : buckets) {
+			removed += bucket.removeIf(filter);
+		}
+		if (removed == 0) {
+			return false;
+		}
+		size -= removed;
+		if (buckets.length > MIN_BUCKETS && size < buckets.length / 2) {
+			resize(Math.max(MIN_BUCKETS, Integer.highestOneBit(Math.max(size, 1)) * 2));
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		allocate(MIN_BUCKETS);
+		currentSlot = 0;
+		size = 0;
+	}
+
+	/**
+	 * Finds the bucket holding the first event and moves {@link #currentSlot} to its slot.
+	 *
+	 * @return the bucket index, or -1 if the queue is empty
+	 */
+	private int findFirst() {
+		if (size == 0) {
+			return -1;
+		}
+		for (int i = 0; i < buckets.length; i++) {
+			long slot = currentSlot + i;
+			int index = (int) (slot & mask);
+			Bucket bucket = buckets[index];
+			// the earliest event of the bucket lies in this slot, and every earlier slot is empty
+			if (bucket.size > 0 && slotOf(bucket.first().eventTime()) <= slot) {
+				currentSlot = slot;
+				return index;
+			}
+		}
+
+		// a whole year without events: look for the earliest event directly
+		int best = -1;
+		for (int i = 0; i < buckets.length; i++) {
+			if (buckets[i].size > 0 && (best < 0 || buckets[i].first().compareTo(buckets[best].first()) < 0)) {
+				best = i;
+			}
+		}
+		currentSlot = slotOf(buckets[best].first().eventTime());
+		return best;
+	}
+
+	/**
+	 * Rebuilds the queue with the given number of buckets and a new slot width.
+	 *
+	 * @param bucketCount the number of buckets
+	 */
+	private void resize(int bucketCount) {
+		SimEvent[] events = new SimEvent[size];
+		int count = 0;
+		int samples = Math.min(size, WIDTH_SAMPLES);
+		// the head events come out in order and are used to estimate the width
+		while (count < samples) {
+			events[count++] = buckets[findFirst()].removeFirst();
+		}
+		for (Bucket bucket : buckets) {
+			count = bucket.copyTo(events, count);
+		}
+
+		width = estimateWidth(events, samples);
+		allocate(bucketCount);
+		currentSlot = count == 0 ? 0 : slotOf(events[0].eventTime());
+		for (SimEvent event : events) {
+			buckets[(int) (slotOf(event.eventTime()) & mask)].add(event);
+		}
+	}
+
+	/**
+	 * Estimates the slot width as three times the average separation between the first events,
+	 * ignoring the separations larger than twice the average.
+	 *
+	 * @param events the events, the first <code>samples</code> of them in order
+	 * @param samples the number of ordered events
+	 * @return the width
+	 */
+	private double estimateWidth(SimEvent[] events, int samples) {
+		if (samples < 2) {
+			return width;
+		}
+		double average = (events[samples - 1].eventTime() - events[0].eventTime()) / (samples - 1);
+		double sum = 0;
+		int count = 0;
+		for (int i = 1; i < samples; i++) {
+			double separation = events[i].eventTime() - events[i - 1].eventTime();
+			if (separation <= 2 * average) {
+				sum += separation;
+				count++;
+			}
+		}
+		double estimate = count == 0 ? 0 : 3 * sum / count;
+		if (estimate > 0 && !Double.isInfinite(estimate)) {
+			return estimate;
+		}
+		return width;
+	}
+
+	/**
+	 * Allocates empty buckets.
+	 *
+	 * @param bucketCount the number of buckets, a power of two
+	 */
+	private void allocate(int bucketCount) {
+		buckets = new Bucket[bucketCount];
+		for (int i = 0; i < bucketCount; i++) {
+			buckets[i] = new Bucket();
+		}
+		mask = bucketCount - 1;
+	}
+
+	/**
+	 * Gets the slot of a time.
+	 *
+	 * @param time the time
+	 * @return the slot
+	 */
+	private long slotOf(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * A bucket: a sorted array of events with a movable head.
+	 */
+	private static final class Bucket {
+
+		/** The events; the valid ones are in [head, head + size). */
+		private SimEvent[] events = new SimEvent[4];
+
+		/** The index of the first event. */
+		private int head = 0;
+
+		/** The number of events. */
+		private int size = 0;
+
+		/**
+		 * Gets the first event.
+		 *
+		 * @return the first event
+		 */
+		SimEvent first() {
+			return events[head];
+		}
+
+		/**
+		 * Inserts an event after all the events that come before it.
+		 *
+		 * @param event the event
+		 */
+		void add(SimEvent event) {
+			if (head + size == events.length) {
+				if (head > 0) {
+					System.arraycopy(events, head, events, 0, size);
+					Arrays.fill(events, size, head + size, null);
+				} else {
+					events = Arrays.copyOf(events, events.length * 2);
+				}
+				head = 0;
+			}
+
+			// events mostly arrive in time order, so check the tail before searching
+			int end = head + size;
+			int position = end;
+			if (size > 0 && event.compareTo(events[end - 1]) < 0) {
+				int low = head;
+				int high = end - 1;
+				while (low < high) {
+					int middle = (low + high) >>> 1;
+					if (event.compareTo(events[middle]) < 0) {
+						high = middle;
+					} else {
+						low = middle + 1;
+					}
+				}
+				position = low;
+				System.arraycopy(events, position, events, position + 1, end - position);
+			}
+			events[position] = event;
+			size++;
+		}
+
+		/**
+		 * Removes the first event.
+		 *
+		 * @return the removed event
+		 */
+		SimEvent removeFirst() {
+			SimEvent event = events[head];
+			events[head] = null;
+			size--;
+			head = size == 0 ? 0 : head + 1;
+			return event;
+		}
+
+		/**
+		 * Removes the given event.
+		 *
+		 * @param event the event
+		 * @return true, if the event was in the bucket
+		 */
+		boolean remove(SimEvent event) {
+			int end = head + size;
+			for (int i = head; i < end; i++) {
+				if (events[i] == event) {
+					System.arraycopy(events, i + 1, events, i, end - i - 1);
+					events[end - 1] = null;
+					size--;
+					if (size == 0) {
+						head = 0;
+					}
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Removes the events that match the given filter, keeping the others in order.
+		 *
+		 * @param filter the filter
+		 * @return the number of removed events
+		 */
+		int removeIf(Predicate<? super SimEvent> filter) {
+			int end = head + size;
+			int kept = head;
+			for (int i = head; i < end; i++) {
+				if (!filter.test(events[i])) {
+					events[kept++] = events[i];
+				}
+			}
+			Arrays.fill(events, kept, end, null);
+			int removed = end - kept;
+			size -= removed;
+			if (size == 0) {
+				head = 0;
+			}
+			return removed;
+		}
+
+		/**
+		 * Copies the events to an array.
+		 *
+		 * @param target the array
+		 * @param offset the first index to write
+		 * @return the index after the last written event
+		 */
+		int copyTo(SimEvent[] target, int offset) {
+			System.arraycopy(events, head, target, offset, size);
+			return offset + size;
+		}
+	}
+
+}
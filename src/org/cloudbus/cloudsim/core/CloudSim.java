@@ -336,9 +336,21 @@ public class CloudSim {
 	/** The future event queue. */
 	protected static FutureQueue future;
 
+	/** The implementation of the future event queue created by {@link #initialize()}. */
+	private static FutureQueue.Type futureQueueType = FutureQueue.Type.BINARY_HEAP;
+
+	/** The events processed in the current clock tick; reused across ticks. */
+	private static final List<SimEvent> tickEvents = new ArrayList<SimEvent>();
+
 	/** The deferred event queue. */
 	protected static DeferredQueue deferred;
 
+	/** The events recycled once processed, if pooling is enabled. */
+	private static final SimEventPool eventPool = new SimEventPool();
+
+	/** The implementation of the deferred event queue created by {@link #initialize()}. */
+	private static DeferredQueue.Type deferredQueueType = DeferredQueue.Type.INDEXED;
+
 	/** The simulation clock. */
 	public static double clock;
 
@@ -359,7 +371,7 @@ public class CloudSim {
 	private static long pauseAt = -1;
 
 	/** The abrupt terminate. */
-	private static boolean abruptTerminate = false;
+	private static volatile boolean abruptTerminate = false;
 
 	private static Set<Double> eventTimes;
 
@@ -371,8 +383,8 @@ public class CloudSim {
 		Log.printLine("Initialising...");
 		entities = new ArrayList<SimEntity>();
 		entitiesByName = new LinkedHashMap<String, SimEntity>();
-		future = new FutureQueue();
-		deferred = new DeferredQueue();
+		future = futureQueueType.newQueue();
+		deferred = deferredQueueType.newQueue();
 		waitPredicates = new HashMap<Integer, Predicate>();
 		eventTimes = new HashSet<>();
 		clock = 0;
@@ -387,6 +399,63 @@ public class CloudSim {
 	/** A standard predicate that does not match any events. */
 	public final static PredicateNone SIM_NONE = new PredicateNone();
 
+	/**
+	 * Sets the implementation of the future event queue. It takes effect on the next call to
+	 * {@link #init(int, Calendar, boolean)}; all implementations deliver the events in the same
+	 * order.
+	 * 
+	 * @param type the future queue implementation
+	 */
+	public static void setFutureQueueType(FutureQueue.Type type) {
+		futureQueueType = type;
+	}
+
+	/**
+	 * Gets the implementation of the future event queue.
+	 * 
+	 * @return the future queue implementation
+	 */
+	public static FutureQueue.Type getFutureQueueType() {
+		return futureQueueType;
+	}
+
+	/**
+	 * Gets the pool of the events, to enable their recycling and read its allocation counters.
+	 * 
+	 * @return the event pool
+	 */
+	public static SimEventPool getEventPool() {
+		return eventPool;
+	}
+
+	/**
+	 * Releases an event processed by an entity to the pool.
+	 * 
+	 * @param e the event
+	 */
+	static void releaseEvent(SimEvent e) {
+		eventPool.release(e);
+	}
+
+	/**
+	 * Sets the implementation of the deferred event queue. It takes effect on the next call to
+	 * {@link #init(int, Calendar, boolean)}.
+	 * 
+	 * @param type the deferred queue implementation
+	 */
+	public static void setDeferredQueueType(DeferredQueue.Type type) {
+		deferredQueueType = type;
+	}
+
+	/**
+	 * Gets the implementation of the deferred event queue.
+	 * 
+	 * @return the deferred queue implementation
+	 */
+	public static DeferredQueue.Type getDeferredQueueType() {
+		return deferredQueueType;
+	}
+
 	// Public access methods
 
 	/**
@@ -501,7 +570,7 @@ public class CloudSim {
 		SimEvent evt;
 		if (running) {
 			// Post an event to make this entity
-			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			evt = eventPool.acquire(SimEvent.CREATE, clock, 1, 0, 0, e);
 			future.addEvent(evt);
 		}
 		if (e.getId() == -1) { // Only add once!
@@ -548,29 +617,17 @@ public class CloudSim {
 
 		// If there are more future events then deal with them
 		if (future.size() > 0) {
-			List<SimEvent> toRemove = new ArrayList<SimEvent>();
-			Iterator<SimEvent> fit = future.iterator();
 			queue_empty = false;
-			SimEvent first = fit.next();
+			SimEvent first = future.poll();
+			double time = first.eventTime();
 			processEvent(first);
-			future.remove(first);
-
-			fit = future.iterator();
-
-			// Check if next events are at same time...
-			boolean trymore = fit.hasNext();
-			while (trymore) {
-				SimEvent next = fit.next();
-				if (next.eventTime() == first.eventTime()) {
-					processEvent(next);
-					toRemove.add(next);
-					trymore = fit.hasNext();
-				} else {
-					trymore = false;
-				}
-			}
 
-			future.removeAll(toRemove);
+			// Then with the next events at the same time
+			future.pollAllAtTime(time, tickEvents);
+			for (int i = 0; i < tickEvents.size(); i++) {
+				processEvent(tickEvents.get(i));
+			}
+			tickEvents.clear();
 
 		} else {
 			queue_empty = true;
@@ -596,7 +653,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void hold(int src, long delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		SimEvent e = eventPool.acquire(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
 		future.addEvent(e);
 		entities.get(src).setState(SimEntity.HOLDING);
 	}
@@ -608,7 +665,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void pause(int src, double delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		SimEvent e = eventPool.acquire(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
 		future.addEvent(e);
 		entities.get(src).setState(SimEntity.HOLDING);
 	}
@@ -621,9 +678,11 @@ public class CloudSim {
 	 * @param delay the delay
 	 * @param tag   the tag
 	 * @param data  the data
+	 * @return the queued event, which can be passed to {@link #cancel(SimEvent)} until it is
+	 *         delivered
 	 */
 
-	public static void send(int src, int dest, double delay, int tag, Object data) {
+	public static SimEvent send(int src, int dest, double delay, int tag, Object data) {
 		if (delay < 0) {
 			throw new IllegalArgumentException("Send delay can't be negative.");
 		}
@@ -640,8 +699,9 @@ public class CloudSim {
 //
 //		}
 
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		SimEvent e = eventPool.acquire(SimEvent.SEND, clock + delay, src, dest, tag, data);
 		future.addEvent(e);
+		return e;
 	}
 
 //	private static double processDelay(int src, int dest, Job job, double currentTime, int tag) {
@@ -688,7 +748,7 @@ public class CloudSim {
 			throw new IllegalArgumentException("Send delay can't be negative.");
 		}
 
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		SimEvent e = eventPool.acquire(SimEvent.SEND, clock + delay, src, dest, tag, data);
 		future.addEventFirst(e);
 	}
 
@@ -717,16 +777,7 @@ public class CloudSim {
 	 * @return the int
 	 */
 	public static int waiting(int d, Predicate p) {
-		int count = 0;
-		SimEvent event;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if ((event.getDestination() == d) && (p.match(event))) {
-				count++;
-			}
-		}
-		return count;
+		return deferred.count(d, p);
 	}
 
 	/**
@@ -734,19 +785,10 @@ public class CloudSim {
 	 * 
 	 * @param src the src
 	 * @param p   the p
-	 * @return the sim event
+	 * @return the sim event, or <tt>null</tt> if none matches
 	 */
 	public static SimEvent select(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				iterator.remove();
-				break;
-			}
-		}
-		return ev;
+		return deferred.select(src, p);
 	}
 
 	/**
@@ -754,18 +796,10 @@ public class CloudSim {
 	 * 
 	 * @param src the src
 	 * @param p   the p
-	 * @return the sim event
+	 * @return the sim event, or <tt>null</tt> if none matches
 	 */
 	public static SimEvent findFirstDeferred(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				break;
-			}
-		}
-		return ev;
+		return deferred.findFirst(src, p);
 	}
 
 	/**
@@ -789,6 +823,18 @@ public class CloudSim {
 		return ev;
 	}
 
+	/**
+	 * Removes an event returned by {@link #send(int, int, double, int, Object)} from the event
+	 * queue, without scanning the queue. The event must not have been delivered yet, since a
+	 * delivered event may be reused for another one.
+	 * 
+	 * @param event the event
+	 * @return true, if the event was still queued
+	 */
+	public static boolean cancel(SimEvent event) {
+		return future.remove(event);
+	}
+
 	/**
 	 * Removes all events that match a given predicate from the future event queue
 	 * returns true if at least one event has been cancelled; false otherwise.
@@ -798,16 +844,8 @@ public class CloudSim {
 	 * @return true, if successful
 	 */
 	public static boolean cancelAll(int src, Predicate p) {
-		SimEvent ev = null;
-		int previousSize = future.size();
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSource() == src && p.match(ev)) {
-				iter.remove();
-			}
-		}
-		return previousSize < future.size();
+		// the order does not matter here, so the queue is scanned without sorting it
+		return future.removeIf(ev -> ev.getSource() == src && p.match(ev));
 	}
 
 	//
@@ -836,6 +874,7 @@ public class CloudSim {
 		case SimEvent.CREATE:
 			SimEntity newe = (SimEntity) e.getData();
 			addEntityDynamically(newe);
+			eventPool.release(e);
 			break;
 
 		case SimEvent.SEND:
@@ -850,7 +889,9 @@ public class CloudSim {
 					Integer destObj = Integer.valueOf(dest);
 					Predicate p = waitPredicates.get(destObj);
 					if ((p == null) || (tag == 9999) || (p.match(e))) {
-						dest_ent.setEventBuffer((SimEvent) e.clone());
+						// the event has left the queues, so the entity can have it without a copy
+						dest_ent.setEventBuffer(e);
+						eventPool.delivered();
 						dest_ent.setState(SimEntity.RUNNABLE);
 						waitPredicates.remove(destObj);
 					} else {
@@ -869,6 +910,7 @@ public class CloudSim {
 			} else {
 				entities.get(src).setState(SimEntity.RUNNABLE);
 			}
+			eventPool.release(e);
 			break;
 
 		default:
@@ -964,7 +1006,7 @@ public class CloudSim {
 			}
 
 			if (pauseAt != -1
-					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.iterator().next().eventTime())
+					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.first().eventTime())
 							|| future.size() == 0 && pauseAt <= clock)) {
 				pauseSimulation();
 				clock = pauseAt;
@@ -9,80 +9,102 @@
 package org.cloudbus.cloudsim.core;
 
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
 
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
- * 
+ * The deferred event queue used by {@link CloudSim}. It holds the events that were delivered to an
+ * entity which was not waiting for them. For a given destination, the events are kept in ascending
+ * order of their event time, and an event is inserted as the last of all the events with the same
+ * time.
+ * <p>
+ * Several implementations are available, see {@link Type}.
+ *
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
- * @see Simulation
+ * @see CloudSim
  * @see SimEvent
  */
-public class DeferredQueue {
+public interface DeferredQueue extends Iterable<SimEvent> {
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/**
+	 * The available deferred queue implementations.
+	 */
+	enum Type {
+		/** A single linked list, see {@link LinkedListDeferredQueue}. */
+		LINKED_LIST,
+		/** One bucket per destination entity, see {@link IndexedDeferredQueue}. */
+		INDEXED;
 
-	/** The max time. */
-	private double maxTime = -1;
+		/**
+		 * Creates an empty queue of this type.
+		 *
+		 * @return the new queue
+		 */
+		public DeferredQueue newQueue() {
+			switch (this) {
+				case LINKED_LIST:
+					return new LinkedListDeferredQueue();
+				default:
+					return new IndexedDeferredQueue();
+			}
+		}
+	}
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
 	 * of the events.
-	 * 
+	 *
 	 * @param newEvent The event to be added to the queue.
 	 */
-	public void addEvent(SimEvent newEvent) {
-		// The event has to be inserted as the last of all events
-		// with the same event_time(). Yes, this matters.
-		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
-			list.add(newEvent);
-			maxTime = eventTime;
-			return;
-		}
+	void addEvent(SimEvent newEvent);
 
-		ListIterator<SimEvent> iterator = list.listIterator();
-		SimEvent event;
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if (event.eventTime() > eventTime) {
-				iterator.previous();
-				iterator.add(newEvent);
-				return;
-			}
-		}
+	/**
+	 * Counts the events for a destination that match a predicate.
+	 *
+	 * @param destination the destination entity id
+	 * @param p the predicate
+	 * @return the number of matching events
+	 */
+	int count(int destination, Predicate p);
 
-		list.add(newEvent);
-	}
+	/**
+	 * Gets the first event for a destination that matches a predicate, without removing it.
+	 *
+	 * @param destination the destination entity id
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if none matches
+	 */
+	SimEvent findFirst(int destination, Predicate p);
+
+	/**
+	 * Removes and returns the first event for a destination that matches a predicate.
+	 *
+	 * @param destination the destination entity id
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if none matches
+	 */
+	SimEvent select(int destination, Predicate p);
 
 	/**
-	 * Returns an iterator to the events in the queue.
-	 * 
+	 * Returns an iterator to the events in the queue. The events of a destination come in order,
+	 * but the implementations are free to group them by destination.
+	 *
 	 * @return the iterator
 	 */
-	public Iterator<SimEvent> iterator() {
-		return list.iterator();
-	}
+	@Override
+	Iterator<SimEvent> iterator();
 
 	/**
 	 * Returns the size of this event queue.
-	 * 
+	 *
 	 * @return the number of events in the queue.
 	 */
-	public int size() {
-		return list.size();
-	}
+	int size();
 
 	/**
 	 * Clears the queue.
 	 */
-	public void clear() {
-		list.clear();
-	}
+	void clear();
 
-}
\ No newline at end of file
+}
@@ -10,90 +10,139 @@ package org.cloudbus.cloudsim.core;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
- * This class implements the future event queue used by {@link Simulation}. The event queue uses a
- * {@link TreeSet} in order to store the events.
- * 
+ * The future event queue used by {@link CloudSim}. Events are kept in ascending order of their
+ * event time; events with the same time are ordered by the serial assigned when they were added,
+ * so events added through {@link #addEventFirst(SimEvent)} come before the ones added through
+ * {@link #addEvent(SimEvent)}, and each group keeps its insertion order.
+ * <p>
+ * Several implementations are available, see {@link Type}. All of them deliver the events in
+ * exactly the same order.
+ *
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
- * @see Simulation
- * @see java.util.TreeSet
+ * @see CloudSim
+ * @see SimEvent
  */
-public class FutureQueue {
+public interface FutureQueue extends Iterable<SimEvent> {
 
-	/** The sorted set. */
-	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+	/**
+	 * The available future queue implementations.
+	 */
+	enum Type {
+		/** A red-black tree, see {@link TreeSetFutureQueue}. */
+		TREE_SET,
+		/** An array-backed binary heap, see {@link HeapFutureQueue}. */
+		BINARY_HEAP,
+		/** A calendar queue with amortized O(1) operations, see {@link CalendarFutureQueue}. */
+		CALENDAR;
 
-	/** The serial. */
-	private long serial = 0;
+		/**
+		 * Creates an empty queue of this type.
+		 *
+		 * @return the new queue
+		 */
+		public FutureQueue newQueue() {
+			switch (this) {
+				case TREE_SET:
+					return new TreeSetFutureQueue();
+				case CALENDAR:
+					return new CalendarFutureQueue();
+				default:
+					return new HeapFutureQueue();
+			}
+		}
+	}
 
 	/**
 	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
 	 * the events in the queue.
-	 * 
+	 *
 	 * @param newEvent The event to be put in the queue.
 	 */
-	public void addEvent(SimEvent newEvent) {
-		newEvent.setSerial(serial++);
-		sortedSet.add(newEvent);
-	}
+	void addEvent(SimEvent newEvent);
 
 	/**
-	 * Add a new event to the head of the queue.
-	 * 
+	 * Add a new event to the head of the queue, i.e. before the events with the same time that
+	 * were added through {@link #addEvent(SimEvent)}.
+	 *
 	 * @param newEvent The event to be put in the queue.
 	 */
-	public void addEventFirst(SimEvent newEvent) {
-		newEvent.setSerial(0);
-		sortedSet.add(newEvent);
-	}
+	void addEventFirst(SimEvent newEvent);
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent first();
+
+	/**
+	 * Removes and returns the first event of the queue.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent poll();
 
 	/**
-	 * Returns an iterator to the queue.
-	 * 
+	 * Removes all the events at the head of the queue whose time is equal to the given time and
+	 * appends them, in order, to the given list. No memory is allocated besides the growth of
+	 * <code>events</code>, so callers should reuse the same list.
+	 *
+	 * @param time the event time to drain
+	 * @param events the list receiving the removed events
+	 * @return the number of events removed
+	 */
+	int pollAllAtTime(double time, List<SimEvent> events);
+
+	/**
+	 * Returns an iterator to the queue, in event order. Removing through the iterator removes the
+	 * event from the queue.
+	 *
 	 * @return the iterator
 	 */
-	public Iterator<SimEvent> iterator() {
-		return sortedSet.iterator();
-	}
+	@Override
+	Iterator<SimEvent> iterator();
 
 	/**
 	 * Returns the size of this event queue.
-	 * 
+	 *
 	 * @return the size
 	 */
-	public int size() {
-		return sortedSet.size();
-	}
+	int size();
 
 	/**
 	 * Removes the event from the queue.
-	 * 
+	 *
 	 * @param event the event
 	 * @return true, if successful
 	 */
-	public boolean remove(SimEvent event) {
-		return sortedSet.remove(event);
-	}
+	boolean remove(SimEvent event);
 
 	/**
 	 * Removes all the events from the queue.
-	 * 
+	 *
 	 * @param events the events
 	 * @return true, if successful
 	 */
-	public boolean removeAll(Collection<SimEvent> events) {
-		return sortedSet.removeAll(events);
-	}
+	boolean removeAll(Collection<SimEvent> events);
+
+	/**
+	 * Removes all the events that match the given filter. The events are visited in no particular
+	 * order, so this is cheaper than removing through {@link #iterator()} when the order does not
+	 * matter.
+	 *
+	 * @param filter the filter
+	 * @return true, if at least one event was removed
+	 */
+	boolean removeIf(Predicate<? super SimEvent> filter);
 
 	/**
 	 * Clears the queue.
 	 */
-	public void clear() {
-		sortedSet.clear();
-	}
+	void clear();
 
-}
\ No newline at end of file
+}
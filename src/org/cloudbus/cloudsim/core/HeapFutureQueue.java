@@ -0,0 +1,174 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * A future event queue backed by an array binary heap. Adding and polling cost O(log n) and do not
+ * allocate once the array has grown to the peak queue size. Removing an arbitrary event costs
+ * O(log n), as each event keeps its heap index, and iterating sorts a copy of the queue. Removing
+ * the events that match a filter scans the array and restores the heap once, in O(n).
+ *
+ * @author Marcos Dias de Assuncao
+ * @since CloudSim Toolkit 1.0
+ * @see FutureQueue
+ */
+public class HeapFutureQueue extends AbstractFutureQueue {
+
+	/** The initial capacity of the heap. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The heap, heap[0] being the first event. */
+	private SimEvent[] heap = new SimEvent[INITIAL_CAPACITY];
+
+	/** The number of events in the heap. */
+	private int size = 0;
+
+	@Override
+	protected void insert(SimEvent newEvent) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+		siftUp(size++, newEvent);
+	}
+
+	@Override
+	public SimEvent first() {
+		return size == 0 ? null : heap[0];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		SimEvent first = heap[0];
+		removeAt(0);
+		return first;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return snapshotIterator(Arrays.copyOf(heap, size));
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		int index = event.heapIndex;
+		if (index < 0 || index >= size || heap[index] != event) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super SimEvent> filter) {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			SimEvent event = heap[i];
+			if (filter.test(event)) {
+				event.heapIndex = -1;
+			} else {
+				heap[kept] = event;
+				event.heapIndex = kept++;
+			}
+		}
+		if (kept == size) {
+			return false;
+		}
+		Arrays.fill(heap, kept, size, null);
+		size = kept;
+		for (int i = (size >>> 1) - 1; i >= 0; i--) {
+			siftDown(i, heap[i]);
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].heapIndex = -1;
+		}
+		Arrays.fill(heap, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Removes the event at the given heap index.
+	 *
+	 * @param index the index
+	 */
+	private void removeAt(int index) {
+		heap[index].heapIndex = -1;
+		SimEvent last = heap[--size];
+		heap[size] = null;
+		if (index == size) {
+			return;
+		}
+		siftDown(index, last);
+		if (heap[index] == last) {
+			siftUp(index, last);
+		}
+	}
+
+	/**
+	 * Moves an event up from the given index until its parent comes before it.
+	 *
+	 * @param index the index
+	 * @param event the event
+	 */
+	private void siftUp(int index, SimEvent event) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (event.compareTo(heap[parent]) >= 0) {
+				break;
+			}
+			heap[index] = heap[parent];
+			heap[index].heapIndex = index;
+			index = parent;
+		}
+		heap[index] = event;
+		event.heapIndex = index;
+	}
+
+	/**
+	 * Moves an event down from the given index until it comes before its children.
+	 *
+	 * @param index the index
+	 * @param event the event
+	 */
+	private void siftDown(int index, SimEvent event) {
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			int right = child + 1;
+			if (right < size && heap[right].compareTo(heap[child]) < 0) {
+				child = right;
+			}
+			if (event.compareTo(heap[child]) <= 0) {
+				break;
+			}
+			heap[index] = heap[child];
+			heap[index].heapIndex = index;
+			index = child;
+		}
+		heap[index] = event;
+		event.heapIndex = index;
+	}
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A deferred event queue that keeps one time-ordered bucket per destination entity, indexed by the
+ * entity id. Counting, finding and selecting the events of an entity only look at its own bucket,
+ * so their cost follows the number of events deferred for that entity rather than the size of the
+ * whole queue.
+ *
+ * @author Marcos Dias de Assuncao
+ * @since CloudSim Toolkit 1.0
+ * @see DeferredQueue
+ */
+public class IndexedDeferredQueue implements DeferredQueue {
+
+	/** An empty bucket array. */
+	private static final Bucket[] NO_BUCKETS = new Bucket[0];
+
+	/** The buckets, indexed by destination entity id; an entry is null until an event arrives. */
+	private Bucket[] buckets = NO_BUCKETS;
+
+	/** The number of events in the queue. */
+	private int size = 0;
+
+	/**
+	 * Adds a new event to the queue. The event is inserted as the last of the events of its
+	 * destination with the same event time.
+	 *
+	 * @param newEvent The event to be added to the queue.
+	 */
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		int destination = newEvent.getDestination();
+		if (destination >= buckets.length) {
+			buckets = Arrays.copyOf(buckets, Math.max(destination + 1, buckets.length * 2));
+		}
+		Bucket bucket = buckets[destination];
+		if (bucket == null) {
+			bucket = new Bucket();
+			buckets[destination] = bucket;
+		}
+		bucket.add(newEvent);
+		size++;
+	}
+
+	@Override
+	public int count(int destination, Predicate p) {
+		Bucket bucket = getBucket(destination);
+		if (bucket == null) {
+			return 0;
+		}
+		if (p == CloudSim.SIM_ANY) {
+			return bucket.size;
+		}
+		int count = 0;
+		for (int i = bucket.head, end = bucket.head + bucket.size; i < end; i++) {
+			if (p.match(bucket.events[i])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public SimEvent findFirst(int destination, Predicate p) {
+		Bucket bucket = getBucket(destination);
+		if (bucket == null) {
+			return null;
+		}
+		int index = bucket.indexOf(p);
+		return index < 0 ? null : bucket.events[index];
+	}
+
+	@Override
+	public SimEvent select(int destination, Predicate p) {
+		Bucket bucket = getBucket(destination);
+		if (bucket == null) {
+			return null;
+		}
+		int index = bucket.indexOf(p);
+		if (index < 0) {
+			return null;
+		}
+		size--;
+		return bucket.removeAt(index);
+	}
+
+	/**
+	 * Returns an iterator to the events in the queue, grouped by destination.
+	 *
+	 * @return the iterator
+	 */
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int destination = 0;
+
+			private int next = 0;
+
+			private int last = -1;
+
+			@Override
+			public boolean hasNext() {
+				while (destination < buckets.length) {
+					Bucket bucket = buckets[destination];
+					if (bucket != null && next < bucket.size) {
+						return true;
+					}
+					destination++;
+					next = 0;
+					last = -1;
+				}
+				return false;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Bucket bucket = buckets[destination];
+				last = next++;
+				return bucket.events[bucket.head + last];
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				Bucket bucket = buckets[destination];
+				bucket.removeAt(bucket.head + last);
+				size--;
+				next = last;
+				last = -1;
+			}
+		};
+	}
+
+	/**
+	 * Returns the size of this event queue.
+	 *
+	 * @return the number of events in the queue.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Clears the queue.
+	 */
+	@Override
+	public void clear() {
+		buckets = NO_BUCKETS;
+		size = 0;
+	}
+
+	/**
+	 * Gets the bucket of a destination.
+	 *
+	 * @param destination the destination entity id
+	 * @return the bucket, or <tt>null</tt> if no event was ever deferred for it
+	 */
+	private Bucket getBucket(int destination) {
+		if (destination < 0 || destination >= buckets.length) {
+			return null;
+		}
+		return buckets[destination];
+	}
+
+	/**
+	 * The events of one destination: a time-ordered array with a movable head, so that taking the
+	 * first event, the common case, does not shift the array.
+	 */
+	private static final class Bucket {
+
+		/** The events; the valid ones are in [head, head + size). */
+		private SimEvent[] events = new SimEvent[4];
+
+		/** The index of the first event. */
+		private int head = 0;
+
+		/** The number of events. */
+		private int size = 0;
+
+		/**
+		 * Inserts an event after all the events whose time is lower or equal.
+		 *
+		 * @param event the event
+		 */
+		void add(SimEvent event) {
+			if (head + size == events.length) {
+				if (head > 0) {
+					System.arraycopy(events, head, events, 0, size);
+					Arrays.fill(events, size, head + size, null);
+				} else {
+					events = Arrays.copyOf(events, events.length * 2);
+				}
+				head = 0;
+			}
+
+			int end = head + size;
+			double time = event.eventTime();
+			int position = end;
+			// events mostly arrive in time order, so check the tail before searching
+			if (size > 0 && time < events[end - 1].eventTime()) {
+				int low = head;
+				int high = end - 1;
+				while (low < high) {
+					int middle = (low + high) >>> 1;
+					if (time < events[middle].eventTime()) {
+						high = middle;
+					} else {
+						low = middle + 1;
+					}
+				}
+				position = low;
+				System.arraycopy(events, position, events, position + 1, end - position);
+			}
+			events[position] = event;
+			size++;
+		}
+
+		/**
+		 * Finds the first event matching a predicate.
+		 *
+		 * @param p the predicate
+		 * @return the array index of the event, or -1 if none matches
+		 */
+		int indexOf(Predicate p) {
+			for (int i = head, end = head + size; i < end; i++) {
+				if (p.match(events[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Removes the event at an array index.
+		 *
+		 * @param index the array index
+		 * @return the removed event
+		 */
+		SimEvent removeAt(int index) {
+			SimEvent event = events[index];
+			if (index == head) {
+				events[head] = null;
+				head++;
+			} else {
+				int end = head + size;
+				System.arraycopy(events, index + 1, events, index, end - index - 1);
+				events[end - 1] = null;
+			}
+			size--;
+			if (size == 0) {
+				head = 0;
+			}
+			return event;
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * This class implements the deferred event queue used by {@link CloudSim}. The event queue uses a
+ * single linked list to store the events of all the destinations, so looking up the events of an
+ * entity scans the whole queue.
+ * 
+ * @author Marcos Dias de Assuncao
+ * @since CloudSim Toolkit 1.0
+ * @see CloudSim
+ * @see SimEvent
+ */
+public class LinkedListDeferredQueue implements DeferredQueue {
+
+	/** The list. */
+	private final List<SimEvent> list = new LinkedList<SimEvent>();
+
+	/** The max time. */
+	private double maxTime = -1;
+
+	/**
+	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
+	 * of the events.
+	 * 
+	 * @param newEvent The event to be added to the queue.
+	 */
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		// The event has to be inserted as the last of all events
+		// with the same event_time(). Yes, this matters.
+		double eventTime = newEvent.eventTime();
+		if (eventTime >= maxTime) {
+			list.add(newEvent);
+			maxTime = eventTime;
+			return;
+		}
+
+		ListIterator<SimEvent> iterator = list.listIterator();
+		SimEvent event;
+		while (iterator.hasNext()) {
+			event = iterator.next();
+			if (event.eventTime() > eventTime) {
+				iterator.previous();
+				iterator.add(newEvent);
+				return;
+			}
+		}
+
+		list.add(newEvent);
+	}
+
+	@Override
+	public int count(int destination, Predicate p) {
+		int count = 0;
+		for (SimEvent event : list) {
+			if (event.getDestination() == destination && p.match(event)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public SimEvent findFirst(int destination, Predicate p) {
+		for (SimEvent event : list) {
+			if (event.getDestination() == destination && p.match(event)) {
+				return event;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public SimEvent select(int destination, Predicate p) {
+		Iterator<SimEvent> iterator = list.iterator();
+		while (iterator.hasNext()) {
+			SimEvent event = iterator.next();
+			if (event.getDestination() == destination && p.match(event)) {
+				iterator.remove();
+				return event;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns an iterator to the events in the queue.
+	 * 
+	 * @return the iterator
+	 */
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return list.iterator();
+	}
+
+	/**
+	 * Returns the size of this event queue.
+	 * 
+	 * @return the number of events in the queue.
+	 */
+	@Override
+	public int size() {
+		return list.size();
+	}
+
+	/**
+	 * Clears the queue.
+	 */
+	@Override
+	public void clear() {
+		list.clear();
+	}
+
+}
\ No newline at end of file
@@ -69,6 +69,15 @@ public abstract class SimEntity implements Cloneable {
 		return name;
 	}
 
+	/**
+	 * Gets the simulation context this entity lives in.
+	 * 
+	 * @return the context of the simulation
+	 */
+	public SimulationContext getContext() {
+		return SimulationContext.current();
+	}
+
 	/**
 	 * Get the unique id number assigned to this entity.
 	 * 
@@ -362,10 +371,7 @@ public abstract class SimEntity implements Cloneable {
 		if (!CloudSim.running()) {
 			return null;
 		}
-		if (numEventsWaiting(p) > 0) {
-			return selectEvent(p);
-		}
-		return null;
+		return selectEvent(p);
 	}
 
 	/**
@@ -419,6 +425,7 @@ public abstract class SimEntity implements Cloneable {
 
 		while (ev != null) {
 			processEvent(ev);
+			CloudSim.releaseEvent(ev);
 			if (state != RUNNABLE) {
 				break;
 			}
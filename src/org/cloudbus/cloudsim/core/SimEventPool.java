@@ -0,0 +1,153 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * The events of {@link CloudSim}, recycled once they are processed. When pooling is enabled, an
+ * event that was processed is released to the pool and the next event to schedule is taken from
+ * it, instead of allocating one for every send. When it is disabled, every event is allocated as
+ * before and releases are ignored.
+ * <p>
+ * An event is released right after the entity it was sent to has processed it, or right after the
+ * simulator has handled it for the other event types. An entity must therefore not keep an event
+ * passed to {@link SimEntity#processEvent(SimEvent)} once it returns, only its data; pooling is
+ * only safe for the entities that follow that rule, which is why it is disabled by default.
+ * <p>
+ * The pool is a static field of {@link CloudSim}, so each {@link SimulationContext} has its own.
+ * Its counters tell how many events were allocated and how many were reused, to be read with a GC
+ * log to check the allocation rate.
+ * 
+ * @since CloudSim Toolkit 1.0
+ */
+public final class SimEventPool {
+
+	/** The most events kept in the pool. */
+	private static final int CAPACITY = 4096;
+
+	/** The released events. */
+	private final SimEvent[] free = new SimEvent[CAPACITY];
+
+	/** The number of released events in the pool. */
+	private int size;
+
+	/** Whether the events are recycled. */
+	private boolean enabled;
+
+	/** The events allocated, taken from the pool, released and delivered without a copy. */
+	private long allocated, reused, released, delivered;
+
+	SimEventPool() {
+	}
+
+	/**
+	 * Gets an event, from the pool if pooling is enabled and it is not empty.
+	 */
+	SimEvent acquire(int evtype, double time, int src, int dest, int tag, Object data) {
+		if (size == 0) {
+			allocated++;
+			return new SimEvent(evtype, time, src, dest, tag, data);
+		}
+		SimEvent event = free[--size];
+		free[size] = null;
+		reused++;
+		event.init(evtype, time, src, dest, tag, data);
+		return event;
+	}
+
+	/**
+	 * Puts back an event that was processed. It is ignored if pooling is disabled or the pool is
+	 * full.
+	 */
+	void release(SimEvent event) {
+		if (!enabled || event == null) {
+			return;
+		}
+		released++;
+		if (size < CAPACITY) {
+			event.init(SimEvent.ENULL, -1, -1, -1, -1, null);
+			free[size++] = event;
+		}
+	}
+
+	/**
+	 * Counts an event handed to the entity waiting for it without a copy.
+	 */
+	void delivered() {
+		delivered++;
+	}
+
+	/**
+	 * Enables or disables pooling. Disabling it empties the pool.
+	 * 
+	 * @param enabled whether the events are recycled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			java.util.Arrays.fill(free, 0, size, null);
+			size = 0;
+		}
+	}
+
+	/**
+	 * Checks whether the events are recycled.
+	 * 
+	 * @return true if pooling is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Gets the number of events allocated since the counters were reset.
+	 * 
+	 * @return the allocated events
+	 */
+	public long getAllocatedCount() {
+		return allocated;
+	}
+
+	/**
+	 * Gets the number of events taken from the pool since the counters were reset.
+	 * 
+	 * @return the reused events
+	 */
+	public long getReusedCount() {
+		return reused;
+	}
+
+	/**
+	 * Gets the number of events released since the counters were reset.
+	 * 
+	 * @return the released events
+	 */
+	public long getReleasedCount() {
+		return released;
+	}
+
+	/**
+	 * Gets the number of events handed to a waiting entity without a copy since the counters were
+	 * reset.
+	 * 
+	 * @return the delivered events
+	 */
+	public long getDeliveredCount() {
+		return delivered;
+	}
+
+	/**
+	 * Resets the counters.
+	 */
+	public void resetCounters() {
+		allocated = 0;
+		reused = 0;
+		released = 0;
+		delivered = 0;
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The state of one simulation. The simulator keeps its run state in static fields: the clock and
+ * event queues of {@link CloudSim}, the workflow parameters, the replica catalog, the entity id
+ * counters and the search state of the schedulers. These fields are the state of the class loader
+ * that loaded them, so a context is a class loader of its own:
+ * <ul>
+ * <li>the <b>default</b> context is the class loader of the application, and the static API is
+ * its facade: code that calls CloudSim, WorkflowEngine or Parameters directly works on it;</li>
+ * <li>an <b>isolated</b> context, made by {@link #create()}, loads the same simulator classes
+ * again, so it owns a separate copy of every static field and can run a simulation while other
+ * contexts run theirs in other threads.</li>
+ * </ul>
+ * Code running inside a context reaches it through {@link #current()} or
+ * {@link SimEntity#getContext()}. Code outside an isolated context drives it with
+ * {@link #invoke(String, String, Class[], Object...)}; the arguments and results cross the class
+ * loaders, so they must be of classes shared by all of them: primitives, strings, arrays of those
+ * and the other classes of the Java platform. Objects of the simulator are passed serialized.
+ * A context runs one call at a time.
+ *
+ * @since CloudSim Toolkit 1.0
+ */
+public final class SimulationContext implements AutoCloseable {
+
+	/** The context of the class loader that loaded this class. */
+	private static final SimulationContext CURRENT = new SimulationContext(
+			SimulationContext.class.getClassLoader(),
+			SimulationContext.class.getClassLoader() != null
+					&& SimulationContext.class.getClassLoader().getClass().getName().equals(Loader.class.getName()));
+
+	/** The class loader holding the state of this context. */
+	private final ClassLoader classLoader;
+
+	/** Whether this context was made by {@link #create()}. */
+	private final boolean isolated;
+
+	private SimulationContext(ClassLoader classLoader, boolean isolated) {
+		this.classLoader = classLoader;
+		this.isolated = isolated;
+	}
+
+	/**
+	 * Gets the context the calling code runs in: the default context, unless the caller was
+	 * loaded by an isolated context.
+	 *
+	 * @return the current context
+	 */
+	public static SimulationContext current() {
+		return CURRENT;
+	}
+
+	/**
+	 * Creates an isolated context, with its own copy of the simulator state. Its static fields
+	 * start as they are when the classes are first loaded, so a simulation must be initialized
+	 * in it as in a new JVM.
+	 *
+	 * @return the new context
+	 */
+	public static SimulationContext create() {
+		Loader loader = new Loader(getClassPath());
+		return new SimulationContext(loader, true);
+	}
+
+	/**
+	 * Checks whether this context was made by {@link #create()}.
+	 *
+	 * @return true for an isolated context, false for the default one
+	 */
+	public boolean isIsolated() {
+		return isolated;
+	}
+
+	/**
+	 * Gets the class loader holding the state of this context.
+	 *
+	 * @return the class loader
+	 */
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * Calls a public static method of a class, as loaded by this context.
+	 *
+	 * @param className the name of the class
+	 * @param methodName the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @param args the arguments
+	 * @return the result of the method, or null for a void method
+	 * @throws Exception the exception thrown by the method, or a reflection exception if the
+	 *             method cannot be found
+	 */
+	public synchronized Object invoke(String className, String methodName, Class<?>[] parameterTypes,
+			Object... args) throws Exception {
+		Method method = Class.forName(className, true, classLoader).getMethod(methodName, parameterTypes);
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(classLoader);
+		try {
+			return method.invoke(null, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw cause instanceof Exception ? (Exception) cause : e;
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+
+	/**
+	 * Stops the simulation running in this context at its next event, as
+	 * {@link CloudSim#abruptallyTerminate()} does. Unlike {@link #invoke}, it can be called while
+	 * another thread runs a call in the context.
+	 */
+	public void abort() {
+		try {
+			Class.forName(CloudSim.class.getName(), true, classLoader).getMethod("abruptallyTerminate").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("cannot stop the simulation of the context", e);
+		}
+	}
+
+	/**
+	 * Releases the classes of an isolated context, and with them its state. The default context
+	 * cannot be closed.
+	 */
+	@Override
+	public void close() {
+		if (isolated) {
+			try {
+				((Loader) classLoader).close();
+			} catch (IOException e) {
+				// the loader only reads local class files
+			}
+		}
+	}
+
+	/**
+	 * Gets the class path of the isolated contexts: the application class path plus the location
+	 * of the simulator classes, in case they were loaded from elsewhere.
+	 */
+	private static URL[] getClassPath() {
+		Set<URL> urls = new LinkedHashSet<URL>();
+		CodeSource codeSource = SimulationContext.class.getProtectionDomain().getCodeSource();
+		if (codeSource != null) {
+			urls.add(codeSource.getLocation());
+		}
+		try {
+			for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+				if (!entry.isEmpty()) {
+					urls.add(new File(entry).toURI().toURL());
+				}
+			}
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException("cannot locate the simulator classes", e);
+		}
+		return urls.toArray(new URL[0]);
+	}
+
+	/**
+	 * The class loader of an isolated context. Only the Java platform is shared with the
+	 * application.
+	 */
+	private static final class Loader extends URLClassLoader {
+
+		Loader(URL[] urls) {
+			super(urls, ClassLoader.getPlatformClassLoader());
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * This class implements the future event queue used by {@link CloudSim}. The event queue uses a
+ * {@link TreeSet} in order to store the events.
+ * 
+ * @author Marcos Dias de Assuncao
+ * @since CloudSim Toolkit 1.0
+ * @see CloudSim
+ * @see java.util.TreeSet
+ */
+public class TreeSetFutureQueue extends AbstractFutureQueue {
+
+	/** The sorted set. */
+	private final TreeSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+
+	@Override
+	protected void insert(SimEvent newEvent) {
+		sortedSet.add(newEvent);
+	}
+
+	@Override
+	public SimEvent first() {
+		return sortedSet.isEmpty() ? null : sortedSet.first();
+	}
+
+	@Override
+	public SimEvent poll() {
+		return sortedSet.pollFirst();
+	}
+
+	/**
+	 * Returns an iterator to the queue.
+	 * 
+	 * @return the iterator
+	 */
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return sortedSet.iterator();
+	}
+
+	/**
+	 * Returns the size of this event queue.
+	 * 
+	 * @return the size
+	 */
+	@Override
+	public int size() {
+		return sortedSet.size();
+	}
+
+	/**
+	 * Removes the event from the queue.
+	 * 
+	 * @param event the event
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean remove(SimEvent event) {
+		return sortedSet.remove(event);
+	}
+
+	/**
+	 * Removes all the events from the queue.
+	 * 
+	 * @param events the events
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean removeAll(Collection<SimEvent> events) {
+		return sortedSet.removeAll(events);
+	}
+
+	/**
+	 * Removes all the events that match the given filter.
+	 * 
+	 * @param filter the filter
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super SimEvent> filter) {
+		return sortedSet.removeIf(filter);
+	}
+
+	/**
+	 * Clears the queue.
+	 */
+	@Override
+	public void clear() {
+		sortedSet.clear();
+	}
+
+}
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Pe;
@@ -15,6 +16,7 @@ import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -34,6 +36,33 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/** The host utilization history, the sum of the VM histories weighted by their MIPS. */
+	private final double[] aggregate = new double[PowerVm.HISTORY_LENGTH];
+
+	/** The length of the host utilization history, without its tail of zeros. */
+	private int aggregateLength;
+
+	/** The VMs summed in the aggregate, in the order of the VM list. */
+	private PowerVm[] aggregatedVms = new PowerVm[0];
+
+	/** The modification count of the history of each VM when it was summed. */
+	private long[] aggregatedModCounts = new long[0];
+
+	/** The MIPS of each VM when it was summed. */
+	private double[] aggregatedMips = new double[0];
+
+	/** The number of VMs summed in the aggregate. */
+	private int aggregatedCount = -1;
+
+	/** The host MIPS when the aggregate was computed. */
+	private double aggregatedHostMips;
+
+	/** The aggregate before the last VM was added to it, to go back to when that VM is removed. */
+	private final double[] previousAggregate = new double[PowerVm.HISTORY_LENGTH];
+
+	/** Whether {@link #previousAggregate} holds the aggregate of all VMs but the last one. */
+	private boolean hasPreviousAggregate;
+
 	/**
 	 * Instantiates a new power host utilization history.
 	 * 
@@ -62,14 +91,110 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	 * @return the host utilization history
 	 */
 	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		return Arrays.copyOf(getUtilizationHistoryValues(), getUtilizationHistoryLength());
+	}
+
+	/**
+	 * Gets the host utilization history without copying it. Only the first
+	 * {@link #getUtilizationHistoryLength()} values belong to the history, latest first. The array
+	 * is updated in place as the VMs change, and must not be modified.
+	 * 
+	 * @return the host utilization history
+	 */
+	protected double[] getUtilizationHistoryValues() {
+		updateAggregate();
+		return aggregate;
+	}
+
+	/**
+	 * Gets the length of the host utilization history.
+	 * 
+	 * @return the length of the host utilization history
+	 */
+	protected int getUtilizationHistoryLength() {
+		updateAggregate();
+		return aggregateLength;
+	}
+
+	/**
+	 * Brings the aggregate up to date with the VMs. It is kept as long as the VMs, their MIPS and
+	 * their histories are unchanged. A VM added at the end of the VM list is summed on top of it,
+	 * and removing that VM again restores the previous aggregate, so checking a host with and
+	 * without a VM does not sum all the histories again. Anything else sums them again.
+	 */
+	private void updateAggregate() {
+		List<PowerVm> vms = this.<PowerVm> getVmList();
+		int count = vms.size();
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		boolean valid = aggregatedCount >= 0 && hostMips == aggregatedHostMips;
+		int unchanged = 0;
+		if (valid) {
+			int shortest = Math.min(count, aggregatedCount);
+			while (unchanged < shortest && isAggregated(vms.get(unchanged), unchanged)) {
+				unchanged++;
+			}
+		}
+
+		if (valid && unchanged == aggregatedCount && count == aggregatedCount) {
+			return;
+		} else if (valid && unchanged == aggregatedCount && count == aggregatedCount + 1) {
+			System.arraycopy(aggregate, 0, previousAggregate, 0, aggregate.length);
+			hasPreviousAggregate = true;
+			addToAggregate(vms.get(count - 1), hostMips);
+		} else if (valid && unchanged == count && count == aggregatedCount - 1 && hasPreviousAggregate) {
+			System.arraycopy(previousAggregate, 0, aggregate, 0, aggregate.length);
+			hasPreviousAggregate = false;
+		} else {
+			Arrays.fill(aggregate, 0);
+			hasPreviousAggregate = false;
+			unchanged = 0;
+			for (PowerVm vm : vms) {
+				addToAggregate(vm, hostMips);
 			}
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
+
+		if (aggregatedVms.length < count) {
+			int length = Math.max(count, 2 * aggregatedVms.length);
+			aggregatedVms = Arrays.copyOf(aggregatedVms, length);
+			aggregatedModCounts = Arrays.copyOf(aggregatedModCounts, length);
+			aggregatedMips = Arrays.copyOf(aggregatedMips, length);
+		}
+		for (int i = unchanged; i < count; i++) {
+			PowerVm vm = vms.get(i);
+			aggregatedVms[i] = vm;
+			aggregatedModCounts[i] = vm.getUtilizationHistoryBuffer().getModCount();
+			aggregatedMips[i] = vm.getMips();
+		}
+		Arrays.fill(aggregatedVms, count, aggregatedVms.length, null);
+		aggregatedCount = count;
+		aggregatedHostMips = hostMips;
+		aggregateLength = MathUtil.countNonZeroBeginning(aggregate);
+	}
+
+	/**
+	 * Checks if a VM is the one summed at an index of the aggregate, unchanged since.
+	 * 
+	 * @param vm the vm
+	 * @param index the index
+	 * @return true, if the vm is aggregated
+	 */
+	private boolean isAggregated(PowerVm vm, int index) {
+		return vm == aggregatedVms[index]
+				&& vm.getUtilizationHistoryBuffer().getModCount() == aggregatedModCounts[index]
+				&& vm.getMips() == aggregatedMips[index];
+	}
+
+	/**
+	 * Adds the history of a VM to the aggregate.
+	 * 
+	 * @param vm the vm
+	 * @param hostMips the host mips
+	 */
+	private void addToAggregate(PowerVm vm, double hostMips) {
+		DoubleRingBuffer history = vm.getUtilizationHistoryBuffer();
+		for (int i = 0; i < history.size(); i++) {
+			aggregate[i] += history.get(i) * vm.getMips() / hostMips;
+		}
 	}
 
 }
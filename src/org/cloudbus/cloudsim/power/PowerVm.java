@@ -8,12 +8,12 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -36,8 +36,8 @@ public class PowerVm extends Vm {
 	/** The Constant HISTORY_LENGTH. */
 	public static final int HISTORY_LENGTH = 30;
 
-	/** The utilization history. */
-	private final List<Double> utilizationHistory = new LinkedList<Double>();
+	/** The utilization history, latest value first. */
+	private final DoubleRingBuffer utilizationHistory = new DoubleRingBuffer(HISTORY_LENGTH);
 
 	/** The previous time. */
 	private double previousTime;
@@ -107,20 +107,7 @@ public class PowerVm extends Vm {
 	 * @return the utilization mean in MIPS
 	 */
 	public double getUtilizationMad() {
-		double mad = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			double median = MathUtil.median(getUtilizationHistory());
-			double[] deviationSum = new double[n];
-			for (int i = 0; i < n; i++) {
-				deviationSum[i] = Math.abs(median - getUtilizationHistory().get(i));
-			}
-			mad = MathUtil.median(deviationSum);
-		}
-		return mad;
+		return MathUtil.mad(getUtilizationHistoryBuffer());
 	}
 
 	/**
@@ -129,14 +116,12 @@ public class PowerVm extends Vm {
 	 * @return the utilization mean in MIPS
 	 */
 	public double getUtilizationMean() {
+		DoubleRingBuffer history = getUtilizationHistoryBuffer();
 		double mean = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		if (!history.isEmpty()) {
+			int n = history.size();
 			for (int i = 0; i < n; i++) {
-				mean += getUtilizationHistory().get(i);
+				mean += history.get(i);
 			}
 			mean /= n;
 		}
@@ -149,15 +134,13 @@ public class PowerVm extends Vm {
 	 * @return the utilization variance in MIPS
 	 */
 	public double getUtilizationVariance() {
+		DoubleRingBuffer history = getUtilizationHistoryBuffer();
 		double mean = getUtilizationMean();
 		double variance = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		if (!history.isEmpty()) {
+			int n = history.size();
 			for (int i = 0; i < n; i++) {
-				double tmp = getUtilizationHistory().get(i) * getMips() - mean;
+				double tmp = history.get(i) * getMips() - mean;
 				variance += tmp * tmp;
 			}
 			variance /= n;
@@ -171,18 +154,25 @@ public class PowerVm extends Vm {
 	 * @param utilization the utilization
 	 */
 	public void addUtilizationHistoryValue(final double utilization) {
-		getUtilizationHistory().add(0, utilization);
-		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
-			getUtilizationHistory().remove(HISTORY_LENGTH);
-		}
+		utilizationHistory.add(utilization);
 	}
 
 	/**
-	 * Gets the utilization history.
+	 * Gets the utilization history, latest value first.
 	 * 
-	 * @return the utilization history
+	 * @return a read-only view of the utilization history
 	 */
 	protected List<Double> getUtilizationHistory() {
+		return utilizationHistory.asList();
+	}
+
+	/**
+	 * Gets the utilization history, latest value first, without boxing. Only
+	 * {@link #addUtilizationHistoryValue(double)} should change it.
+	 * 
+	 * @return the utilization history
+	 */
+	protected DoubleRingBuffer getUtilizationHistoryBuffer() {
 		return utilizationHistory;
 	}
 
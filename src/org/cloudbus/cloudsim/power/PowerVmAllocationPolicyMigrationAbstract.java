@@ -8,7 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -44,8 +44,14 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
 
-	/** The saved allocation. */
-	private final List<Map<String, Object>> savedAllocation = new ArrayList<Map<String, Object>>();
+	/** The vms of the saved allocation. */
+	private Vm[] savedVms = new Vm[0];
+
+	/** The indexes in the host list of the hosts of the saved vms. */
+	private int[] savedHostIndexes = new int[0];
+
+	/** The number of vms in the saved allocation. */
+	private int savedAllocationSize;
 
 	/** The utilization history. */
 	private final Map<Integer, List<Double>> utilizationHistory = new HashMap<Integer, List<Double>>();
@@ -203,39 +209,58 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Find host for vm.
+	 * Find host for vm. The host chosen is the one with the least power increase among the suitable
+	 * hosts that are not over-utilized after the allocation. The power increase is computed from
+	 * the power model of each host without touching the host, and the candidates are then checked
+	 * in increasing order of power increase, so that the tentative allocation needed to check for
+	 * over-utilization only runs until a host passes, instead of running for every host.
 	 * 
 	 * @param vm the vm
 	 * @param excludedHosts the excluded hosts
 	 * @return the power host
 	 */
 	public PowerHost findHostForVm(Vm vm, Set<? extends Host> excludedHosts) {
-		double minPower = Double.MAX_VALUE;
-		PowerHost allocatedHost = null;
+		List<PowerHost> hostList = this.<PowerHost> getHostList();
+		HostCandidate[] candidates = new HostCandidate[hostList.size()];
+		int candidateCount = 0;
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (excludedHosts.contains(host)) {
+		for (int i = 0; i < hostList.size(); i++) {
+			PowerHost host = hostList.get(i);
+			if (excludedHosts.contains(host) || !host.isSuitableForVm(vm)) {
 				continue;
 			}
-			if (host.isSuitableForVm(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
+			// hosts without utilization are not checked for over-utilization
+			boolean checked = getUtilizationOfCpuMips(host) == 0;
+			if (!checked && getMaxUtilizationAfterAllocation(host, vm) > 1) {
+				// the power model is only defined up to full utilization
+				if (isHostOverUtilizedAfterAllocation(host, vm)) {
 					continue;
 				}
+				checked = true;
+			}
 
-				try {
-					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
-					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
-						}
-					}
-				} catch (Exception e) {
+			try {
+				double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+				double powerDiff = powerAfterAllocation - host.getPower();
+				if (powerAfterAllocation != -1 && powerDiff < Double.MAX_VALUE) {
+					candidates[candidateCount++] = new HostCandidate(
+							host,
+							i,
+							powerDiff,
+							checked);
 				}
+			} catch (Exception e) {
+			}
+		}
+
+		Arrays.sort(candidates, 0, candidateCount);
+		for (int i = 0; i < candidateCount; i++) {
+			HostCandidate candidate = candidates[i];
+			if (candidate.checked || !isHostOverUtilizedAfterAllocation(candidate.host, vm)) {
+				return candidate.host;
 			}
 		}
-		return allocatedHost;
+		return null;
 	}
 
 	/**
@@ -493,16 +518,22 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * Save allocation.
 	 */
 	protected void saveAllocation() {
-		getSavedAllocation().clear();
-		for (Host host : getHostList()) {
+		savedAllocationSize = 0;
+		List<Host> hostList = getHostList();
+		for (int i = 0; i < hostList.size(); i++) {
+			Host host = hostList.get(i);
 			for (Vm vm : host.getVmList()) {
 				if (host.getVmsMigratingIn().contains(vm)) {
 					continue;
 				}
-				Map<String, Object> map = new HashMap<String, Object>();
-				map.put("host", host);
-				map.put("vm", vm);
-				getSavedAllocation().add(map);
+				if (savedAllocationSize == savedVms.length) {
+					int capacity = Math.max(16, savedAllocationSize * 2);
+					savedVms = Arrays.copyOf(savedVms, capacity);
+					savedHostIndexes = Arrays.copyOf(savedHostIndexes, capacity);
+				}
+				savedVms[savedAllocationSize] = vm;
+				savedHostIndexes[savedAllocationSize] = i;
+				savedAllocationSize++;
 			}
 		}
 	}
@@ -511,13 +542,14 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * Restore allocation.
 	 */
 	protected void restoreAllocation() {
-		for (Host host : getHostList()) {
+		List<PowerHost> hostList = getHostList();
+		for (Host host : hostList) {
 			host.vmDestroyAll();
 			host.reallocateMigratingInVms();
 		}
-		for (Map<String, Object> map : getSavedAllocation()) {
-			Vm vm = (Vm) map.get("vm");
-			PowerHost host = (PowerHost) map.get("host");
+		for (int i = 0; i < savedAllocationSize; i++) {
+			Vm vm = savedVms[i];
+			PowerHost host = hostList.get(savedHostIndexes[i]);
 			if (!host.vmCreate(vm)) {
 				Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
 				System.exit(0);
@@ -581,15 +613,6 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return hostUtilizationMips;
 	}
 
-	/**
-	 * Gets the saved allocation.
-	 * 
-	 * @return the saved allocation
-	 */
-	protected List<Map<String, Object>> getSavedAllocation() {
-		return savedAllocation;
-	}
-
 	/**
 	 * Sets the vm selection policy.
 	 * 
@@ -671,4 +694,38 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return executionTimeHistoryTotal;
 	}
 
+	/**
+	 * A host that can take a vm, ordered by the power increase of the allocation and then by its
+	 * position in the host list.
+	 */
+	private static class HostCandidate implements Comparable<HostCandidate> {
+
+		/** The host. */
+		private final PowerHost host;
+
+		/** The index of the host in the host list. */
+		private final int index;
+
+		/** The power increase of the allocation. */
+		private final double powerDiff;
+
+		/** Whether the host is known not to be over-utilized after the allocation. */
+		private final boolean checked;
+
+		public HostCandidate(PowerHost host, int index, double powerDiff, boolean checked) {
+			this.host = host;
+			this.index = index;
+			this.powerDiff = powerDiff;
+			this.checked = checked;
+		}
+
+		@Override
+		public int compareTo(HostCandidate other) {
+			if (powerDiff != other.powerDiff) {
+				return powerDiff < other.powerDiff ? -1 : 1;
+			}
+			return Integer.compare(index, other.index);
+		}
+	}
+
 }
@@ -105,9 +105,10 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 	 * @return the host utilization iqr
 	 */
 	protected double getHostUtilizationIqr(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
-		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.iqr(data);
+		double[] data = host.getUtilizationHistoryValues();
+		int length = host.getUtilizationHistoryLength();
+		if (length >= 12) { // 12 has been suggested as a safe value
+			return MathUtil.iqr(data, length);
 		}
 		throw new IllegalArgumentException();
 	}
@@ -105,9 +105,10 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	 * @return the host utilization mad
 	 */
 	protected double getHostUtilizationMad(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
-		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.mad(data);
+		double[] data = host.getUtilizationHistoryValues();
+		int length = host.getUtilizationHistoryLength();
+		if (length >= 12) { // 12 has been suggested as a safe value
+			return MathUtil.mad(data, length);
 		}
 		throw new IllegalArgumentException();
 	}
@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.sdn;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -208,25 +210,25 @@ public class Channel {
 		long processedThisRound =  Math.round(timeSpent*getAllocatedBandwidthPerTransmission());
 		
 		//update transmission table; remove finished transmission
-		LinkedList<Transmission> completedTransmissions = new LinkedList<Transmission>();
-		for(Transmission transmission: inTransmission){
+		boolean isCompleted = false;
+		Iterator<Transmission> iter = inTransmission.iterator();
+		while(iter.hasNext()){
+			Transmission transmission = iter.next();
 			transmission.addCompletedLength(processedThisRound);
 			
 			if (transmission.isCompleted()){
-				completedTransmissions.add(transmission);
+				iter.remove();
 				this.completed.add(transmission);
+				isCompleted = true;
 			}	
 		}
 		
-		this.inTransmission.removeAll(completedTransmissions);
 		previousTime=currentTime;
 
-		Log.printLine(CloudSim.clock() + ": Channel.updatePackageProcessing() ("+this.toString()+"):Time spent:"+timeSpent+
+		Log.debug(() -> CloudSim.clock() + ": Channel.updatePackageProcessing() ("+this.toString()+"):Time spent:"+timeSpent+
 				", BW/host:"+getAllocatedBandwidthPerTransmission()+", Processed:"+processedThisRound);
 		
-		if(completedTransmissions.isEmpty())
-			return false;	// Nothing changed
-		return true;
+		return isCompleted;
 	}
 	
 	// Estimated finish time of one transmission
@@ -298,13 +300,13 @@ public class Channel {
 	 * @return list of Packages whose transmission finished, or empty
 	 *         list if no package arrived.
 	 */
-	public LinkedList<Transmission> getArrivedPackages(){
-		LinkedList<Transmission> returnList = new LinkedList<Transmission>();
-
-		if (!completed.isEmpty()){
-			returnList.addAll(completed);
+	public List<Transmission> getArrivedPackages(){
+		if (completed.isEmpty()){
+			return Collections.emptyList();
 		}
-		completed.removeAll(returnList);
+		
+		List<Transmission> returnList = completed;
+		completed = new LinkedList<Transmission>();
 
 		return returnList;
 	}
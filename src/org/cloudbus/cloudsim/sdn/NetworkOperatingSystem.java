@@ -16,9 +16,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.Host;
@@ -30,7 +33,6 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
-import org.cloudbus.cloudsim.core.predicates.PredicateType;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
@@ -58,6 +60,19 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 	Hashtable<Package,Node> pkgTable;
 	
 	Hashtable<String, Channel> channelTable;
+	
+	// Next finish time of each busy channel, earliest first. An entry is stale
+	// once it is no longer the one of its channel in channelFinishTable.
+	private PriorityQueue<ChannelFinish> finishQueue = new PriorityQueue<ChannelFinish>();
+	private Map<Channel, ChannelFinish> channelFinishTable = new HashMap<Channel, ChannelFinish>();
+	private long finishSerial = 0;
+	
+	// Channels whose transmissions or bandwidth changed since their finish time was computed
+	private Set<Channel> changedChannels = new LinkedHashSet<Channel>();
+	
+	// The pending SDN_INTERNAL_PACKAGE_PROCESS event, or null
+	private SimEvent internalEvent;
+	private double internalEventTime;
 
 	List<Host> hosts;
 	protected List<SDNHost> sdnhosts;
@@ -131,7 +146,9 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 		
 		switch(tag){
 			case Constants.SDN_INTERNAL_PACKAGE_PROCESS: 
-				internalPackageProcess(); 
+				if(ev == internalEvent) {
+					internalPackageProcess();
+				}
 				break;
 			case CloudSimTags.VM_CREATE_ACK:
 				processVmCreateAck(ev);
@@ -161,8 +178,8 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 
 		}
 		
+		processChangedChannels();
 		sendInternalEvent();
-		
 	}
 
 	public void addPackageToChannel(Node sender, Package pkg) {
@@ -177,8 +194,6 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 			return;
 		}
 		
-		updatePackageProcessing();
-		
 		pkgTable.put(pkg,sender);
 		
 		Channel channel=findChannel(src, dst, flowId);
@@ -193,84 +208,131 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 			addChannel(src, dst, flowId, channel);
 		}
 		
+		// Bring the channel up to now before its bandwidth share changes
+		channel.updatePackageProcessing();
 		double eft = channel.addTransmission(new Transmission(pkg));
-		Log.printLine(CloudSim.clock() + ": " + getName() + ".addPackageToChannel ("+channel
-				+"): Transmission added:" + 
-				NetworkOperatingSystem.debugVmIdName.get(src) + "->"+
-				NetworkOperatingSystem.debugVmIdName.get(dst) + ", flow ="+flowId + " / eft="+eft);
+		changedChannels.add(channel);
+		if(Log.isDebugEnabled()) {
+			Log.printLine(CloudSim.clock() + ": " + getName() + ".addPackageToChannel ("+channel
+					+"): Transmission added:" + 
+					NetworkOperatingSystem.debugVmIdName.get(src) + "->"+
+					NetworkOperatingSystem.debugVmIdName.get(dst) + ", flow ="+flowId + " / eft="+eft);
+		}
 
+		processChangedChannels();
 		sendInternalEvent();
 	}
 	
 
 	private void internalPackageProcess() {
-		if(updatePackageProcessing()) {
-			sendInternalEvent();
+		internalEvent = null;
+		
+		// Only the channels due by now are updated. The others keep their
+		// bandwidth share, so their finish time is still valid.
+		ChannelFinish next;
+		while((next = finishQueue.peek()) != null && next.time <= internalEventTime) {
+			finishQueue.poll();
+			if(channelFinishTable.get(next.channel) == next) {
+				channelFinishTable.remove(next.channel);
+				changedChannels.add(next.channel);
+			}
 		}
+		
+		processChangedChannels();
+		sendInternalEvent();
 	}
 	
 	private void sendInternalEvent() {
-		CloudSim.cancelAll(getId(), new PredicateType(Constants.SDN_INTERNAL_PACKAGE_PROCESS));
+		ChannelFinish next;
+		while((next = finishQueue.peek()) != null && channelFinishTable.get(next.channel) != next) {
+			finishQueue.poll();	// stale
+		}
+		
+		if(internalEvent != null) {
+			if(next != null && next.time == internalEventTime) {
+				return;	// already scheduled
+			}
+			CloudSim.cancel(internalEvent);
+			internalEvent = null;
+		}
 		
-		if(channelTable.size() != 0) {
+		if(next != null) {
 			// More to process. Send event again
-			double delay = this.nextFinishTime();
-			Log.printLine(CloudSim.clock() + ": " + getName() + ".sendInternalEvent(): next finish time: "+ delay);
+			double delay = Math.max(next.time - CloudSim.clock(), 0);
+			Log.debug(() -> CloudSim.clock() + ": " + getName() + ".sendInternalEvent(): next finish time: "+ delay);
 			
-			send(this.getId(), delay, Constants.SDN_INTERNAL_PACKAGE_PROCESS);
+			internalEventTime = next.time;
+			internalEvent = CloudSim.send(getId(), getId(), delay, Constants.SDN_INTERNAL_PACKAGE_PROCESS, null);
 		}
 	}
 	
-	private double nextFinishTime() {
-		double earliestEft = Double.POSITIVE_INFINITY;
-		for(Channel ch:channelTable.values()){
+	/**
+	 * Updates the changed channels, forwards the packages that arrived through them,
+	 * removes the channels left empty and computes the next finish time of the others.
+	 */
+	private void processChangedChannels() {
+		while(!changedChannels.isEmpty()) {
+			Iterator<Channel> iter = changedChannels.iterator();
+			Channel ch = iter.next();
+			iter.remove();
 			
-			double eft = ch.nextFinishTime();
-			if (eft<earliestEft){
-				earliestEft=eft;
+			String key = getKey(ch.getSrcId(), ch.getDstId(), ch.getChId());
+			if(channelTable.get(key) != ch) {
+				continue;	// removed already
 			}
+			
+			ch.updatePackageProcessing();
+			processCompletePackages(ch);
+			
+			if(ch.getActiveTransmissionNum() == 0) {
+				// No more job in channel. Delete
+				removeChannel(key);
+				continue;
+			}
+			
+			double delay = ch.nextFinishTime();
+			if(delay == Double.POSITIVE_INFINITY) {
+				// No bandwidth. Scheduled again once the bandwidth changes
+				channelFinishTable.remove(ch);
+				continue;
+			}
+			ChannelFinish finish = new ChannelFinish(CloudSim.clock() + delay, finishSerial++, ch);
+			channelFinishTable.put(ch, finish);
+			finishQueue.add(finish);
 		}
-		
-		if(earliestEft == Double.POSITIVE_INFINITY) {
-			throw new IllegalArgumentException("NOS.nextFinishTime(): next finish time is infinite!");
-		}
-		return earliestEft;
-		
 	}
 	
-	private boolean updatePackageProcessing() {
-		boolean needSendEvent = false;
-		
-		LinkedList<Channel> completeChannels = new LinkedList<Channel>();
+	private void processCompletePackages(Channel ch){
+		Node dest = ch.getLastNode();
 		
-		for(Channel ch:channelTable.values()){
-			boolean isCompleted = ch.updatePackageProcessing();
-			needSendEvent = needSendEvent || isCompleted;
-			//completeChannels.add(ch.getArrivedPackages());
-			completeChannels.add(ch);
-		}
-		
-		if(completeChannels.size() != 0) {
-			processCompletePackages(completeChannels);
-			updateChannel();
+		for (Transmission tr:ch.getArrivedPackages()){
+			Package pkg = tr.getPackage();
+			//Node sender = pkgTable.remove(pkg);
+			//Node nextHop = sender.getRoute(pkg.getOrigin(),pkg.getDestination(),pkg.getFlowId());
+			
+			Log.debug(() -> CloudSim.clock() + ": " + getName() + ": Package completed: "+pkg +". Send to destination:"+dest);
+			sendNow(dest.getAddress(),Constants.SDN_PACKAGE,pkg);
 		}
-
-		return needSendEvent;
 	}
 	
-	private void processCompletePackages(List<Channel> channels){
-		for(Channel ch:channels) {
-			
-			Node dest = ch.getLastNode();
-			
-			for (Transmission tr:ch.getArrivedPackages()){
-				Package pkg = tr.getPackage();
-				//Node sender = pkgTable.remove(pkg);
-				//Node nextHop = sender.getRoute(pkg.getOrigin(),pkg.getDestination(),pkg.getFlowId());
-				
-				Log.printLine(CloudSim.clock() + ": " + getName() + ": Package completed: "+pkg +". Send to destination:"+dest);
-				sendNow(dest.getAddress(),Constants.SDN_PACKAGE,pkg);
-			}
+	/**
+	 * The time a channel is expected to complete its next transmission at.
+	 */
+	private static class ChannelFinish implements Comparable<ChannelFinish> {
+		final double time;
+		final long serial;
+		final Channel channel;
+		
+		ChannelFinish(double time, long serial, Channel channel) {
+			this.time = time;
+			this.serial = serial;
+			this.channel = channel;
+		}
+		
+		@Override
+		public int compareTo(ChannelFinish other) {
+			int cmp = Double.compare(time, other.time);
+			return cmp != 0 ? cmp : Long.compare(serial, other.serial);
 		}
 	}
 	
@@ -303,6 +365,7 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 		//System.err.println("NOS.removeChannel:"+key);
 		Channel ch = this.channelTable.remove(key);
 		ch.terminate();
+		channelFinishTable.remove(ch);
 		adjustAllChannels();
 		return ch;
 	}
@@ -310,13 +373,15 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 	private void adjustAllChannels() {
 		for(Channel ch:this.channelTable.values()) {
 			if(ch.adjustDedicatedBandwidthAlongLink()) {
-				// Channel BW is changed. send event.
+				// Channel BW is changed. Its finish time has to be computed again.
+				changedChannels.add(ch);
 			}
 		}
 		
 		for(Channel ch:this.channelTable.values()) {
 			if(ch.adjustSharedBandwidthAlongLink()) {
-				// Channel BW is changed. send event.
+				// Channel BW is changed. Its finish time has to be computed again.
+				changedChannels.add(ch);
 			}
 		}
 	}
@@ -369,21 +434,6 @@ public abstract class NetworkOperatingSystem extends SimEntity {
 		return channel;
 	}
 	
-	private void updateChannel() {
-		List<String> removeCh = new ArrayList<String>();  
-		for(String key:this.channelTable.keySet()) {
-			Channel ch = this.channelTable.get(key);
-			if(ch.getActiveTransmissionNum() == 0) {
-				// No more job in channel. Delete
-				removeCh.add(key);
-			}
-		}
-		
-		for(String key:removeCh) {
-			removeChannel(key);
-		}
-	}
-	
 	private String getKey(int origin, int destination) {
 		return origin+"-"+destination;
 	}
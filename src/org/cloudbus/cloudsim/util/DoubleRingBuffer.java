@@ -0,0 +1,170 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A fixed-capacity history of primitive doubles. Adding a value to a full buffer overwrites the
+ * oldest one, so adding costs O(1) and never allocates. Values are indexed by age: index 0 is the
+ * latest value added.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class DoubleRingBuffer {
+
+	/** The values, values[head] being the latest one. */
+	private final double[] values;
+
+	/** The index of the latest value. */
+	private int head;
+
+	/** The number of values. */
+	private int size;
+
+	/** The number of values added since the buffer was created. */
+	private long modCount;
+
+	/**
+	 * Instantiates a new, empty ring buffer.
+	 *
+	 * @param capacity the most values kept
+	 */
+	public DoubleRingBuffer(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than zero.");
+		}
+		values = new double[capacity];
+		head = capacity - 1;
+	}
+
+	/**
+	 * Adds a value, which becomes the one at index 0. The oldest value is dropped if the buffer is
+	 * full.
+	 *
+	 * @param value the value
+	 */
+	public void add(final double value) {
+		head = head == values.length - 1 ? 0 : head + 1;
+		values[head] = value;
+		if (size < values.length) {
+			size++;
+		}
+		modCount++;
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param age the index of the value, 0 being the latest one
+	 * @return the value
+	 */
+	public double get(final int age) {
+		if (age < 0 || age >= size) {
+			throw new IndexOutOfBoundsException("Index: " + age + ", Size: " + size);
+		}
+		int index = head - age;
+		return values[index < 0 ? index + values.length : index];
+	}
+
+	/**
+	 * Copies the values, latest first, to the beginning of an array.
+	 *
+	 * @param dest the array, at least {@link #size()} long
+	 * @return the number of values copied
+	 */
+	public int copyTo(final double[] dest) {
+		int first = Math.min(size, head + 1);
+		for (int i = 0; i < first; i++) {
+			dest[i] = values[head - i];
+		}
+		for (int i = first; i < size; i++) {
+			dest[i] = values[head - i + values.length];
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the values, latest first.
+	 *
+	 * @return a new array with the values
+	 */
+	public double[] toArray() {
+		double[] array = new double[size];
+		copyTo(array);
+		return array;
+	}
+
+	/**
+	 * Gets a read-only list backed by the buffer, latest value first.
+	 *
+	 * @return the list
+	 */
+	public List<Double> asList() {
+		return new AbstractList<Double>() {
+
+			@Override
+			public Double get(int index) {
+				return DoubleRingBuffer.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Removes all the values.
+	 */
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if there is no value.
+	 *
+	 * @return true, if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the most values kept.
+	 *
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return values.length;
+	}
+
+	/**
+	 * Gets the number of changes since the buffer was created, so that values derived from the
+	 * buffer can tell whether they are still valid.
+	 *
+	 * @return the modification count
+	 */
+	public long getModCount() {
+		return modCount;
+	}
+
+}
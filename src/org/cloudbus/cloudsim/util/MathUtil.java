@@ -58,7 +58,7 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final List<Double> list) {
-		return getStatistics(list).getPercentile(50);
+		return medianInPlace(listToArray(list), list.size());
 	}
 
 	/**
@@ -69,7 +69,114 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final double[] list) {
-		return getStatistics(list).getPercentile(50);
+		return median(list, list.length);
+	}
+
+	/**
+	 * Gets the median of the first values of an array, which is not modified.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @return the median
+	 */
+	public static double median(final double[] data, final int length) {
+		return medianInPlace(Arrays.copyOf(data, length), length);
+	}
+
+	/**
+	 * Gets the median of the values of a ring buffer.
+	 * 
+	 * @param data the data
+	 * @return the median
+	 */
+	public static double median(final DoubleRingBuffer data) {
+		return medianInPlace(data.toArray(), data.size());
+	}
+
+	/**
+	 * Gets the median of the first values of an array by selection, which reorders them. The
+	 * result is the same as the 50th percentile of {@link #getStatistics(double[])}: the middle
+	 * value, or the one interpolated between the two middle values.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @return the median, or NaN if there is no value
+	 */
+	private static double medianInPlace(final double[] data, final int length) {
+		if (length == 0) {
+			return Double.NaN;
+		}
+		if (length == 1) {
+			return data[0];
+		}
+		double pos = 50 * (length + 1) / 100.0;
+		int intPos = (int) pos;
+		double dif = pos - intPos;
+		double lower = select(data, length, intPos - 1);
+		// the values after the lower one are not smaller than it, the upper one is the least of them
+		double upper = data[intPos];
+		for (int i = intPos + 1; i < length; i++) {
+			if (data[i] < upper) {
+				upper = data[i];
+			}
+		}
+		return lower + dif * (upper - lower);
+	}
+
+	/**
+	 * Moves the k-th smallest of the first values of an array to index k, the smaller ones before
+	 * it and the others after it.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @param k the index, from 0
+	 * @return the k-th smallest value
+	 */
+	private static double select(final double[] data, final int length, final int k) {
+		int left = 0;
+		int right = length - 1;
+		while (right > left) {
+			// median of three as the pivot, moved to the right end
+			int middle = (left + right) >>> 1;
+			if (data[middle] < data[left]) {
+				swap(data, middle, left);
+			}
+			if (data[right] < data[left]) {
+				swap(data, right, left);
+			}
+			if (data[middle] < data[right]) {
+				swap(data, middle, right);
+			}
+			double pivot = data[right];
+			int store = left;
+			for (int i = left; i < right; i++) {
+				if (data[i] < pivot) {
+					swap(data, i, store++);
+				}
+			}
+			swap(data, store, right);
+			if (store == k) {
+				break;
+			} else if (store < k) {
+				left = store + 1;
+			} else {
+				right = store - 1;
+			}
+		}
+		return data[k];
+	}
+
+	/**
+	 * Swaps two values of an array.
+	 * 
+	 * @param data the data
+	 * @param i the index of a value
+	 * @param j the index of the other value
+	 */
+	private static void swap(final double[] data, final int i, final int j) {
+		double tmp = data[i];
+		data[i] = data[j];
+		data[j] = tmp;
 	}
 
 	/**
@@ -161,14 +268,45 @@ public class MathUtil {
 	 * @return the mad
 	 */
 	public static double mad(final double[] data) {
+		return mad(data, data.length);
+	}
+
+	/**
+	 * Gets the mad of the first values of an array, which is not modified.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @return the mad
+	 */
+	public static double mad(final double[] data, final int length) {
 		double mad = 0;
-		if (data.length > 0) {
-			double median = median(data);
-			double[] deviationSum = new double[data.length];
-			for (int i = 0; i < data.length; i++) {
+		if (length > 0) {
+			double[] deviationSum = Arrays.copyOf(data, length);
+			double median = medianInPlace(deviationSum, length);
+			for (int i = 0; i < length; i++) {
 				deviationSum[i] = Math.abs(median - data[i]);
 			}
-			mad = median(deviationSum);
+			mad = medianInPlace(deviationSum, length);
+		}
+		return mad;
+	}
+
+	/**
+	 * Gets the mad of the values of a ring buffer.
+	 * 
+	 * @param data the data
+	 * @return the mad
+	 */
+	public static double mad(final DoubleRingBuffer data) {
+		int length = data.size();
+		double mad = 0;
+		if (length > 0) {
+			double[] deviationSum = data.toArray();
+			double median = medianInPlace(deviationSum, length);
+			for (int i = 0; i < length; i++) {
+				deviationSum[i] = Math.abs(median - data.get(i));
+			}
+			mad = medianInPlace(deviationSum, length);
 		}
 		return mad;
 	}
@@ -186,6 +324,17 @@ public class MathUtil {
 		return data[q3] - data[q1];
 	}
 
+	/**
+	 * Gets the IQR of the first values of an array, which is not modified.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @return the IQR
+	 */
+	public static double iqr(final double[] data, final int length) {
+		return iqr(Arrays.copyOf(data, length));
+	}
+
 	/**
 	 * Count non zero beginning of the data.
 	 * 
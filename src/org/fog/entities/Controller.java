@@ -5,11 +5,10 @@ import java.util.HashMap;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Log;
-import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
-import org.cloudbus.cloudsim.power.PowerHost;
+import org.fog.entities.FogTopology.Tier;
 import org.fog.offloading.OffloadingStrategy;
 import org.fog.utils.Config;
 import org.fog.utils.FogEvents;
@@ -33,6 +32,16 @@ public class Controller extends SimEntity {
 
 	private List<FogDevice> fogDevices;
 
+	/**
+	 * The lookup tables of the devices and their VMs.
+	 */
+	private FogTopology topology;
+
+	/**
+	 * The indicators of the jobs returned so far.
+	 */
+	private MetricsAccumulator metrics;
+
 	/**
 	 * The workflow engine associated with it.
 	 */
@@ -90,11 +99,7 @@ public class Controller extends SimEntity {
 	}
 
 	public FogDevice getFogDeviceById(int id) {
-		for (FogDevice fogDevice : getFogDevices()) {
-			if (id == fogDevice.getId())
-				return fogDevice;
-		}
-		return null;
+		return topology.getFogDevice(id);
 	}
 
 	@Override
@@ -135,43 +140,50 @@ public class Controller extends SimEntity {
 		System.out.println("Total Cost = " + TotalCost);
 	}
 
+	/**
+	 * Adds a job that returned to the workflow engine to the indicators.
+	 *
+	 * @param job the job
+	 */
+	public void processJobReturn(Job job) {
+		getMetrics().add(job);
+	}
+
+	/**
+	 * Updates the indicators from the jobs returned so far. They were added up
+	 * as the jobs returned, so this only goes over the devices.
+	 */
 	public void updateExecutionTime() {
 		double time = 0.0;
 		double energy = 0.0;
 		double cost = 0.0;
-		double WAN_sendInput = 0, WAN_sendOutput = 0;
-		double LAN_sendInput = 0, LAN_sendOutput = 0;
+		double WAN_sendOutput = 0;
+		double LAN_sendOutput = 0;
 
 		// getmobile().setEnergyConsumption(getMobileEnergy());
-		List<Job> jobList = wfEngine.getJobsReceivedList();
-		for (Job job : jobList) {
-			if (getDC(job.getVmId()) == getcloud().getId()) {
-				count1++;
-				WAN_sendInput += job.getInputsize();
-//				WAN_sendOutput += job.getOutputsize();
-			} else if (getDC(job.getVmId()) == getFogNode().getId()) {
-				count2++;
-				LAN_sendInput += job.getInputsize();
-//				LAN_sendOutput += job.getOutputsize();
-			} else if (getDC(job.getVmId()) == getmobile().getId()) {
-				count3++;
+		MetricsAccumulator metrics = getMetrics();
+		count1 = metrics.getCloudJobs();
+		count2 = metrics.getFogJobs();
+		count3 = metrics.getMobileJobs();
+		double WAN_sendInput = metrics.getWanSendInput();
+		double LAN_sendInput = metrics.getLanSendInput();
+
+		Job Lastjob = metrics.getLastJob();// 获取到最后一个执行的job
+		if (Lastjob != null) {
+			FogDevice lastDevice = getTopology().getDevice(Lastjob.getVmId());
+			for (FileItem file : Lastjob.getFileList()) {
+				if (file.getType() == FileType.OUTPUT)
+					if (lastDevice == getcloud())
+						WAN_sendOutput += Lastjob.getOutputsize();
+					else if (lastDevice == getFogNode())
+						LAN_sendOutput += Lastjob.getOutputsize();
 			}
 		}
 
-		Job Lastjob = jobList.get(jobList.size() - 1);// 获取到最后一个执行的job
-		for (FileItem file : Lastjob.getFileList()) {
-			if (file.getType() == FileType.OUTPUT)
-				if (getDC(Lastjob.getVmId()) == getcloud().getId())
-					WAN_sendOutput += Lastjob.getOutputsize();
-				else if (getDC(Lastjob.getVmId()) == getFogNode().getId())
-					LAN_sendOutput += Lastjob.getOutputsize();
-		}
-
 		for (FogDevice fogDevice : getFogDevices()) {
-			String name = fogDevice.getName();
 			time += fogDevice.getExecutionTime();
 
-			if (name.contains("m")) {
+			if (topology.getTier(fogDevice.getId()) == Tier.END) {
 //				List<Job> jobList = wfEngine.getJobsReceivedList();
 //				if(!jobList.isEmpty()){
 //					Job Lastjob = jobList.get(jobList.size()-1);//获取到最后一个执行的job
@@ -190,8 +202,8 @@ public class Controller extends SimEntity {
 						+ MReceTime * powerModel.getRecePower();
 				fogDevice.setEnergyConsumption(energy / 1000);// 单位J
 			} else {
-				fogDevice.setTotalCost(getDatacenterCost(fogDevice.getId()));
-				cost += getDatacenterCost(fogDevice.getId());
+				fogDevice.setTotalCost(metrics.getDatacenterCost(fogDevice.getId()));
+				cost += metrics.getDatacenterCost(fogDevice.getId());
 			}
 		}
 		TotalExecutionTime = CloudSim.clock();
@@ -220,6 +232,31 @@ public class Controller extends SimEntity {
 
 	public void setFogDevices(List<FogDevice> fogDevices) {
 		this.fogDevices = fogDevices;
+		this.topology = new FogTopology(fogDevices);
+		this.metrics = null;
+	}
+
+	/**
+	 * Gets the lookup tables of the devices and their VMs. The VMs are indexed
+	 * on the first call, so it must come after they were placed on their hosts.
+	 *
+	 * @return the topology
+	 */
+	public FogTopology getTopology() {
+		if (!topology.hasVms())
+			topology.indexVms(wfEngine.getAllVmList());
+		return topology;
+	}
+
+	/**
+	 * Gets the indicators of the jobs returned since the last {@link #clear()}.
+	 *
+	 * @return the metrics
+	 */
+	public MetricsAccumulator getMetrics() {
+		if (metrics == null)
+			metrics = new MetricsAccumulator(getTopology());
+		return metrics;
 	}
 
 	public void print() {
@@ -242,6 +279,8 @@ public class Controller extends SimEntity {
 			device.clearConsumption();
 		MSendTime = 0.0;
 		MReceTime = 0.0;
+		if (metrics != null)
+			metrics.reset();
 		count1 = 0;
 		count2 = 0;
 		count3 = 0;
@@ -253,9 +292,8 @@ public class Controller extends SimEntity {
 		HashMap<String, List<Integer>> fileToDatacenter = new HashMap<String, List<Integer>>();
 
 		for (Job job : jobList) {
-			CondorVM vm = getVm(job.getVmId());
-			int datacenterId = vm.getHost().getDatacenter().getId();
-			if (!CloudSim.getEntity(datacenterId).getName().contains("m")) {
+			int datacenterId = getDC(job.getVmId());
+			if (topology.getTier(datacenterId) != Tier.END) {
 				for (FileItem file : job.getFileList()) {
 					List<Integer> datacenterIdList = new ArrayList<Integer>();
 					if (file.getType() == FileType.INPUT) {
@@ -275,85 +313,53 @@ public class Controller extends SimEntity {
 	}
 
 	public CondorVM getVm(int vmId) {
-		for (Vm vm : wfEngine.getAllVmList()) {
-			if (vm.getId() == vmId)
-				return (CondorVM) vm;
-		}
-		return null;
+		return getTopology().getVm(vmId);
 	}
 
 	public int getDC(int vmId) {
-		for (Vm vm : wfEngine.getAllVmList()) {
-			if (vm.getId() == vmId)
-				return vm.getHost().getDatacenter().getId();
-		}
-		return 0;
+		FogDevice device = getTopology().getDevice(vmId);
+		return device == null ? 0 : device.getId();
 	}
 
 	public double getDatacenterCost(int id) {
-		double cost = 0;
-		List<Job> jobList = wfEngine.getJobsReceivedList();
-		for (Job job : jobList) {
-			CondorVM vm = getVm(job.getVmId());
-			PowerHost host = (PowerHost) vm.getHost();
-			FogDevice fogdevice = (FogDevice) host.getDatacenter();
-			int datacenterId = fogdevice.getId();
-			if (!CloudSim.getEntity(datacenterId).getName().contains("m")) {
-				if (id == datacenterId) {
-					// cost+=job.getProcessingCost();
-					double c = job.getActualCPUTime() * vm.getHost().getTotalMips() / vm.getMips()
-							* host.getcostPerMips();
-					// 费用 = 执行时间 * 计算资源使用量 * 每单位计算量每单位时间的计算费用
-					job.setProcessingCost(c);
-					cost += c;
-				}
-			} else {
-				job.setProcessingCost(0);
-			}
+		return getMetrics().getDatacenterCost(id);
+	}
+
+	/**
+	 * Gets the time to move data between the mobile device and a device: over
+	 * the WAN for the cloud, over the LAN for the fog node, and none on the
+	 * mobile device itself.
+	 *
+	 * @param datacenterId the id of the device
+	 * @param size the size of the data
+	 * @return the transfer time
+	 */
+	public double getTransferTime(int datacenterId, double size) {
+		if (datacenterId == getcloud().getId()) {
+			return size / parameter / WAN_Bandwidth;
+		} else if (datacenterId == getFogNode().getId()) {
+			return size / parameter / LAN_Bandwidth;
 		}
-		return cost;
+		return 0;
 	}
 
 	public double getMobileEnergy() {
-		double energy = 0;
-		double executiontime = 0;
-		double idletime = 0;
-		List<Job> jobList = wfEngine.getJobsReceivedList();
-		for (Job job : jobList) {
-			CondorVM vm = getVm(job.getVmId());
-			PowerHost host = (PowerHost) vm.getHost();
-			FogLinearPowerModel powerModel = (FogLinearPowerModel) host.getPowerModel();
-			FogDevice fogdevice = (FogDevice) vm.getHost().getDatacenter();
-			if (fogdevice.getName().contains("m")) {
-				executiontime += job.getActualCPUTime();
-				double e = job.getActualCPUTime() * powerModel.getPower(vm.getMips() / host.getTotalMips());
-				energy += e;
-			}
-		}
-		idletime = CloudSim.clock() - executiontime;
+		MetricsAccumulator metrics = getMetrics();
+		double idletime = CloudSim.clock() - metrics.getEndCPUTime();
 		FogLinearPowerModel powerModel = (FogLinearPowerModel) getmobile().getHost().getPowerModel();
-		energy += idletime * powerModel.getStaticPower();// 负载能耗+空闲能耗
-		return energy;
+		// 负载能耗+空闲能耗
+		return metrics.getEndEnergy() + idletime * powerModel.getStaticPower();
 	}
 
 	public FogDevice getmobile() {
-		for (FogDevice dev : getFogDevices())
-			if (dev.getName().contains("m"))
-				return dev;
-		return null;
+		return topology.getFirstDevice(Tier.END);
 	}
 
 	public FogDevice getcloud() {
-		for (FogDevice dev : getFogDevices())
-			if (dev.getName().equalsIgnoreCase("cloud"))
-				return dev;
-		return null;
+		return topology.getFirstDevice(Tier.CLOUD);
 	}
 
 	public FogDevice getFogNode() {
-		for (FogDevice dev : getFogDevices())
-			if (dev.getName().contains("f"))
-				return dev;
-		return null;
+		return topology.getFirstDevice(Tier.FOG);
 	}
 }
@@ -13,9 +13,11 @@ import org.workflowsim.failure.FailureGenerator;
 import org.workflowsim.planning.BasePlanningAlgorithm;
 import org.workflowsim.scheduling.*;
 import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.RankIndex;
 import org.workflowsim.utils.Parameters.SchedulingAlgorithm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -113,6 +115,10 @@ public class FogBroker extends PowerDatacenterBroker {
                 clearConsumption(ev);
                 break;
             case WorkflowSimTags.CLOUDLET_UPDATE:
+                if (WorkflowEngine.isReplaying()) {
+                    processCloudletUpdateForReplay(ev);
+                    break;
+                }
                 switch (Parameters.getSchedulingAlgorithm()) {
                     case PSO:
                         if (WorkflowEngine.updateFlag == 0 && WorkflowEngine.startlastSchedule == 0) {
@@ -288,20 +294,17 @@ public class FogBroker extends PowerDatacenterBroker {
 
     }
 
+    /**
+     * Puts the ready cloudlets in the order of the planning algorithm. A
+     * cloudlet the planner did not order comes after the ones it did, and the
+     * order is kept when the planner set none.
+     *
+     * @param cloudlets the ready cloudlets
+     * @return the cloudlets sorted by their rank in the task orders
+     */
     private List<Cloudlet> getOrderedCloudletsFromPlanningAlgorithm(List<Cloudlet> cloudlets) {
-        List<Cloudlet> orderedCloudlets = new ArrayList<>();
-        List<Integer> orders = BasePlanningAlgorithm.getTaskOrders();
-        while (orderedCloudlets.size() != cloudlets.size()) {
-            for (int cloudletId : orders) {
-                for (Cloudlet cloudlet : cloudlets) {
-                    if (cloudletId == cloudlet.getCloudletId()) {
-                        orderedCloudlets.add(cloudlet);
-                        break;
-                    }
-                }
-            }
-        }
-        return orderedCloudlets;
+        RankIndex ranks = BasePlanningAlgorithm.getTaskRanks();
+        return ranks == null ? cloudlets : ranks.sort(cloudlets);
     }
 
     /**
@@ -317,7 +320,7 @@ public class FogBroker extends PowerDatacenterBroker {
         if (PsoScheduling.initFlag == 0) {
             startTime = System.currentTimeMillis();
             WorkflowEngine engine = (WorkflowEngine) CloudSim.getEntity(workflowEngineId);
-            PsoScheduling.init(WorkflowEngine.jobList.size(), getVmList().size());
+            PsoScheduling.init(getScheduleLength(), getVmList().size());
         }
         List<Cloudlet> scheduledList = new ArrayList<>();
         List<int[]> schedules = PsoScheduling.schedules;
@@ -401,7 +404,7 @@ public class FogBroker extends PowerDatacenterBroker {
         if (GASchedulingAlgorithm.initFlag == 0) {
             startTime = System.currentTimeMillis();
             WorkflowEngine engine = (WorkflowEngine) CloudSim.getEntity(workflowEngineId);
-            GASchedulingAlgorithm.initPopsRandomly(WorkflowEngine.jobList.size(), getVmList().size());
+            GASchedulingAlgorithm.initPopsRandomly(getScheduleLength(), getVmList().size());
         }
         List<Cloudlet> scheduledList = new ArrayList<>();
         List<int[]> schedules = GASchedulingAlgorithm.schedules;
@@ -600,6 +603,53 @@ public class FogBroker extends PowerDatacenterBroker {
         }
     }
 
+    /**
+     * Submits the jobs with the schedule replayed by a replica of a population
+     * evaluator, the way the GA or PSO flow would submit that candidate.
+     *
+     * @param ev a simEvent object
+     */
+    protected void processCloudletUpdateForReplay(SimEvent ev) {
+        List<Cloudlet> cloudletList = getCloudletList();
+        if (cloudletList.isEmpty()) {
+            return;
+        }
+        int[] schedule = WorkflowEngine.getReplaySchedule();
+        boolean offloading = Parameters.getSchedulingAlgorithm() == Parameters.SchedulingAlgorithm.GA;
+        List<Cloudlet> scheduledList = new ArrayList<>();
+        for (Cloudlet value : cloudletList) {
+            int vmId = schedule[value.getCloudletId()];
+            value.setVmId(offloading ? ChooseVm(value, vmId) : vmId);
+            scheduledList.add(value);
+        }
+        for (Cloudlet cloudlet : scheduledList) {
+            int vmId = cloudlet.getVmId();
+            double delay = 0.0;
+            if (Parameters.getOverheadParams().getQueueDelay() != null) {
+                delay = Parameters.getOverheadParams().getQueueDelay(cloudlet);
+            }
+            schedule(getVmsToDatacentersMap().get(vmId), delay, CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+        }
+        getCloudletList().removeAll(scheduledList);
+        getCloudletSubmittedList().addAll(scheduledList);
+        cloudletsSubmitted += scheduledList.size();
+    }
+
+    /**
+     * Gets the length of a GA or PSO schedule, which is indexed by job id. Job
+     * ids start at 1 when there is no stage-in job, so the length is the
+     * largest id plus one rather than the number of jobs.
+     *
+     * @return the schedule length
+     */
+    private int getScheduleLength() {
+        int length = WorkflowEngine.jobList.size();
+        for (Job job : WorkflowEngine.jobList) {
+            length = Math.max(length, job.getCloudletId() + 1);
+        }
+        return length;
+    }
+
     private void setVmState(int id) {
         for (Vm vm : getVmList()) {
             if (vm.getId() == id) {
@@ -618,26 +668,17 @@ public class FogBroker extends PowerDatacenterBroker {
      * @return 根据卸载决策结果所选择的虚拟机编号
      */
     private int ChooseVm(Cloudlet cloudlet, int vmId) {
-        List<CondorVM> list = new ArrayList<CondorVM>();
-        int chooseVmId = -1;
         Job job = (Job) cloudlet;
         if (job.getoffloading() == -1) {
             return vmId;
-        } else {
-            for (Vm vm : getVmList()) {
-                CondorVM cvm = (CondorVM) vm;
-                if (job.getoffloading() == cvm.getHost().getDatacenter().getId())
-                    list.add(cvm);
-            }
-            for (Vm vm : list) {
-                if (vmId == vm.getId()) {
-                    return vmId;
-                }
-            }
-            chooseVmId = list.get(0).getId() + vmId % list.size();
         }
-        list.clear();
-        return chooseVmId;
+        FogTopology topology = getTopology();
+        FogDevice device = topology.getDevice(vmId);
+        if (device != null && device.getId() == job.getoffloading()) {
+            return vmId;
+        }
+        CondorVM[] list = topology.getVms(job.getoffloading());
+        return list[0].getId() + vmId % list.length;
     }
 
     /**
@@ -652,13 +693,17 @@ public class FogBroker extends PowerDatacenterBroker {
             Log.printLine("no offloading strategy is defined");
             return getVmList();
         }
-        List<CondorVM> list = new ArrayList<>();
-        for (Vm vm : getVmList()) {
-            CondorVM cvm = (CondorVM) vm;
-            if (job.getoffloading() == cvm.getHost().getDatacenter().getId())
-                list.add(cvm);
-        }
-        return list;
+        return new ArrayList<>(Arrays.asList(getTopology().getVms(job.getoffloading())));
+    }
+
+    /**
+     * Gets the lookup tables of the devices and VMs, from the controller.
+     *
+     * @return the topology
+     */
+    private FogTopology getTopology() {
+        WorkflowEngine wfEngine = (WorkflowEngine) CloudSim.getEntity(workflowEngineId);
+        return wfEngine.getController().getTopology();
     }
 
     private double getDelayFromTransferCost(Task child) {
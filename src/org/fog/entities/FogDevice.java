@@ -232,21 +232,25 @@ public class FogDevice extends PowerDatacenter {
         double timeDiff = currentTime - getLastProcessTime();
         double timeFrameDatacenterEnergy = 0.0;
 
+        boolean debug = Log.isDebugEnabled();
         for (PowerHost host : this.<PowerHost>getHostList()) {
-            Log.printLine();
-
             double time = host.updateVmsProcessing(currentTime); // inform VMs to update processing
             if (time < minTime) {
                 minTime = time;
             }
 
-            Log.formatLine("%.2f: [Host #%d] utilization is %.2f%%", currentTime, host.getId(),
-                    host.getUtilizationOfCpu() * 100);
+            if (debug) {
+                Log.printLine();
+                Log.formatLine("%.2f: [Host #%d] utilization is %.2f%%", currentTime, host.getId(),
+                        host.getUtilizationOfCpu() * 100);
+            }
         }
 
         if (timeDiff > 0) {
-            Log.formatLine("\nEnergy consumption for the last time frame from %.2f to %.2f:", getLastProcessTime(),
-                    currentTime);
+            if (debug) {
+                Log.formatLine("\nEnergy consumption for the last time frame from %.2f to %.2f:", getLastProcessTime(),
+                        currentTime);
+            }
 
             for (PowerHost host : this.<PowerHost>getHostList()) {
                 double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
@@ -255,13 +259,17 @@ public class FogDevice extends PowerDatacenter {
                         utilizationOfCpu, timeDiff);
                 timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
-                Log.printLine();
-                Log.formatLine("%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%", currentTime,
-                        host.getId(), getLastProcessTime(), previousUtilizationOfCpu * 100, utilizationOfCpu * 100);
-                Log.formatLine("%.2f: [Host #%d] energy is %.2f W*sec", currentTime, host.getId(), timeFrameHostEnergy);
+                if (debug) {
+                    Log.printLine();
+                    Log.formatLine("%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%", currentTime,
+                            host.getId(), getLastProcessTime(), previousUtilizationOfCpu * 100, utilizationOfCpu * 100);
+                    Log.formatLine("%.2f: [Host #%d] energy is %.2f W*sec", currentTime, host.getId(), timeFrameHostEnergy);
+                }
             }
 
-            Log.formatLine("\n%.2f: Data center's energy is %.2f W*sec\n", currentTime, timeFrameDatacenterEnergy);
+            if (debug) {
+                Log.formatLine("\n%.2f: Data center's energy is %.2f W*sec\n", currentTime, timeFrameDatacenterEnergy);
+            }
         }
 
         setPower(getPower() + timeFrameDatacenterEnergy);
@@ -279,7 +287,9 @@ public class FogDevice extends PowerDatacenter {
          * " has been deallocated from host #" + host.getId()); } }
          */
 
-        Log.printLine();
+        if (debug) {
+            Log.printLine();
+        }
 
         setLastProcessTime(currentTime);
         return minTime;
@@ -0,0 +1,201 @@
+package org.fog.entities;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Vm;
+import org.workflowsim.CondorVM;
+
+/**
+ * FogTopology looks up the devices of a simulation and the VMs they host in
+ * constant time, instead of scanning the device and VM lists.
+ *
+ * The tier of a device is taken from its name once: "cloud" is the cloud, a
+ * name with an "m" is an end device and a name with an "f" a fog node. The VMs
+ * are indexed by id the first time one is looked up, after they were placed on
+ * their hosts.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public class FogTopology {
+
+	/**
+	 * The tier a device belongs to.
+	 */
+	public enum Tier {
+		CLOUD, FOG, END;
+
+		/**
+		 * Gets the tier of a device from its name.
+		 *
+		 * @param device the device
+		 * @return the tier, or null if the name matches none
+		 */
+		public static Tier of(FogDevice device) {
+			String name = device.getName();
+			if (name.equalsIgnoreCase("cloud"))
+				return CLOUD;
+			if (name.contains("m"))
+				return END;
+			if (name.contains("f"))
+				return FOG;
+			return null;
+		}
+	}
+
+	private final List<FogDevice> fogDevices;
+
+	/**
+	 * The device with a given id, and its tier.
+	 */
+	private final FogDevice[] devices;
+	private final Tier[] deviceTiers;
+
+	/**
+	 * The first device of each tier.
+	 */
+	private final Map<Tier, FogDevice> firstDevices = new EnumMap<>(Tier.class);
+
+	/**
+	 * The VM with a given id, and the device hosting it.
+	 */
+	private CondorVM[] vms;
+	private FogDevice[] vmDevices;
+
+	/**
+	 * The VMs hosted by a device, by device id, and the VMs of each tier.
+	 */
+	private CondorVM[][] deviceVms;
+	private final Map<Tier, CondorVM[]> tierVms = new EnumMap<>(Tier.class);
+
+	public FogTopology(List<FogDevice> fogDevices) {
+		this.fogDevices = fogDevices;
+		int maxId = -1;
+		for (FogDevice device : fogDevices)
+			maxId = Math.max(maxId, device.getId());
+		devices = new FogDevice[maxId + 1];
+		deviceTiers = new Tier[maxId + 1];
+		for (FogDevice device : fogDevices) {
+			Tier tier = Tier.of(device);
+			devices[device.getId()] = device;
+			deviceTiers[device.getId()] = tier;
+			if (tier != null && !firstDevices.containsKey(tier))
+				firstDevices.put(tier, device);
+		}
+	}
+
+	/**
+	 * Indexes the VMs by id. They must already be placed on their hosts.
+	 *
+	 * @param vmList all the VMs of the simulation
+	 */
+	public void indexVms(List<? extends Vm> vmList) {
+		int maxId = -1;
+		for (Vm vm : vmList)
+			maxId = Math.max(maxId, vm.getId());
+		vms = new CondorVM[maxId + 1];
+		vmDevices = new FogDevice[maxId + 1];
+		List<List<CondorVM>> hosted = new ArrayList<>();
+		for (int i = 0; i < deviceTiers.length; i++)
+			hosted.add(new ArrayList<>());
+		Map<Tier, List<CondorVM>> tiers = new EnumMap<>(Tier.class);
+		for (Tier tier : Tier.values())
+			tiers.put(tier, new ArrayList<>());
+		for (Vm vm : vmList) {
+			CondorVM cvm = (CondorVM) vm;
+			FogDevice device = (FogDevice) cvm.getHost().getDatacenter();
+			vms[cvm.getId()] = cvm;
+			vmDevices[cvm.getId()] = device;
+			hosted.get(device.getId()).add(cvm);
+			Tier tier = getTier(device.getId());
+			if (tier != null)
+				tiers.get(tier).add(cvm);
+		}
+		deviceVms = new CondorVM[deviceTiers.length][];
+		for (int i = 0; i < deviceTiers.length; i++)
+			deviceVms[i] = hosted.get(i).toArray(new CondorVM[0]);
+		for (Tier tier : Tier.values())
+			tierVms.put(tier, tiers.get(tier).toArray(new CondorVM[0]));
+	}
+
+	/**
+	 * Whether the VMs were indexed.
+	 */
+	public boolean hasVms() {
+		return vms != null;
+	}
+
+	public List<FogDevice> getFogDevices() {
+		return fogDevices;
+	}
+
+	public FogDevice getFogDevice(int deviceId) {
+		if (deviceId < 0 || deviceId >= devices.length)
+			return null;
+		return devices[deviceId];
+	}
+
+	/**
+	 * Gets the tier of a device.
+	 *
+	 * @param deviceId the id of the device
+	 * @return the tier, or null if the device is unknown or matches no tier
+	 */
+	public Tier getTier(int deviceId) {
+		if (deviceId < 0 || deviceId >= deviceTiers.length)
+			return null;
+		return deviceTiers[deviceId];
+	}
+
+	/**
+	 * Gets the first device of a tier, in the order of the device list.
+	 *
+	 * @param tier the tier
+	 * @return the device, or null if the tier has none
+	 */
+	public FogDevice getFirstDevice(Tier tier) {
+		return firstDevices.get(tier);
+	}
+
+	public CondorVM getVm(int vmId) {
+		if (vmId < 0 || vmId >= vms.length)
+			return null;
+		return vms[vmId];
+	}
+
+	/**
+	 * Gets the device hosting a VM.
+	 *
+	 * @param vmId the id of the VM
+	 * @return the device, or null if the VM is unknown
+	 */
+	public FogDevice getDevice(int vmId) {
+		if (vmId < 0 || vmId >= vmDevices.length)
+			return null;
+		return vmDevices[vmId];
+	}
+
+	/**
+	 * Gets the VMs hosted by a device, in the order of the VM list.
+	 *
+	 * @param deviceId the id of the device
+	 * @return the VMs, empty if the device is unknown
+	 */
+	public CondorVM[] getVms(int deviceId) {
+		if (deviceId < 0 || deviceId >= deviceVms.length)
+			return new CondorVM[0];
+		return deviceVms[deviceId];
+	}
+
+	/**
+	 * Gets the VMs hosted by the devices of a tier, in the order of the VM list.
+	 *
+	 * @param tier the tier
+	 * @return the VMs
+	 */
+	public CondorVM[] getVms(Tier tier) {
+		return tierVms.get(tier);
+	}
+}
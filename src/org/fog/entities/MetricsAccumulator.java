@@ -0,0 +1,164 @@
+package org.fog.entities;
+
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.fog.entities.FogTopology.Tier;
+import org.fog.utils.FogLinearPowerModel;
+import org.workflowsim.CondorVM;
+import org.workflowsim.Job;
+
+/**
+ * MetricsAccumulator adds up the indicators of a run as the jobs return, so the
+ * controller reads them without going over the returned jobs again.
+ *
+ * For every returned job it counts where the job ran, adds the data sent to
+ * the cloud or the fog node, adds the processing cost of the job to its
+ * device and the busy energy of the end devices, and keeps the last job and
+ * the time it returned.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public class MetricsAccumulator {
+
+	private final FogTopology topology;
+
+	/**
+	 * The jobs run on the cloud, on the fog node and on the mobile device.
+	 */
+	private int cloudJobs, fogJobs, mobileJobs;
+
+	/**
+	 * The input data sent over the WAN and over the LAN.
+	 */
+	private double wanSendInput, lanSendInput;
+
+	/**
+	 * The processing cost of the jobs on each device, by device id.
+	 */
+	private final double[] deviceCosts;
+
+	/**
+	 * The CPU time and the energy of the jobs run on the end devices.
+	 */
+	private double endCPUTime, endEnergy;
+
+	private Job lastJob;
+	private double makespan;
+
+	public MetricsAccumulator(FogTopology topology) {
+		this.topology = topology;
+		int maxId = 0;
+		for (FogDevice fogDevice : topology.getFogDevices())
+			maxId = Math.max(maxId, fogDevice.getId());
+		deviceCosts = new double[maxId + 1];
+	}
+
+	/**
+	 * Adds a returned job, and sets its processing cost. A job whose VM is unknown only counts as
+	 * the last job.
+	 *
+	 * @param job the job
+	 */
+	public void add(Job job) {
+		lastJob = job;
+		makespan = CloudSim.clock();
+		CondorVM vm = topology.getVm(job.getVmId());
+		FogDevice device = topology.getDevice(job.getVmId());
+		if (vm == null || device == null) {
+			// a job without a known VM, such as vm id -1, is not counted on any device
+			return;
+		}
+		if (device == topology.getFirstDevice(Tier.CLOUD)) {
+			cloudJobs++;
+			wanSendInput += job.getInputsize();
+		} else if (device == topology.getFirstDevice(Tier.FOG)) {
+			fogJobs++;
+			lanSendInput += job.getInputsize();
+		} else if (device == topology.getFirstDevice(Tier.END)) {
+			mobileJobs++;
+		}
+
+		PowerHost host = (PowerHost) vm.getHost();
+		if (topology.getTier(device.getId()) != Tier.END) {
+			// 费用 = 执行时间 * 计算资源使用量 * 每单位计算量每单位时间的计算费用
+			double c = job.getActualCPUTime() * host.getTotalMips() / vm.getMips() * host.getcostPerMips();
+			job.setProcessingCost(c);
+			deviceCosts[device.getId()] += c;
+		} else {
+			job.setProcessingCost(0);
+			FogLinearPowerModel powerModel = (FogLinearPowerModel) host.getPowerModel();
+			endCPUTime += job.getActualCPUTime();
+			endEnergy += job.getActualCPUTime() * powerModel.getPower(vm.getMips() / host.getTotalMips());
+		}
+	}
+
+	/**
+	 * Forgets the jobs added so far.
+	 */
+	public void reset() {
+		cloudJobs = 0;
+		fogJobs = 0;
+		mobileJobs = 0;
+		wanSendInput = 0;
+		lanSendInput = 0;
+		Arrays.fill(deviceCosts, 0);
+		endCPUTime = 0;
+		endEnergy = 0;
+		lastJob = null;
+		makespan = 0;
+	}
+
+	public int getCloudJobs() {
+		return cloudJobs;
+	}
+
+	public int getFogJobs() {
+		return fogJobs;
+	}
+
+	public int getMobileJobs() {
+		return mobileJobs;
+	}
+
+	public double getWanSendInput() {
+		return wanSendInput;
+	}
+
+	public double getLanSendInput() {
+		return lanSendInput;
+	}
+
+	/**
+	 * Gets the processing cost of the jobs on a device.
+	 *
+	 * @param deviceId the id of the device
+	 * @return the cost, 0 for an unknown device
+	 */
+	public double getDatacenterCost(int deviceId) {
+		return deviceId >= 0 && deviceId < deviceCosts.length ? deviceCosts[deviceId] : 0;
+	}
+
+	public double getEndCPUTime() {
+		return endCPUTime;
+	}
+
+	public double getEndEnergy() {
+		return endEnergy;
+	}
+
+	/**
+	 * Gets the last job added, or null if there is none.
+	 */
+	public Job getLastJob() {
+		return lastJob;
+	}
+
+	/**
+	 * Gets the time the last job returned.
+	 */
+	public double getMakespan() {
+		return makespan;
+	}
+}
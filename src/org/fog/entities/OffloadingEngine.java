@@ -4,6 +4,7 @@ import java.util.List;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.fog.offloading.OffloadingStrategy;
+import org.fog.utils.Logger;
 import org.workflowsim.Job;
 import org.workflowsim.WorkflowEngine;
 
@@ -28,6 +29,11 @@ public class OffloadingEngine extends SimEntity{
 	
 	public OffloadingStrategy offloadingStrategy;
 	
+	/**
+	 * The device each job of the last run was offloaded to
+	 */
+	private int[] offloadingDecisions;
+	
 	public OffloadingEngine(String name)throws Exception{
 		super(name);
 	}
@@ -44,30 +50,25 @@ public class OffloadingEngine extends SimEntity{
 	public long run(List<Job> list, double DeadLine){
 		setjobList(list);
 		long startoffloading = System.currentTimeMillis();
-		getOffloadingStrategy().BeforeOffloading(DeadLine);
-		double sum = 0;
-		for(Job job : list){
-//			for(FileItem file : job.getFileList()){
-//				if(file.getType() == FileType.INPUT)
-//					sum += file.getSize() / 1000;
-//			}
-			sum += job.getCloudletLength();
-		}
-		System.out.println(sum);
-		double time = 0;
+		offloadingDecisions = null;
 		if(getOffloadingStrategy() != null){
-			for(Job job : list){
-				double deadline = DeadLine;
-//				double deadline = job.getCloudletLength() / sum * DeadLine;// * 10;
-				time += getOffloadingStrategy().SelectDatacenter(job, deadline);
-			}
+			getOffloadingStrategy().BeforeOffloading(DeadLine);
+			offloadingDecisions = getOffloadingStrategy().SelectDatacenters(list, DeadLine);
 		}
-		System.out.println("sum of mobile runtimes = "+time);
 		long endoffloading = System.currentTimeMillis();
-		System.out.println("卸载策略运行时间 = " + (endoffloading - startoffloading));
+		if(Logger.isDebugEnabled())
+			Logger.debug(getName(), "卸载策略运行时间 = " + (endoffloading - startoffloading));
 		return endoffloading - startoffloading;
 	}
 	
+	/**
+	 * Gets the device id each job of the last run was offloaded to, in the
+	 * order of the job list, or null if there was no offloading.
+	 */
+	public int[] getOffloadingDecisions(){
+		return offloadingDecisions;
+	}
+	
 	public void setfogDevices(List list){
 		this.fogDevices = list;
 		if(getOffloadingStrategy() != null){
@@ -4,6 +4,8 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.fog.entities.FogDevice;
+import org.fog.entities.FogTopology;
+import org.fog.entities.FogTopology.Tier;
 import org.fog.entities.OffloadingEngine;
 import org.workflowsim.Job;
 
@@ -11,6 +13,7 @@ public abstract class OffloadingStrategy {
 
 	private List<Job> jobList;
 	private List<FogDevice> fogDevices;
+	private FogTopology topology;
 	private OffloadingEngine offloadingEngine;
 	
 	/** The host list. */
@@ -25,7 +28,7 @@ public abstract class OffloadingStrategy {
 	}
 	
 	public OffloadingStrategy (List<FogDevice> fogdevices) {
-		this.fogDevices = fogdevices;
+		setFogDeviceLists(fogdevices);
 //		this.hostList = list;
 	}
 	
@@ -33,29 +36,44 @@ public abstract class OffloadingStrategy {
 	public abstract void SelectDatacenter(Job job);
 	public abstract double SelectDatacenter(Job job, double deadline);
 	
+	/**
+	 * Decides where each job runs, and sets it as the offloading of the job.
+	 *
+	 * @param jobs the jobs
+	 * @param deadline the deadline
+	 * @return the id of the device each job is offloaded to, in the order of the jobs
+	 */
+	public int[] SelectDatacenters(List<Job> jobs, double deadline) {
+		int[] decisions = new int[jobs.size()];
+		for (int i = 0; i < decisions.length; i++) {
+			Job job = jobs.get(i);
+			SelectDatacenter(job, deadline);
+			decisions[i] = job.getoffloading();
+		}
+		return decisions;
+	}
+	
 	public FogDevice getmobile(){
-		for(FogDevice dev : getFogDeviceLists())
-			if(dev.getName().contains("m"))
-				return dev;
-		return null;
+		return getTopology().getFirstDevice(Tier.END);
 	}
 	
 	public FogDevice getcloud(){
-		for(FogDevice dev : getFogDeviceLists())
-			if(dev.getName().equalsIgnoreCase("cloud"))
-				return dev;
-		return null;
+		return getTopology().getFirstDevice(Tier.CLOUD);
 	}
 	
 	public FogDevice getFogNode(){
-		for(FogDevice dev : getFogDeviceLists())
-			if(dev.getName().contains("f"))
-				return dev;
-		return null;
+		return getTopology().getFirstDevice(Tier.FOG);
 	}
 
 	public void setFogDeviceLists(List list){
 		this.fogDevices = list;
+		this.topology = list == null ? null : new FogTopology(fogDevices);
+	}
+	/**
+	 * Gets the tiers of the devices, looked up once when they are set.
+	 */
+	public FogTopology getTopology(){
+		return topology;
 	}
 	public List<FogDevice> getFogDeviceLists(){
 		return fogDevices;
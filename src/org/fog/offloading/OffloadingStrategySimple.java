@@ -1,12 +1,15 @@
 package org.fog.offloading;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.fog.entities.FogDevice;
+import org.fog.entities.FogTopology.Tier;
 import org.fog.utils.FogLinearPowerModel;
+import org.fog.utils.Logger;
 import org.workflowsim.FileItem;
 import org.workflowsim.Job;
 import org.workflowsim.utils.Parameters.FileType;
@@ -20,6 +23,7 @@ public class OffloadingStrategySimple extends OffloadingStrategy{
 	private HashMap<String, List<Integer>> fileToDatacenter;
 	private static FogLinearPowerModel powerModel;
 	List<Integer> IdList = new ArrayList<Integer>();
+	private static final String NAME = "OffloadingStrategySimple";
 	
 	public OffloadingStrategySimple(List<FogDevice> fogdevices) {
 		super(fogdevices);
@@ -31,88 +35,140 @@ public class OffloadingStrategySimple extends OffloadingStrategy{
 		fileToDatacenter = new HashMap<String, List<Integer>>();
 	}
 
-	public double SelectDatacenter(Job job, double deadline) {
-		// TODO Auto-generated method stub
-		double time1 = 0, time2 = 0, time3 = 0;
-		double energy1 = 0, energy2 = 0, energy3 = 0;
-		powerModel = (FogLinearPowerModel) getmobile().getHost().getPowerModel();
-		
+	/**
+	 * The average MIPS of the cloud, the fog node and the mobile device, taken
+	 * once per offloading from the last device of each tier, or 0 if the tier
+	 * has no device.
+	 */
+	private double cloudMips, fogMips, mobileMips;
+	private int cloudId, fogId, mobileId;
+
+	private static final int CLOUD = 0, FOG = 1, MOBILE = 2, TIERS = 3;
+
+	private void prepareTiers() {
+		cloudMips = fogMips = mobileMips = 0;
 		for(FogDevice fd: getFogDeviceLists()){
-			if(fd.getName().equalsIgnoreCase("cloud")){ //计算卸载到云所需时间
-				time1 = job.getCloudletLength() / fd.getAverageMips()
-						                  + getJobFileSize(job) / parameter / WAN_Bandwidth;
+			Tier tier = getTopology().getTier(fd.getId());
+			if(tier == Tier.CLOUD)
+				cloudMips = fd.getAverageMips();
+			else if(tier == Tier.FOG)
+				fogMips = fd.getAverageMips();
+			else
+				mobileMips = fd.getAverageMips();
+		}
+		powerModel = (FogLinearPowerModel) getmobile().getHost().getPowerModel();
+		cloudId = getcloud().getId();
+		fogId = getFogNode().getId();
+		mobileId = getmobile().getId();
+	}
+
+	public double SelectDatacenter(Job job, double deadline) {
+		SelectDatacenters(Collections.singletonList(job), deadline);
+		return mobileMips == 0 ? 0 : job.getCloudletLength() / mobileMips;
+	}
+
+	/**
+	 * Fills the time and the energy of every job on every tier first, then
+	 * decides where each job runs from its row.
+	 */
+	@Override
+	public int[] SelectDatacenters(List<Job> jobs, double deadline) {
+		prepareTiers();
+		int jobNum = jobs.size();
+		double[] lengths = new double[jobNum];
+		double[] fileSizes = new double[jobNum];
+		for(int i = 0; i < jobNum; i++){
+			Job job = jobs.get(i);
+			lengths[i] = job.getCloudletLength();
+			fileSizes[i] = getJobFileSize(job);
+		}
+
+		double staticPower = powerModel.getStaticPower();
+		double sendPower = powerModel.getSendPower();
+		double maxPower = powerModel.getMaxPower();
+		double[] times = new double[jobNum * TIERS];
+		double[] energies = new double[jobNum * TIERS];
+		for(int i = 0, row = 0; i < jobNum; i++, row += TIERS){
+			if(cloudMips != 0){ //计算卸载到云所需时间
+				times[row + CLOUD] = lengths[i] / cloudMips + fileSizes[i] / parameter / WAN_Bandwidth;
 				//卸载所需能耗 = 空闲功率 * 云执行时间 + 传输功率 * (发送数据大小 + 接收数据大小 ) / WAN带宽
-				energy1 = powerModel.getStaticPower() * job.getCloudletLength() / fd.getAverageMips()
-						     + powerModel.getSendPower() * getJobFileSize(job) / parameter / WAN_Bandwidth;
+				energies[row + CLOUD] = staticPower * lengths[i] / cloudMips
+						+ sendPower * fileSizes[i] / parameter / WAN_Bandwidth;
 			}
-			else if(fd.getName().contains("f")){ //计算卸载到雾所需时间
-				time2 = job.getCloudletLength() / fd.getAverageMips()
-		                  + getJobFileSize(job) / parameter / LAN_Bandwidth;
+			if(fogMips != 0){ //计算卸载到雾所需时间
+				times[row + FOG] = lengths[i] / fogMips + fileSizes[i] / parameter / LAN_Bandwidth;
 				//卸载所需能耗 = 空闲功率 * 雾执行时间 + 传输功率 * (发送数据大小 + 接收数据大小 ) / LAN带宽
-				energy2 = powerModel.getStaticPower() * job.getCloudletLength() / fd.getAverageMips()
-						+ powerModel.getSendPower() * getJobFileSize(job) / parameter / LAN_Bandwidth;
-//				System.out.print("energy2 = ");
-//				System.out.print(powerModel.getStaticPower()+" * "+(job.getCloudletLength() / fd.getHost().getTotalMips()));
-//				System.out.print(" + "+ powerModel.getSendPower() +" * ("); 
-//				System.out.print(getJobInputFileSize(fd, job));
-//				System.out.print(" + "+getJobOutputFileSize(job)+" ) * 8/ 100 /");
-//                System.out.println(LAN_Bandwidth);
-//                System.out.println("energy2 = "+powerModel.getStaticPower() * job.getCloudletLength() / fd.getHost().getTotalMips() + " + "
-//                                                  +powerModel.getSendPower() +" * "+(getJobInputFileSize(fd, job) + getJobOutputFileSize(job)) * 8 /100 / LAN_Bandwidth);
+				energies[row + FOG] = staticPower * lengths[i] / fogMips
+						+ sendPower * fileSizes[i] / parameter / LAN_Bandwidth;
 			}
-			else{//不卸载
-				time3 = job.getCloudletLength() / fd.getAverageMips();
-				energy3 = powerModel.getMaxPower() * job.getCloudletLength() / fd.getAverageMips();
+			if(mobileMips != 0){//不卸载
+				times[row + MOBILE] = lengths[i] / mobileMips;
+				energies[row + MOBILE] = maxPower * lengths[i] / mobileMips;
 			}
 		}
-		System.out.println("deadline : "+deadline+"; cloud : "+time1+"; fog : "+time2+"; mobile : "+time3);
-//		System.out.println(energy1+",  "+energy2+",  "+energy3);
+
+		int[] decisions = new int[jobNum];
+		double mobileTime = 0;
+		for(int i = 0, row = 0; i < jobNum; i++, row += TIERS){
+			Job job = jobs.get(i);
+			decisions[i] = decide(times, energies, row, deadline);
+			job.setoffloading(decisions[i]);
+			mobileTime += times[row + MOBILE];
+			if(Logger.isDebugEnabled()){
+				Logger.debug(NAME, "deadline : "+deadline+"; cloud : "+times[row + CLOUD]+"; fog : "+times[row + FOG]
+						+"; mobile : "+times[row + MOBILE]);
+				Logger.debug(NAME, "job"+job.getCloudletId()+"卸载决策结果: "+job.getoffloading()+":"+CloudSim.getEntityName(job.getoffloading()));//输出卸载决策结果
+			}
+		}
+		if(Logger.isDebugEnabled())
+			Logger.debug(NAME, "sum of mobile runtimes = "+mobileTime);
+		return decisions;
+	}
+
+	/**
+	 * Decides where a job runs from its times and energies on the tiers.
+	 *
+	 * @return the id of the device the job is offloaded to
+	 */
+	private int decide(double[] times, double[] energies, int row, double deadline) {
+		double time1 = times[row + CLOUD], time2 = times[row + FOG];
+		double energy1 = energies[row + CLOUD], energy2 = energies[row + FOG], energy3 = energies[row + MOBILE];
 		if(deadline < Math.min(time1, time2)){//都不满足时间约束
-			System.out.println("卸载不满足时间约束");
-			job.setoffloading(getmobile().getId());//不卸载
+			debug("卸载不满足时间约束");
+			return mobileId;//不卸载
 		}
 		else if(deadline > Math.max(time1, time2)){//都满足时间约束
 			if(Math.min(energy3, Math.min(energy1, energy2)) == energy1){
-				System.out.println("都满足时间约束，且卸载到云能耗最小");
-				job.setoffloading(getcloud().getId());//卸载到云
+				debug("都满足时间约束，且卸载到云能耗最小");
+				return cloudId;//卸载到云
 			}
 			else if(Math.min(energy3, Math.min(energy1, energy2)) == energy2){
-				System.out.println("都满足时间约束，且卸载到雾能耗最小");
-				job.setoffloading(getFogNode().getId());//卸载到雾节点
+				debug("都满足时间约束，且卸载到雾能耗最小");
+				return fogId;//卸载到雾节点
 			}
 			else{
-				System.out.println("都满足时间约束，但不卸载能耗最小");
-				job.setoffloading(getmobile().getId());//不卸载
+				debug("都满足时间约束，但不卸载能耗最小");
+				return mobileId;//不卸载
 			}
 		}
 		else{//deadline介于time1和time2之间
 			if(time1 < time2 && energy1 < energy3){//卸载到云满足时间约束并且能耗较小
-				System.out.println("云满足时间约束，且能耗小");
-				job.setoffloading(getcloud().getId());//卸载到云
+				debug("云满足时间约束，且能耗小");
+				return cloudId;//卸载到云
 			}
 			else if(time1 > time2 && energy2 < energy3){//卸载到雾节点满足时间约束并且能耗较小
-				System.out.println("雾满足时间约束，且能耗小");
-				job.setoffloading(getFogNode().getId());//卸载到雾节点
+				debug("雾满足时间约束，且能耗小");
+				return fogId;//卸载到雾节点
 			}
 			else{
-				System.out.println("有一个满足时间约束，但不卸载能耗最小");
-				job.setoffloading(getmobile().getId());//不卸载
+				debug("有一个满足时间约束，但不卸载能耗最小");
+				return mobileId;//不卸载
 			}
 		}
-//		if(deadline < Math.min(time1, time2))
-//			job.setoffloading(getmobile().getId());//不卸载
-//		else{
-//			if(time1 < time2){
-//				job.setoffloading(getcloud().getId());//卸载到云
-//				addFileToDatacenter(getcloud(), job);
-//			}
-//			else{
-//				job.setoffloading(getFogNode().getId());//卸载到雾节点
-//				addFileToDatacenter(getFogNode(), job);
-//			}
-//		}
-		System.out.println("job"+job.getCloudletId()+"卸载决策结果: "+job.getoffloading()+":"+CloudSim.getEntityName(job.getoffloading()));//输出卸载决策结果
-		return time3;
+	}
+
+	private static void debug(String message) {
+		Logger.debug(NAME, message);
 	}
 	
 	/*
@@ -124,7 +180,8 @@ public class OffloadingStrategySimple extends OffloadingStrategy{
 		powerModel = (FogLinearPowerModel) getmobile().getHost().getPowerModel();
 		
 		for(FogDevice fd: getFogDeviceLists()){
-			if(fd.getName().equalsIgnoreCase("cloud")){ //计算卸载到云所需时间
+			Tier tier = getTopology().getTier(fd.getId());
+			if(tier == Tier.CLOUD){ //计算卸载到云所需时间
 				time1 = job.getCloudletLength() / fd.getAverageMips()
 						                  + getJobInputFileSize(fd, job) / parameter / WAN_Bandwidth;
 				//卸载所需能耗 = 空闲功率 * 云执行时间 + 传输功率 * (发送数据大小 + 接收数据大小 ) / WAN带宽
@@ -132,7 +189,7 @@ public class OffloadingStrategySimple extends OffloadingStrategy{
 						     + powerModel.getSendPower() * (getJobInputFileSize(fd, job) + getJobOutputFileSize(job)) 
 						                                                     / parameter / WAN_Bandwidth;
 			}
-			else if(fd.getName().contains("f")){ //计算卸载到雾所需时间
+			else if(tier == Tier.FOG){ //计算卸载到雾所需时间
 				time2 = job.getCloudletLength() / fd.getAverageMips()
 		                  + getJobInputFileSize(fd, job) / parameter / LAN_Bandwidth;
 				//卸载所需能耗 = 空闲功率 * 雾执行时间 + 传输功率 * (发送数据大小 + 接收数据大小 ) / LAN带宽
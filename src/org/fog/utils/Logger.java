@@ -1,6 +1,7 @@
 package org.fog.utils;
 
 import java.text.DecimalFormat;
+import java.util.function.Supplier;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 
@@ -18,17 +19,38 @@ public class Logger {
 		Logger.LOG_LEVEL = level;
 	}
 	
+	/**
+	 * Whether debug messages are printed, so a caller can skip building them.
+	 */
+	public static boolean isDebugEnabled(){
+		return ENABLED && Logger.LOG_LEVEL <= Logger.DEBUG;
+	}
+	
 	public static void debug(String name, String message){
 		if(!ENABLED)
 			return;
 		if(Logger.LOG_LEVEL <= Logger.DEBUG)
 			System.out.println(df.format(CloudSim.clock())+" : "+name+" : "+message);
 	}
+	/**
+	 * Prints a debug message, built only if it is printed.
+	 */
+	public static void debug(String name, Supplier<String> message){
+		if(isDebugEnabled())
+			debug(name, message.get());
+	}
 	public static void error(String name, String message){
 		if(!ENABLED)
 			return;
 		if(Logger.LOG_LEVEL <= Logger.ERROR)
 			System.out.println(df.format(CloudSim.clock())+" : "+name+" : "+message);
 	}
+	/**
+	 * Prints an error message, built only if it is printed.
+	 */
+	public static void error(String name, Supplier<String> message){
+		if(ENABLED && Logger.LOG_LEVEL <= Logger.ERROR)
+			error(name, message.get());
+	}
 	
 }
@@ -66,6 +66,10 @@ public final class ClusteringEngine extends SimEntity {
      * The clustering engine to use
      */
     protected BasicClustering engine;
+    /**
+     * The topological order of the workflow, when the planner has one.
+     */
+    private TopologicalOrder topologicalOrder;
     /**
      * The WorkflowEngineId of the WorkflowEngine
      */
@@ -126,6 +130,16 @@ public final class ClusteringEngine extends SimEntity {
         getTaskList().addAll(list);
     }
 
+    /**
+     * Sets the topological order of the task list to be submitted next, so
+     * that the clustering methods do not compute it again.
+     *
+     * @param order the topological order
+     */
+    public void setTopologicalOrder(TopologicalOrder order) {
+        this.topologicalOrder = order;
+    }
+
     /**
      * Processes events available for this ClusteringEngine.
      *
@@ -178,6 +192,7 @@ public final class ClusteringEngine extends SimEntity {
                 break;
         }
         engine.setTaskList(getTaskList());
+        engine.setTopologicalOrder(topologicalOrder);
         engine.run();
         setJobList(engine.getJobList());
     }
@@ -0,0 +1,337 @@
+package org.workflowsim;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * The jobs of the {@link WorkflowEngine} that are not submitted yet, with the
+ * number of parents each of them still waits for.
+ *
+ * A job is ready once it has not been received itself and a job with the id
+ * of each of its parents has been received. The ids of the received jobs are
+ * kept in a bit set; when a new one arrives, only the pending jobs that wait
+ * for it are updated, so finding the ready jobs costs the out-degree of the
+ * received jobs instead of a scan of all the pending jobs against the
+ * received list. The ready jobs are returned in the order they were added.
+ *
+ * The list is removed from in constant time: a submitted job leaves a hole,
+ * and the holes are dropped once they outnumber the jobs. Adding a job, or
+ * dropping the holes, makes the counters be computed again on the next
+ * {@link #takeReady(List)}, since the dependencies may have changed with it,
+ * as when the ReclusteringEngine retries a failed job.
+ *
+ * It is a modifiable list, as the ArrayList it replaces: setting or inserting
+ * a job by index drops the holes first and also makes the counters be
+ * computed again, and removing a job by index leaves a hole.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class PendingJobList extends AbstractList<Job> {
+
+    /**
+     * The jobs, in the order they were added; null for a submitted job.
+     */
+    private Job[] jobs;
+    /**
+     * The number of slots used, and the number of jobs.
+     */
+    private int end;
+    private int size;
+
+    /**
+     * The number of parents each slot still waits for, and the slots whose
+     * job is ready.
+     */
+    private int[] waiting = new int[0];
+    private final BitSet ready = new BitSet();
+
+    /**
+     * The slots waiting for each job id: the slots waiting for id i are
+     * dependents[dependentIndex[i]] to dependents[dependentIndex[i + 1] - 1].
+     */
+    private int[] dependentIndex = new int[1];
+    private int[] dependents = new int[0];
+
+    /**
+     * The ids of the received jobs, and the size of the received list when
+     * it was last read.
+     */
+    private final BitSet finished = new BitSet();
+    private int received;
+
+    /**
+     * Whether the counters must be computed again.
+     */
+    private boolean dirty;
+
+    /**
+     * Creates a list of pending jobs.
+     *
+     * @param list the jobs
+     */
+    public PendingJobList(List<? extends Cloudlet> list) {
+        this.jobs = new Job[Math.max(16, list.size())];
+        for (Cloudlet job : list) {
+            add((Job) job);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Job get(int index) {
+        checkIndex(index, size);
+        compact();
+        return jobs[index];
+    }
+
+    @Override
+    public Job set(int index, Job job) {
+        checkIndex(index, size);
+        compact();
+        Job previous = jobs[index];
+        jobs[index] = job;
+        dirty = true;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Job job) {
+        ensureRoom();
+        jobs[end++] = job;
+        size++;
+        modCount++;
+        dirty = true;
+        return true;
+    }
+
+    @Override
+    public void add(int index, Job job) {
+        checkIndex(index, size + 1);
+        if (index == size) {
+            add(job);
+            return;
+        }
+        compact();
+        ensureRoom();
+        System.arraycopy(jobs, index, jobs, index + 1, end - index);
+        jobs[index] = job;
+        end++;
+        size++;
+        modCount++;
+        dirty = true;
+    }
+
+    @Override
+    public Job remove(int index) {
+        checkIndex(index, size);
+        compact();
+        Job job = jobs[index];
+        removeSlot(index);
+        return job;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(jobs, 0, end, null);
+        end = 0;
+        size = 0;
+        ready.clear();
+        modCount++;
+        dirty = true;
+    }
+
+    @Override
+    public Iterator<Job> iterator() {
+        return new Iterator<Job>() {
+            private int next = skip(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public Job next() {
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = skip(next + 1);
+                return jobs[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeSlot(last);
+                last = -1;
+            }
+        };
+    }
+
+    /**
+     * Removes and returns the ready jobs.
+     *
+     * @param receivedList the jobs received so far; it only grows, except
+     *                     when it is emptied to run the workflow again
+     * @return the ready jobs, in the order they were added
+     */
+    public List<Job> takeReady(List<? extends Cloudlet> receivedList) {
+        update(receivedList);
+        List<Job> list = new ArrayList<>();
+        for (int slot = ready.nextSetBit(0); slot >= 0; slot = ready.nextSetBit(slot + 1)) {
+            Job job = jobs[slot];
+            if (!finished.get(job.getCloudletId())) {
+                removeSlot(slot);
+                list.add(job);
+            }
+        }
+        if (end - size > size && end - size > 64) {
+            compact();
+        }
+        return list;
+    }
+
+    /**
+     * Reads the jobs received since the last call, and computes the counters
+     * again if needed.
+     */
+    private void update(List<? extends Cloudlet> receivedList) {
+        if (receivedList.size() < received) {
+            finished.clear();
+            received = 0;
+            dirty = true;
+        }
+        for (int i = received; i < receivedList.size(); i++) {
+            int id = receivedList.get(i).getCloudletId();
+            if (finished.get(id)) {
+                continue;
+            }
+            finished.set(id);
+            if (!dirty && id + 1 < dependentIndex.length) {
+                for (int d = dependentIndex[id]; d < dependentIndex[id + 1]; d++) {
+                    int slot = dependents[d];
+                    if (jobs[slot] != null && --waiting[slot] == 0) {
+                        ready.set(slot);
+                    }
+                }
+            }
+        }
+        received = receivedList.size();
+        if (dirty) {
+            compact();
+            count();
+        }
+    }
+
+    /**
+     * Computes the number of parents each job waits for, and which slots wait
+     * for each id.
+     */
+    private void count() {
+        waiting = new int[end];
+        ready.clear();
+        int maxId = -1;
+        int edges = 0;
+        for (int slot = 0; slot < end; slot++) {
+            for (Task parent : jobs[slot].getParentList()) {
+                int id = parent.getCloudletId();
+                if (!finished.get(id)) {
+                    waiting[slot]++;
+                    maxId = Math.max(maxId, id);
+                    edges++;
+                }
+            }
+            if (waiting[slot] == 0) {
+                ready.set(slot);
+            }
+        }
+        dependentIndex = new int[maxId + 2];
+        dependents = new int[edges];
+        for (int slot = 0; slot < end; slot++) {
+            for (Task parent : jobs[slot].getParentList()) {
+                if (!finished.get(parent.getCloudletId())) {
+                    dependentIndex[parent.getCloudletId() + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i <= maxId; i++) {
+            dependentIndex[i + 1] += dependentIndex[i];
+        }
+        int[] fill = Arrays.copyOf(dependentIndex, maxId + 1);
+        for (int slot = 0; slot < end; slot++) {
+            for (Task parent : jobs[slot].getParentList()) {
+                int id = parent.getCloudletId();
+                if (!finished.get(id)) {
+                    dependents[fill[id]++] = slot;
+                }
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Drops the holes. The slots move, so the counters must be computed again.
+     */
+    private void compact() {
+        if (end == size) {
+            return;
+        }
+        int to = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if (jobs[slot] != null) {
+                jobs[to++] = jobs[slot];
+            }
+        }
+        Arrays.fill(jobs, to, end, null);
+        end = to;
+        dirty = true;
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Makes room for one more slot at the end, dropping the holes first when
+     * they outnumber the jobs.
+     */
+    private void ensureRoom() {
+        if (end == jobs.length) {
+            if (end - size > size) {
+                compact();
+            } else {
+                jobs = Arrays.copyOf(jobs, Math.max(16, end * 2));
+            }
+        }
+    }
+
+    private void removeSlot(int slot) {
+        jobs[slot] = null;
+        ready.clear(slot);
+        size--;
+        modCount++;
+    }
+
+    private int skip(int slot) {
+        while (slot < end && jobs[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+}
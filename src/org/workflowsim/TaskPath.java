@@ -0,0 +1,45 @@
+package org.workflowsim;
+
+import java.util.List;
+
+/**
+ * A path of tasks from an entry task to an exit task, with the cost of running
+ * it. Paths sort from the most costly to the least costly.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public class TaskPath implements Comparable<TaskPath> {
+
+    private final List<Task> path;
+    private final double cost;
+
+    public TaskPath(List<Task> path, double cost) {
+        this.path = path;
+        this.cost = cost;
+    }
+
+    public List<Task> getPath() {
+        return path;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    @Override
+    public int compareTo(TaskPath o) {
+        return Double.compare(o.cost, cost);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (Task task : path) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(task.getCloudletId());
+        }
+        return builder.append("]=").append(cost).toString();
+    }
+}
@@ -0,0 +1,218 @@
+package org.workflowsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A topological order of a workflow, computed once with Kahn's algorithm in
+ * O(V + E): the tasks without parents come first, and a task follows all of
+ * its parents. The depth of each task, 1 for the tasks without parents and one
+ * more than the deepest parent for the others, and the width of each level are
+ * computed in the same pass.
+ *
+ * Only the dependencies between tasks of the list are followed; a parent that
+ * is not in the list is considered satisfied.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class TopologicalOrder {
+
+    /**
+     * The tasks, in the order they were given.
+     */
+    private final List<Task> tasks;
+    /**
+     * The index of each task in {@link #tasks}.
+     */
+    private final Map<Task, Integer> indexes;
+    /**
+     * The indexes of the tasks, in topological order.
+     */
+    private final int[] order;
+    /**
+     * The depth of each task.
+     */
+    private final int[] depths;
+    /**
+     * The tasks of each level, from level 1, in the order they were given.
+     */
+    private final List<List<Task>> levels;
+
+    /**
+     * Computes the topological order of a workflow.
+     *
+     * @param list the tasks of the workflow
+     * @throws IllegalArgumentException if the dependencies have a cycle
+     */
+    public TopologicalOrder(List<? extends Task> list) {
+        int size = list.size();
+        this.tasks = Collections.unmodifiableList(new ArrayList<>(list));
+        this.indexes = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            indexes.put(list.get(i), i);
+        }
+
+        int[] inDegrees = new int[size];
+        for (Task task : list) {
+            for (Task child : task.getChildList()) {
+                Integer c = indexes.get(child);
+                if (c != null) {
+                    inDegrees[c]++;
+                }
+            }
+        }
+
+        this.order = new int[size];
+        this.depths = new int[size];
+        int tail = 0;
+        for (int i = 0; i < size; i++) {
+            if (inDegrees[i] == 0) {
+                depths[i] = 1;
+                order[tail++] = i;
+            }
+        }
+        int maxDepth = 0;
+        for (int head = 0; head < tail; head++) {
+            int t = order[head];
+            maxDepth = Math.max(maxDepth, depths[t]);
+            for (Task child : list.get(t).getChildList()) {
+                Integer c = indexes.get(child);
+                if (c != null) {
+                    depths[c] = Math.max(depths[c], depths[t] + 1);
+                    if (--inDegrees[c] == 0) {
+                        order[tail++] = c;
+                    }
+                }
+            }
+        }
+        if (tail < size) {
+            throw new IllegalArgumentException("the workflow has a cycle through "
+                    + (size - tail) + " tasks");
+        }
+
+        this.levels = new ArrayList<>(maxDepth);
+        for (int d = 0; d < maxDepth; d++) {
+            levels.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            levels.get(depths[i] - 1).add(list.get(i));
+        }
+    }
+
+    /**
+     * Gets the number of tasks.
+     *
+     * @return the number of tasks
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Gets the tasks, in the order they were given.
+     *
+     * @return the tasks
+     */
+    public List<Task> getTaskList() {
+        return tasks;
+    }
+
+    /**
+     * Gets the tasks in topological order.
+     *
+     * @return a new list of the tasks, parents first
+     */
+    public List<Task> getOrderedTasks() {
+        List<Task> list = new ArrayList<>(order.length);
+        for (int t : order) {
+            list.add(tasks.get(t));
+        }
+        return list;
+    }
+
+    /**
+     * Gets the task at a position of the topological order.
+     *
+     * @param position the position
+     * @return the task
+     */
+    public Task get(int position) {
+        return tasks.get(order[position]);
+    }
+
+    /**
+     * Gets the index of a task in the list the order was computed from.
+     *
+     * @param task the task
+     * @return the index, or -1 if the task is not in the workflow
+     */
+    public int indexOf(Task task) {
+        Integer index = indexes.get(task);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the depth of a task.
+     *
+     * @param task the task
+     * @return the depth, or 0 if the task is not in the workflow
+     */
+    public int getDepth(Task task) {
+        Integer index = indexes.get(task);
+        return index == null ? 0 : depths[index];
+    }
+
+    /**
+     * Gets the depth of the deepest task.
+     *
+     * @return the maximum depth, 0 for an empty workflow
+     */
+    public int getMaxDepth() {
+        return levels.size();
+    }
+
+    /**
+     * Gets the tasks of a level.
+     *
+     * @param depth the depth of the level, from 1
+     * @return the tasks of the level, in the order they were given
+     */
+    public List<Task> getLevel(int depth) {
+        return Collections.unmodifiableList(levels.get(depth - 1));
+    }
+
+    /**
+     * Gets the number of tasks of a level.
+     *
+     * @param depth the depth of the level, from 1
+     * @return the width of the level
+     */
+    public int getLevelWidth(int depth) {
+        return levels.get(depth - 1).size();
+    }
+
+    /**
+     * Gets the number of tasks of each level.
+     *
+     * @return the widths, the first one for level 1
+     */
+    public int[] getLevelWidths() {
+        int[] widths = new int[levels.size()];
+        for (int d = 0; d < widths.length; d++) {
+            widths[d] = levels.get(d).size();
+        }
+        return widths;
+    }
+
+    /**
+     * Sets the depth of every task to the depth computed here.
+     */
+    public void assignDepths() {
+        for (int i = 0; i < depths.length; i++) {
+            tasks.get(i).setDepth(depths[i]);
+        }
+    }
+}
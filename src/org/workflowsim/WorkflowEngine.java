@@ -27,8 +27,11 @@ import org.fog.entities.FogBroker;
 import org.fog.entities.OffloadingEngine;
 import org.fog.utils.FogEvents;
 import org.workflowsim.reclustering.ReclusteringEngine;
+import org.workflowsim.scheduling.FitnessEvaluator;
 import org.workflowsim.scheduling.GASchedulingAlgorithm;
+import org.workflowsim.scheduling.PopulationEvaluator;
 import org.workflowsim.scheduling.PsoScheduling;
+import org.workflowsim.scheduling.ScheduleEvaluator;
 import org.workflowsim.utils.Parameters;
 
 import java.util.*;
@@ -47,7 +50,7 @@ public class WorkflowEngine extends SimEntity {
     /**
      * The job list.
      */
-    protected List<? extends Cloudlet> jobsList;
+    protected PendingJobList jobsList;
     public static double[] fitness;
     public static double[] fitness2;
     public static int index1 = 0;
@@ -70,6 +73,34 @@ public class WorkflowEngine extends SimEntity {
     public static ArrayList<Double> updatebest = new ArrayList<>();
     public static List<Long> offloadingTimes = new ArrayList<>();
 
+    /**
+     * Scores the GA and PSO populations in parallel; when null, every candidate
+     * is replayed one after the other in this simulation.
+     */
+    private static PopulationEvaluator populationEvaluator;
+    /**
+     * Whether the GA and PSO populations are scored analytically with a
+     * {@link ScheduleEvaluator} instead of being replayed.
+     */
+    private static boolean analyticFitness = false;
+    /**
+     * One in every fitnessVerificationInterval analytic scores is checked
+     * against a replay by the population evaluator; 0 disables the check.
+     */
+    private static int fitnessVerificationInterval = 0;
+    /**
+     * The analytic evaluator of the last search, or null.
+     */
+    private static ScheduleEvaluator scheduleEvaluator;
+    /**
+     * The schedule replayed by a replica of a population evaluator, or null.
+     */
+    private static int[] replaySchedule;
+    /**
+     * The time, energy and cost of the replayed schedule.
+     */
+    private static double[] replayResult;
+
     /**
      * The job submitted list.
      */
@@ -199,6 +230,10 @@ public class WorkflowEngine extends SimEntity {
                 submitJobs();
                 break;
             case CloudSimTags.CLOUDLET_RETURN:
+                if (isReplaying()) {
+                    processJobReturnForReplay(ev);
+                    break;
+                }
                 switch (Parameters.getSchedulingAlgorithm()) {
                     case PSO:
                         try {
@@ -305,7 +340,7 @@ public class WorkflowEngine extends SimEntity {
             getJobsList().addAll(ReclusteringEngine.process(job, newId));
         }
 
-        getJobsReceivedList().add(job);
+        addReceivedJob(job);
         jobsSubmitted--;
         if (getJobsList().isEmpty() && jobsSubmitted == 0) {
             //send msg to all the schedulers
@@ -331,15 +366,19 @@ public class WorkflowEngine extends SimEntity {
         Job job = (Job) ev.getData();
         if (job.getCloudletStatus() == Cloudlet.FAILED) {
             // Reclusteringengine will add retry job to jobList
-            System.out.println("failed");
+            Log.debug(() -> "Job #" + job.getCloudletId() + " failed");
             int newId = getJobsList().size() + getJobsSubmittedList().size();
             getJobsList().addAll(ReclusteringEngine.process(job, newId));
         }
-        getJobsReceivedList().add(job);
+        addReceivedJob(job);
         jobsSubmitted--;
 
         if (getJobsList().isEmpty() && jobsSubmitted == 0) {
             //System.out.println("-------------------------------------------");
+            if (isBatchSearch() && startlastSchedule == 0) {
+                searchPSO();
+                return;
+            }
             if (index1 != PsoScheduling.particleNum) {
                 already = 1;
                 //处理完了一个粒子（初始化得到的粒子 ）
@@ -354,14 +393,7 @@ public class WorkflowEngine extends SimEntity {
                 sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
             } else if (indexForUpdate != PsoScheduling.particleNum) {
                 //处理完了所有的初始化得到的粒子,并且处理完了一个粒子（update后得到的粒子 ）
-                int gbestIndex = 0;
-                for (int i = 0; i < index1; i++) {
-                    if (fitness[i] < PsoScheduling.gbest_fitness) {
-                        PsoScheduling.gbest_fitness = fitness[i];
-                        gbestIndex = i;
-                    }
-                }
-                PsoScheduling.gbest_schedule = PsoScheduling.pbest_schedule.get(gbestIndex);//更新全局最优的调度方案
+                updateGbestForPSO();
 
                 FogBroker.count2++;
                 fitness2[indexForUpdate++] = caculatefitness();
@@ -373,31 +405,7 @@ public class WorkflowEngine extends SimEntity {
             if (index1 == PsoScheduling.particleNum && indexForUpdate == PsoScheduling.particleNum) {
                 //处理完了所有的初始化得到的粒子、update后得到的粒子
                 if (PsoScheduling.iterateNum > iterateNum) {
-                    for (int i = 0; i < PsoScheduling.particleNum; i++) {
-                        //更新个体最优
-                        if (fitness[i] > fitness2[i]) {
-                            int[] schedule1 = PsoScheduling.pbest_schedule.get(i);
-                            int[] schedule2 = PsoScheduling.newSchedules.get(i);
-                            for (int j = 0; j < schedule1.length; j++)
-                                schedule1[j] = schedule2[j];
-                            PsoScheduling.pbest_fitness[i] = fitness2[i];
-                        } else
-                            PsoScheduling.pbest_fitness[i] = fitness[i];
-                    }
-                    fitness = PsoScheduling.pbest_fitness;
-                    for (int i = 0; i < PsoScheduling.particleNum; i++) {  //更新全局最优
-                        if (PsoScheduling.pbest_fitness[i] < PsoScheduling.gbest_fitness) {
-                            //index1=i;
-                            PsoScheduling.gbest_fitness = PsoScheduling.pbest_fitness[i];
-                            PsoScheduling.gbest_schedule = PsoScheduling.pbest_schedule.get(i);
-                        }
-                    }
-                    iterateNum++;
-                    System.out.println("After " + iterateNum + " iterations:");
-                    System.out.println("======gbest_fitness:========" + PsoScheduling.gbest_fitness);
-                    updatebest.add(PsoScheduling.gbest_fitness);
-//	              	printindicators(PsoScheduling.gbest_fitness);
-
+                    updateBestsForPSO();
                     if (PsoScheduling.iterateNum != iterateNum) {
                         indexForUpdate = 0;
                         FogBroker.count2 = 0;
@@ -417,16 +425,7 @@ public class WorkflowEngine extends SimEntity {
                 }
             }
             if (PsoScheduling.iterateNum == iterateNum && startlastSchedule == 0) {
-                for (int i = 0; i < PsoScheduling.particleNum; i++) {
-                    if (PsoScheduling.pbest_fitness[i] == PsoScheduling.gbest_fitness) {
-                        PsoScheduling.gbest_schedule = PsoScheduling.pbest_schedule.get(i);
-                    }
-                }
-                //记录pso结束时间
-                endTime = System.currentTimeMillis();
-                algorithmTime = endTime - getScheduler(0).startTime;
-
-                startlastSchedule = 1;
+                finishPSO();
                 caculatefitness();
                 init();
                 //sendNow(this.getSchedulerId(0), CloudSimTags.CLOUDLET_SUBMIT, submittedList);
@@ -440,17 +439,137 @@ public class WorkflowEngine extends SimEntity {
 //    	sendNow(getcontrollerId(), FogEvents.STOP_SIMULATION,null);
     }
 
+    /**
+     * Scores every particle of every iteration with the search evaluator,
+     * following the same steps as the candidate by candidate flow of
+     * {@link #processJobReturnForPSO(SimEvent)}, then replays the best schedule.
+     *
+     * @throws Exception if the population cannot be evaluated
+     */
+    private void searchPSO() throws Exception {
+        already = 1;
+        FitnessEvaluator evaluator = getSearchEvaluator();
+        double[][] results = evaluator.evaluate(PsoScheduling.schedules);
+        for (int i = 0; i < PsoScheduling.particleNum; i++) {
+            fitness[i] = caculatefitness(results[i]);
+        }
+        index1 = PsoScheduling.particleNum;
+        FogBroker.count = PsoScheduling.particleNum;
+        updateFlag = 1;
+        while (PsoScheduling.iterateNum > iterateNum) {
+            PsoScheduling.updateParticles();
+            results = evaluator.evaluate(PsoScheduling.newSchedules);
+            for (int i = 0; i < PsoScheduling.particleNum; i++) {
+                updateGbestForPSO();
+                fitness2[i] = caculatefitness(results[i]);
+            }
+            indexForUpdate = PsoScheduling.particleNum;
+            FogBroker.count2 = PsoScheduling.particleNum;
+            updateBestsForPSO();
+            if (PsoScheduling.iterateNum != iterateNum) {
+                indexForUpdate = 0;
+                FogBroker.count2 = 0;
+                PsoScheduling.newSchedules.clear();
+            }
+        }
+        finishPSO();
+        init();
+        sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
+    }
+
+    /**
+     * Takes the best of the initial particles as the global best.
+     */
+    private void updateGbestForPSO() {
+        int gbestIndex = 0;
+        for (int i = 0; i < index1; i++) {
+            if (fitness[i] < PsoScheduling.gbest_fitness) {
+                PsoScheduling.gbest_fitness = fitness[i];
+                gbestIndex = i;
+            }
+        }
+        PsoScheduling.gbest_schedule = PsoScheduling.pbest_schedule.get(gbestIndex);//更新全局最优的调度方案
+    }
+
+    /**
+     * Updates the personal and global bests once all the updated particles are
+     * scored, and ends the iteration.
+     */
+    private void updateBestsForPSO() {
+        for (int i = 0; i < PsoScheduling.particleNum; i++) {
+            //更新个体最优
+            if (fitness[i] > fitness2[i]) {
+                int[] schedule1 = PsoScheduling.pbest_schedule.get(i);
+                int[] schedule2 = PsoScheduling.newSchedules.get(i);
+                for (int j = 0; j < schedule1.length; j++)
+                    schedule1[j] = schedule2[j];
+                PsoScheduling.pbest_fitness[i] = fitness2[i];
+            } else
+                PsoScheduling.pbest_fitness[i] = fitness[i];
+        }
+        fitness = PsoScheduling.pbest_fitness;
+        for (int i = 0; i < PsoScheduling.particleNum; i++) {  //更新全局最优
+            if (PsoScheduling.pbest_fitness[i] < PsoScheduling.gbest_fitness) {
+                //index1=i;
+                PsoScheduling.gbest_fitness = PsoScheduling.pbest_fitness[i];
+                PsoScheduling.gbest_schedule = PsoScheduling.pbest_schedule.get(i);
+            }
+        }
+        iterateNum++;
+        System.out.println("After " + iterateNum + " iterations:");
+        System.out.println("======gbest_fitness:========" + PsoScheduling.gbest_fitness);
+        updatebest.add(PsoScheduling.gbest_fitness);
+//	    printindicators(PsoScheduling.gbest_fitness);
+    }
+
+    /**
+     * Picks the final schedule once all the iterations are done.
+     */
+    private void finishPSO() {
+        for (int i = 0; i < PsoScheduling.particleNum; i++) {
+            if (PsoScheduling.pbest_fitness[i] == PsoScheduling.gbest_fitness) {
+                PsoScheduling.gbest_schedule = PsoScheduling.pbest_schedule.get(i);
+            }
+        }
+        //记录pso结束时间
+        endTime = System.currentTimeMillis();
+        algorithmTime = endTime - getScheduler(0).startTime;
+
+        startlastSchedule = 1;
+    }
+
     public double caculatefitness() {
         Controller controller = (Controller) CloudSim.getEntity(this.getcontrollerId());
         controller.updateExecutionTime();
-        double energy = controller.TotalEnergy;  //单位J焦
-        double time = controller.TotalExecutionTime;
-        double cost = controller.TotalCost;
 //    	System.out.println("controller.time = "+controller.TotalExecutionTime);
 //    	System.out.println("------------------------------------------------------------------");
 //    	System.out.println("clock = "+CloudSim.clock());
 //    	System.out.println("------------------------------------------------------------------");
 
+        return caculatefitness(controller.TotalExecutionTime, controller.TotalEnergy, controller.TotalCost);
+    }
+
+    /**
+     * Computes the fitness of a candidate scored by the population evaluator.
+     *
+     * @param indicators the time, energy and cost of the candidate
+     * @return the fitness
+     */
+    private double caculatefitness(double[] indicators) {
+        return caculatefitness(indicators[0], indicators[1], indicators[2]);
+    }
+
+    /**
+     * Computes the fitness of a candidate from its time, energy and cost: the
+     * energy and the cost are penalized past the deadline, and the value of the
+     * optimization objective is returned.
+     *
+     * @param time the execution time
+     * @param energy the energy consumption (J)
+     * @param cost the cost
+     * @return the fitness
+     */
+    public double caculatefitness(double time, double energy, double cost) {
         if (time > DeadLine) {
             energy = 10 * energy * (time / DeadLine);
             cost = 10 * cost * (time / DeadLine);
@@ -550,9 +669,13 @@ public class WorkflowEngine extends SimEntity {
             int newId = getJobsList().size() + getJobsSubmittedList().size();
             getJobsList().addAll(ReclusteringEngine.process(job, newId));
         }
-        getJobsReceivedList().add(job);
+        addReceivedJob(job);
         jobsSubmitted--;
         if (getJobsList().isEmpty() && jobsSubmitted == 0) {
+            if (isBatchSearch() && findBestSchedule == 0) {
+                searchGA();
+                return;
+            }
             if (findBestSchedule == 1) {
                 //按照最优调度方案去执行的结果，然后结束本次仿真
                 getController().updateExecutionTime();
@@ -565,26 +688,7 @@ public class WorkflowEngine extends SimEntity {
                 fitnessForGA[initIndexForGA++] = caculatefitness();
                 init();
                 if (initIndexForGA == GASchedulingAlgorithm.popsize) {
-                    gaFlag = 1;
-                    gaFlag2 = 0;
-                    double totalFitness = 0;
-                    double bestFitness = Double.MAX_VALUE;
-                    int bestIndex = 0;
-                    for (int i = 0; i < fitnessForGA.length; i++) {
-                        totalFitness += fitnessForGA[i];
-                        if (bestFitness > fitnessForGA[i]) {
-                            bestFitness = fitnessForGA[i];
-                            bestIndex = i;
-                        }
-                    }
-                    GASchedulingAlgorithm.bestParent = GASchedulingAlgorithm.schedules.get(bestIndex);//父代中最好的染色体
-                    GASchedulingAlgorithm.bestParentFitness = bestFitness;//父代中最好的适应度值
-                    GASchedulingAlgorithm.gbestSchedule = GASchedulingAlgorithm.bestParent;
-//          			System.out.println("=======================================================第"+iterateNum+"次迭代前的最优适应度值bestFitness为："+bestFitness);
-                    updatebest.add(bestFitness);
-                    for (int i = 0; i < fitnessForGA.length; i++)
-                        GASchedulingAlgorithm.probs.put(i, fitnessForGA[i] / totalFitness);//每个染色体被选中的概率
-                    GASchedulingAlgorithm.getSegments();
+                    rankParentsForGA();
                     init();
                 }
                 sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
@@ -593,24 +697,7 @@ public class WorkflowEngine extends SimEntity {
                 fitnessForGATempChildren[tempChildrenIndex++] = caculatefitness();
                 FogBroker.tempChildrenIndex++;
                 if (tempChildrenIndex == 4) {
-                    gaFlag2 = 0;
-                    tempChildrenIndex = 0;
-                    FogBroker.tempChildrenIndex = 0;
-                    if (fitnessForGATempChildren[0] < fitnessForGATempChildren[1]) {
-                        GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[0]);
-                        GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(0));
-                    } else {
-                        GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[1]);
-                        GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(1));
-                    }
-                    if (fitnessForGATempChildren[2] < fitnessForGATempChildren[3]) {
-                        GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[2]);
-                        GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(2));
-                    } else {
-                        GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[3]);
-                        GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(3));
-                    }
-                    GASchedulingAlgorithm.tempChildren.removeAll(GASchedulingAlgorithm.tempChildren);
+                    selectChildrenForGA();
                 }
                 if (GASchedulingAlgorithm.children.size() != GASchedulingAlgorithm.popsize) {
                     init();
@@ -618,49 +705,11 @@ public class WorkflowEngine extends SimEntity {
                 } else if (findBestSchedule == 0) {
                     //完成了一次进化
                     if (GASchedulingAlgorithm.gmax != iterateNum) {
-                        double bestFitness = Double.MAX_VALUE;//子代中最好的适应度值
-                        double worstFitness = 0;//子代中最坏的适应度值
-                        int worstIndex = 0;
-                        for (int i = 0; i < GASchedulingAlgorithm.fitness.size(); i++) {
-                            if (bestFitness > GASchedulingAlgorithm.fitness.get(i))
-                                bestFitness = GASchedulingAlgorithm.fitness.get(i);
-                            if (worstFitness < GASchedulingAlgorithm.fitness.get(i)) {
-                                worstFitness = GASchedulingAlgorithm.fitness.get(i);
-                                worstIndex = i;
-                            }
-                        }
-                        iterateNum++;
-                        GASchedulingAlgorithm.fitness.removeAll(GASchedulingAlgorithm.fitness);
-                        GASchedulingAlgorithm.schedules.removeAll(GASchedulingAlgorithm.schedules);
-                        GASchedulingAlgorithm.probSegments = new HashMap<Integer, double[]>();
-                        GASchedulingAlgorithm.probs = new HashMap<Integer, Double>();
-                        GASchedulingAlgorithm.tempParents.removeAll(GASchedulingAlgorithm.tempParents);
-                        for (int i = 0; i < GASchedulingAlgorithm.children.size(); i++) {
-                            if (i == worstIndex)
-                                //用父代中最好的染色体替换掉子代中最差的染色体
-                                GASchedulingAlgorithm.schedules.add(GASchedulingAlgorithm.bestParent);
-                            else
-                                GASchedulingAlgorithm.schedules.add(GASchedulingAlgorithm.children.get(i));
-                        }
-                        GASchedulingAlgorithm.children.removeAll(GASchedulingAlgorithm.children);
-                        /*
-                         * 重置参数，以便执行下一次迭代
-                         * （进化前，需要计算每个染色体被选中的概率，故设置了这些参数）
-                         */
-                        initIndexForGA = 0;
-                        FogBroker.initIndexForGA = 0;
-                        tempChildrenIndex = 0;
-                        FogBroker.tempChildrenIndex = 0;
-                        gaFlag = 0;
-                        gaFlag2 = 0;
+                        nextGenerationForGA();
                         init();
                         sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
                     } else {
-                        //记录ga结束时间
-                        endTime = System.currentTimeMillis();
-                        algorithmTime = endTime - getScheduler(0).startTime;
-//      					System.out.println("*************************************************************************按照最优调度方案执行");
-                        findBestSchedule = 1;//去按照最优的调度方案执行
+                        finishGA();
                         init();
                         sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
                     }
@@ -672,6 +721,177 @@ public class WorkflowEngine extends SimEntity {
         }
     }
 
+    /**
+     * Scores every chromosome of every generation with the search evaluator, following the same steps as the candidate by candidate flow of
+     * {@link #processJobReturnForGA(SimEvent)}, then replays the best schedule.
+     * The children of one crossover are scored together, since the mutation of
+     * the next crossover depends on which of them were selected.
+     *
+     * @throws Exception if the population cannot be evaluated
+     */
+    private void searchGA() throws Exception {
+        already = 1;
+        FitnessEvaluator evaluator = getSearchEvaluator();
+        while (true) {
+            double[][] results = evaluator.evaluate(GASchedulingAlgorithm.schedules);
+            for (int i = 0; i < GASchedulingAlgorithm.popsize; i++) {
+                fitnessForGA[i] = caculatefitness(results[i]);
+            }
+            initIndexForGA = GASchedulingAlgorithm.popsize;
+            FogBroker.initIndexForGA = GASchedulingAlgorithm.popsize;
+            rankParentsForGA();
+            while (GASchedulingAlgorithm.children.size() < GASchedulingAlgorithm.popsize) {
+                GASchedulingAlgorithm.GA();
+                results = evaluator.evaluate(GASchedulingAlgorithm.tempChildren);
+                for (int i = 0; i < fitnessForGATempChildren.length; i++) {
+                    fitnessForGATempChildren[i] = caculatefitness(results[i]);
+                }
+                selectChildrenForGA();
+            }
+            if (GASchedulingAlgorithm.gmax == iterateNum) {
+                break;
+            }
+            nextGenerationForGA();
+        }
+        finishGA();
+        init();
+        sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
+    }
+
+    /**
+     * Computes the selection probabilities once all the chromosomes of the
+     * population are scored.
+     */
+    private void rankParentsForGA() {
+        gaFlag = 1;
+        gaFlag2 = 0;
+        double totalFitness = 0;
+        double bestFitness = Double.MAX_VALUE;
+        int bestIndex = 0;
+        for (int i = 0; i < fitnessForGA.length; i++) {
+            totalFitness += fitnessForGA[i];
+            if (bestFitness > fitnessForGA[i]) {
+                bestFitness = fitnessForGA[i];
+                bestIndex = i;
+            }
+        }
+        GASchedulingAlgorithm.bestParent = GASchedulingAlgorithm.schedules.get(bestIndex);//父代中最好的染色体
+        GASchedulingAlgorithm.bestParentFitness = bestFitness;//父代中最好的适应度值
+        GASchedulingAlgorithm.gbestSchedule = GASchedulingAlgorithm.bestParent;
+//      System.out.println("=======================================================第"+iterateNum+"次迭代前的最优适应度值bestFitness为："+bestFitness);
+        updatebest.add(bestFitness);
+        for (int i = 0; i < fitnessForGA.length; i++)
+            GASchedulingAlgorithm.probs.put(i, fitnessForGA[i] / totalFitness);//每个染色体被选中的概率
+        GASchedulingAlgorithm.getSegments();
+    }
+
+    /**
+     * Keeps the better of each pair of children once the four children of a
+     * crossover are scored.
+     */
+    private void selectChildrenForGA() {
+        gaFlag2 = 0;
+        tempChildrenIndex = 0;
+        FogBroker.tempChildrenIndex = 0;
+        if (fitnessForGATempChildren[0] < fitnessForGATempChildren[1]) {
+            GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[0]);
+            GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(0));
+        } else {
+            GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[1]);
+            GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(1));
+        }
+        if (fitnessForGATempChildren[2] < fitnessForGATempChildren[3]) {
+            GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[2]);
+            GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(2));
+        } else {
+            GASchedulingAlgorithm.fitness.add(fitnessForGATempChildren[3]);
+            GASchedulingAlgorithm.children.add(GASchedulingAlgorithm.tempChildren.get(3));
+        }
+        GASchedulingAlgorithm.tempChildren.removeAll(GASchedulingAlgorithm.tempChildren);
+    }
+
+    /**
+     * Replaces the population with its children, the worst child giving way to
+     * the best parent, and starts the next generation.
+     */
+    private void nextGenerationForGA() {
+        double bestFitness = Double.MAX_VALUE;//子代中最好的适应度值
+        double worstFitness = 0;//子代中最坏的适应度值
+        int worstIndex = 0;
+        for (int i = 0; i < GASchedulingAlgorithm.fitness.size(); i++) {
+            if (bestFitness > GASchedulingAlgorithm.fitness.get(i))
+                bestFitness = GASchedulingAlgorithm.fitness.get(i);
+            if (worstFitness < GASchedulingAlgorithm.fitness.get(i)) {
+                worstFitness = GASchedulingAlgorithm.fitness.get(i);
+                worstIndex = i;
+            }
+        }
+        iterateNum++;
+        GASchedulingAlgorithm.fitness.removeAll(GASchedulingAlgorithm.fitness);
+        GASchedulingAlgorithm.schedules.removeAll(GASchedulingAlgorithm.schedules);
+        GASchedulingAlgorithm.probSegments = new HashMap<Integer, double[]>();
+        GASchedulingAlgorithm.probs = new HashMap<Integer, Double>();
+        GASchedulingAlgorithm.tempParents.removeAll(GASchedulingAlgorithm.tempParents);
+        for (int i = 0; i < GASchedulingAlgorithm.children.size(); i++) {
+            if (i == worstIndex)
+                //用父代中最好的染色体替换掉子代中最差的染色体
+                GASchedulingAlgorithm.schedules.add(GASchedulingAlgorithm.bestParent);
+            else
+                GASchedulingAlgorithm.schedules.add(GASchedulingAlgorithm.children.get(i));
+        }
+        GASchedulingAlgorithm.children.removeAll(GASchedulingAlgorithm.children);
+        /*
+         * 重置参数，以便执行下一次迭代
+         * （进化前，需要计算每个染色体被选中的概率，故设置了这些参数）
+         */
+        initIndexForGA = 0;
+        FogBroker.initIndexForGA = 0;
+        tempChildrenIndex = 0;
+        FogBroker.tempChildrenIndex = 0;
+        gaFlag = 0;
+        gaFlag2 = 0;
+    }
+
+    /**
+     * Records the end of the search; the next run replays the best schedule.
+     */
+    private void finishGA() {
+        //记录ga结束时间
+        endTime = System.currentTimeMillis();
+        algorithmTime = endTime - getScheduler(0).startTime;
+//      System.out.println("*************************************************************************按照最优调度方案执行");
+        findBestSchedule = 1;//去按照最优的调度方案执行
+    }
+
+    /**
+     * Process a job return event while a replica of a population evaluator
+     * replays a schedule: once all the jobs are back, the time, energy and cost
+     * of the schedule are recorded and the simulation ends.
+     *
+     * @param ev a SimEvent object
+     * @throws Exception
+     */
+    protected void processJobReturnForReplay(SimEvent ev) {
+        Job job = (Job) ev.getData();
+        if (job.getCloudletStatus() == Cloudlet.FAILED) {
+            // Reclusteringengine will add retry job to jobList
+            int newId = getJobsList().size() + getJobsSubmittedList().size();
+            getJobsList().addAll(ReclusteringEngine.process(job, newId));
+        }
+        addReceivedJob(job);
+        jobsSubmitted--;
+        if (getJobsList().isEmpty() && jobsSubmitted == 0) {
+            Controller controller = getController();
+            controller.updateExecutionTime();
+            replayResult = new double[]{controller.TotalExecutionTime, controller.TotalEnergy, controller.TotalCost};
+            for (int i = 0; i < getSchedulerIds().size(); i++) {
+                sendNow(getSchedulerId(i), CloudSimTags.END_OF_SIMULATION, null);
+            }
+        } else {
+            sendNow(this.getId(), CloudSimTags.CLOUDLET_SUBMIT, null);
+        }
+    }
+
     /**
      * Overrides this method when making a new and different type of Broker.
      * This method is called by {@link #processEvent(SimEvent)} for incoming unknown tags.
@@ -687,22 +907,6 @@ public class WorkflowEngine extends SimEntity {
                 + "Error - event unknown by this DatacenterBroker.");
     }
 
-    /**
-     * Checks whether a job list contains a id
-     *
-     * @param jobList the job list
-     * @param id the job id
-     * @return
-     */
-    private boolean hasJobListContainsID(List<Job> jobList, int id) {
-        for (Job job : jobList) {
-            if (job.getCloudletId() == id) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Submit jobs to the created VMs.
      *
@@ -710,44 +914,20 @@ public class WorkflowEngine extends SimEntity {
      * @post $none
      */
     protected void submitJobs() {
-        List<Job> list = getJobsList();
         Map<Integer, List> allocationList = new HashMap<>();
         for (int i = 0; i < getSchedulers().size(); i++) {
             List<Job> submittedList = new ArrayList<>();
             allocationList.put(getSchedulerId(i), submittedList);
         }
-        int num = list.size();
-        for (int i = 0; i < num; i++) {
-            //at the beginning
-            Job job = list.get(i);
-            //Dont use job.isFinished() it is not right
-
-            if (!hasJobListContainsID(this.getJobsReceivedList(), job.getCloudletId())) {
-                //如果这个工作尚未提交，就检查它的父任务是否全部都已经提交
-                List<Task> parentList = job.getParentList();
-                boolean flag = true;
-                for (Task parent : parentList) {
-                    if (!hasJobListContainsID(this.getJobsReceivedList(), parent.getCloudletId())) {
-                        flag = false;
-                        break;
-                    }
-                }
-                /**
-                 * This job's parents have all completed successfully. Should
-                 * submit.如果这个未提交的任务的父任务都已经提交，那么就提交这个任务
-                 */
-                if (flag) {
-
-                    List submittedList = allocationList.get(job.getUserId());
-                    submittedList.add(job);
-                    jobsSubmitted++;
-                    getJobsSubmittedList().add(job);
-                    list.remove(job);
-                    i--;
-                    num--;
-                }
-            }
-
+        /**
+         * The jobs whose parents have all completed successfully, in the
+         * order of the job list.
+         */
+        for (Job job : jobsList.takeReady(getJobsReceivedList())) {
+            List submittedList = allocationList.get(job.getUserId());
+            submittedList.add(job);
+            jobsSubmitted++;
+            getJobsSubmittedList().add(job);
         }
         /**
          * If we have multiple schedulers. Divide them equally.
@@ -824,7 +1004,7 @@ public class WorkflowEngine extends SimEntity {
      * @param jobsList the new job list
      */
     private <T extends Cloudlet> void setJobsList(List<T> jobsList) {
-        this.jobsList = jobsList;
+        this.jobsList = new PendingJobList(jobsList);
     }
 
     /**
@@ -859,6 +1039,17 @@ public class WorkflowEngine extends SimEntity {
         return (List<T>) jobsReceivedList;
     }
 
+    /**
+     * Adds a returned job to the job received list, and to the indicators the
+     * controller keeps.
+     *
+     * @param job the job
+     */
+    private void addReceivedJob(Job job) {
+        getJobsReceivedList().add(job);
+        getController().processJobReturn(job);
+    }
+
     /**
      * Sets the job received list.
      *
@@ -982,7 +1173,102 @@ public class WorkflowEngine extends SimEntity {
         return sum / offloadingTimes.size();
     }
 
+    /**
+     * Sets the evaluator scoring the GA and PSO populations in parallel.
+     *
+     * @param evaluator the evaluator, or null to score the candidates one by one
+     */
+    public static void setPopulationEvaluator(PopulationEvaluator evaluator) {
+        populationEvaluator = evaluator;
+    }
+
+    public static PopulationEvaluator getPopulationEvaluator() {
+        return populationEvaluator;
+    }
+
+    /**
+     * Scores the GA and PSO populations analytically. When a population
+     * evaluator is set as well, it replays one in every verificationInterval
+     * candidates to check the analytic scores.
+     *
+     * @param analytic whether the populations are scored analytically
+     * @param verificationInterval one in every verificationInterval candidates
+     *                             is replayed, or 0 to replay none
+     */
+    public static void setAnalyticFitness(boolean analytic, int verificationInterval) {
+        analyticFitness = analytic;
+        fitnessVerificationInterval = verificationInterval;
+    }
+
+    public static boolean isAnalyticFitness() {
+        return analyticFitness;
+    }
+
+    /**
+     * Gets the analytic evaluator of the last search, which holds the
+     * verification results.
+     *
+     * @return the evaluator, or null if the last search did not use one
+     */
+    public static ScheduleEvaluator getScheduleEvaluator() {
+        return scheduleEvaluator;
+    }
+
+    /**
+     * Whether the GA and PSO candidates are scored in batches rather than run
+     * one after the other in this simulation.
+     */
+    private static boolean isBatchSearch() {
+        return analyticFitness || populationEvaluator != null;
+    }
+
+    /**
+     * Gets the evaluator of a GA or PSO search, once the first candidate has
+     * run and the jobs are known.
+     */
+    private FitnessEvaluator getSearchEvaluator() {
+        if (!analyticFitness) {
+            return populationEvaluator;
+        }
+        scheduleEvaluator = ScheduleEvaluator.create(this,
+                Parameters.getSchedulingAlgorithm() == Parameters.SchedulingAlgorithm.GA);
+        if (populationEvaluator != null && fitnessVerificationInterval > 0) {
+            scheduleEvaluator.setVerification(populationEvaluator, fitnessVerificationInterval);
+        }
+        return scheduleEvaluator;
+    }
+
+    /**
+     * Makes this simulation replay a fixed schedule instead of running a
+     * scheduling algorithm. Used by the replicas of a population evaluator.
+     *
+     * @param schedule the job to VM assignment
+     */
+    public static void startReplay(int[] schedule) {
+        replaySchedule = schedule;
+        replayResult = null;
+    }
+
+    public static boolean isReplaying() {
+        return replaySchedule != null;
+    }
+
+    public static int[] getReplaySchedule() {
+        return replaySchedule;
+    }
+
+    /**
+     * Gets the time, energy and cost of the replayed schedule.
+     *
+     * @return the result, or null if the replay has not finished
+     */
+    public static double[] getReplayResult() {
+        return replayResult;
+    }
+
     public static void clearFlag() {
+        replaySchedule = null;
+        replayResult = null;
         jobList.removeAll(jobList);
         offloadingTimes.clear();
         startlastSchedule = 0;
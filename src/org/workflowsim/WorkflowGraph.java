@@ -0,0 +1,340 @@
+package org.workflowsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.workflowsim.utils.Parameters.FileType;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * A workflow read from one DAX, kept in primitive arrays: the tasks are
+ * indexed from 0 in the order of the DAX, the file names are interned, and the
+ * file references and dependencies are stored in flat arrays. The
+ * {@link Task} objects the rest of WorkflowSim works with are only created
+ * when {@link #getTasks()} is first called.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class WorkflowGraph {
+
+    private static final FileType[] FILE_TYPES = FileType.values();
+
+    /**
+     * The cloudlet id of the first task.
+     */
+    private final int firstId;
+    /**
+     * The user id of the tasks.
+     */
+    private final int userId;
+    /**
+     * The sending and receiving latency of the tasks.
+     */
+    private final double latency;
+
+    private int size;
+    private long[] lengths = new long[64];
+    private String[] types = new String[64];
+    private int[] depths;
+    /**
+     * The task indexes in topological order, and the number of tasks of each
+     * level from level 1.
+     */
+    private int[] order;
+    private int[] levelWidths;
+
+    /**
+     * The files of task i are the references fileIndex[i] to fileIndex[i + 1] - 1.
+     */
+    private int[] fileIndex = new int[65];
+    private int fileRefCount;
+    private int[] fileRefs = new int[256];
+    private double[] fileSizes = new double[256];
+    private byte[] fileTypes = new byte[256];
+
+    /**
+     * The interned file names.
+     */
+    private String[] fileNames = new String[256];
+    private int fileNameCount;
+    private Map<String, Integer> fileIds = new HashMap<>();
+
+    /**
+     * The dependencies, in the order of the DAX.
+     */
+    private int edgeCount;
+    private int[] edgeParents = new int[256];
+    private int[] edgeChildren = new int[256];
+    private double[] edgeCosts = new double[256];
+
+    /**
+     * The tasks, once created.
+     */
+    private List<Task> tasks;
+
+    /**
+     * Creates an empty workflow.
+     *
+     * @param firstId the cloudlet id of the first task
+     * @param userId the user id of the tasks
+     * @param latency the sending and receiving latency of the tasks
+     */
+    WorkflowGraph(int firstId, int userId, double latency) {
+        this.firstId = firstId;
+        this.userId = userId;
+        this.latency = latency;
+    }
+
+    /**
+     * Adds a task. The files added next belong to it.
+     *
+     * @param type the type of the task
+     * @param length the length of the task
+     * @return the index of the task
+     */
+    int addTask(String type, long length) {
+        if (size == lengths.length) {
+            lengths = Arrays.copyOf(lengths, size * 2);
+            types = Arrays.copyOf(types, size * 2);
+            fileIndex = Arrays.copyOf(fileIndex, size * 2 + 1);
+        }
+        lengths[size] = length;
+        types[size] = type;
+        size++;
+        fileIndex[size] = fileRefCount;
+        return size - 1;
+    }
+
+    /**
+     * Adds a file to the last task.
+     *
+     * @param name the file name
+     * @param size the file size
+     * @param type the file type
+     */
+    void addFile(String name, double size, FileType type) {
+        if (fileRefCount == fileRefs.length) {
+            fileRefs = Arrays.copyOf(fileRefs, fileRefCount * 2);
+            fileSizes = Arrays.copyOf(fileSizes, fileRefCount * 2);
+            fileTypes = Arrays.copyOf(fileTypes, fileRefCount * 2);
+        }
+        Integer id = fileIds.get(name);
+        if (id == null) {
+            if (fileNameCount == fileNames.length) {
+                fileNames = Arrays.copyOf(fileNames, fileNameCount * 2);
+            }
+            id = fileNameCount;
+            fileNames[fileNameCount++] = name;
+            fileIds.put(name, id);
+        }
+        fileRefs[fileRefCount] = id;
+        fileSizes[fileRefCount] = size;
+        fileTypes[fileRefCount] = (byte) type.ordinal();
+        fileRefCount++;
+        fileIndex[this.size] = fileRefCount;
+    }
+
+    /**
+     * Adds a dependency.
+     *
+     * @param parent the index of the parent
+     * @param child the index of the child
+     * @param transferCost the cost of the transfer from the parent to the child
+     */
+    void addEdge(int parent, int child, double transferCost) {
+        if (edgeCount == edgeParents.length) {
+            edgeParents = Arrays.copyOf(edgeParents, edgeCount * 2);
+            edgeChildren = Arrays.copyOf(edgeChildren, edgeCount * 2);
+            edgeCosts = Arrays.copyOf(edgeCosts, edgeCount * 2);
+        }
+        edgeParents[edgeCount] = parent;
+        edgeChildren[edgeCount] = child;
+        edgeCosts[edgeCount] = transferCost;
+        edgeCount++;
+    }
+
+    /**
+     * Ends the parsing: trims the arrays, drops the name index and computes the
+     * topological order, the depths and the level widths.
+     */
+    void finish() {
+        lengths = Arrays.copyOf(lengths, size);
+        types = Arrays.copyOf(types, size);
+        fileIndex = Arrays.copyOf(fileIndex, size + 1);
+        fileRefs = Arrays.copyOf(fileRefs, fileRefCount);
+        fileSizes = Arrays.copyOf(fileSizes, fileRefCount);
+        fileTypes = Arrays.copyOf(fileTypes, fileRefCount);
+        fileNames = Arrays.copyOf(fileNames, fileNameCount);
+        fileIds = null;
+        edgeParents = Arrays.copyOf(edgeParents, edgeCount);
+        edgeChildren = Arrays.copyOf(edgeChildren, edgeCount);
+        edgeCosts = Arrays.copyOf(edgeCosts, edgeCount);
+        computeDepths();
+    }
+
+    /**
+     * Computes the depth of each task, 1 for the tasks without parents and one
+     * more than the deepest parent for the others, visiting the tasks in
+     * topological order.
+     */
+    private void computeDepths() {
+        int[] childIndex = new int[size + 1];
+        int[] inDegrees = new int[size];
+        for (int e = 0; e < edgeCount; e++) {
+            childIndex[edgeParents[e] + 1]++;
+            inDegrees[edgeChildren[e]]++;
+        }
+        for (int i = 0; i < size; i++) {
+            childIndex[i + 1] += childIndex[i];
+        }
+        int[] children = new int[edgeCount];
+        int[] fill = Arrays.copyOf(childIndex, size);
+        for (int e = 0; e < edgeCount; e++) {
+            children[fill[edgeParents[e]]++] = edgeChildren[e];
+        }
+
+        depths = new int[size];
+        order = new int[size];
+        int tail = 0;
+        for (int i = 0; i < size; i++) {
+            if (inDegrees[i] == 0) {
+                depths[i] = 1;
+                order[tail++] = i;
+            }
+        }
+        int maxDepth = 0;
+        for (int head = 0; head < tail; head++) {
+            int task = order[head];
+            maxDepth = Math.max(maxDepth, depths[task]);
+            for (int c = childIndex[task]; c < childIndex[task + 1]; c++) {
+                int child = children[c];
+                depths[child] = Math.max(depths[child], depths[task] + 1);
+                if (--inDegrees[child] == 0) {
+                    order[tail++] = child;
+                }
+            }
+        }
+        if (tail < size) {
+            throw new IllegalArgumentException("the workflow has a cycle through "
+                    + (size - tail) + " tasks");
+        }
+        levelWidths = new int[maxDepth];
+        for (int i = 0; i < size; i++) {
+            levelWidths[depths[i] - 1]++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCloudletId(int task) {
+        return firstId + task;
+    }
+
+    public long getLength(int task) {
+        return lengths[task];
+    }
+
+    public String getType(int task) {
+        return types[task];
+    }
+
+    public int getDepth(int task) {
+        return depths[task];
+    }
+
+    /**
+     * Gets the task at a position of the topological order.
+     *
+     * @param position the position
+     * @return the index of the task
+     */
+    public int getOrder(int position) {
+        return order[position];
+    }
+
+    public int getMaxDepth() {
+        return levelWidths.length;
+    }
+
+    public int getLevelWidth(int depth) {
+        return levelWidths[depth - 1];
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public int getParent(int edge) {
+        return edgeParents[edge];
+    }
+
+    public int getChild(int edge) {
+        return edgeChildren[edge];
+    }
+
+    public double getTransferCost(int edge) {
+        return edgeCosts[edge];
+    }
+
+    public int getFileCount() {
+        return fileNames.length;
+    }
+
+    public String getFileName(int file) {
+        return fileNames[file];
+    }
+
+    /**
+     * Gets the tasks, creating them on the first call. The input files are
+     * shared through the {@link ReplicaCatalog} and every output reference
+     * gets a file of its own, as the DOM parser does.
+     *
+     * @return the tasks, in the order of the DAX
+     */
+    public List<Task> getTasks() {
+        if (tasks != null) {
+            return tasks;
+        }
+        List<Task> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task(firstId + i, lengths[i]);
+            task.setSendingLatency(latency);
+            task.setReceivingLatency(latency);
+            task.setType(types[i]);
+            task.setUserId(userId);
+            List<FileItem> fileItems = new ArrayList<>(fileIndex[i + 1] - fileIndex[i]);
+            for (int f = fileIndex[i]; f < fileIndex[i + 1]; f++) {
+                String name = fileNames[fileRefs[f]];
+                FileType type = FILE_TYPES[fileTypes[f]];
+                FileItem fileItem;
+                if (type == FileType.OUTPUT) {
+                    fileItem = new FileItem(name, fileSizes[f]);
+                } else if (ReplicaCatalog.containsFile(name)) {
+                    fileItem = ReplicaCatalog.getFile(name);
+                } else {
+                    fileItem = new FileItem(name, fileSizes[f]);
+                    ReplicaCatalog.setFile(name, fileItem);
+                }
+                fileItem.setType(type);
+                fileItems.add(fileItem);
+                task.addRequiredFile(name);
+            }
+            task.setFileList(fileItems);
+            task.setDepth(depths[i]);
+            list.add(task);
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            Task parent = list.get(edgeParents[e]);
+            Task child = list.get(edgeChildren[e]);
+            child.getTransferCosts().put(parent.getCloudletId(), edgeCosts[e]);
+            parent.addChild(child);
+            child.addParent(parent);
+        }
+        tasks = list;
+        return tasks;
+    }
+}
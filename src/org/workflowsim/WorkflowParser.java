@@ -17,6 +17,7 @@ package org.workflowsim;
 
 import com.mfu.fog.UserInput;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
@@ -25,8 +26,18 @@ import org.workflowsim.utils.Parameters;
 import org.workflowsim.utils.Parameters.FileType;
 import org.workflowsim.utils.ReplicaCatalog;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -70,9 +81,59 @@ public final class WorkflowParser {
      * @return the task list
      */
     public List<Task> getTaskList() {
+        if (!graphs.isEmpty()) {
+            for (WorkflowGraph graph : graphs) {
+                taskList.addAll(graph.getTasks());
+            }
+            graphs.clear();
+        }
         return taskList;
     }
 
+    /**
+     * Gets the topological order of the task list, computing it on the first
+     * call after a parse.
+     *
+     * @return the topological order
+     */
+    public TopologicalOrder getTopologicalOrder() {
+        if (topologicalOrder == null) {
+            topologicalOrder = new TopologicalOrder(getTaskList());
+        }
+        return topologicalOrder;
+    }
+
+    /**
+     * Gets the workflows read by the streaming parser whose tasks were not
+     * requested yet.
+     *
+     * @return the workflows
+     */
+    public List<WorkflowGraph> getGraphs() {
+        return graphs;
+    }
+
+    /**
+     * Gets the time the last DAX took to parse.
+     *
+     * @return the parse time, in milliseconds
+     */
+    public double getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * Gets the peak heap use while the last DAX was parsed. The memory pools
+     * are shared by the whole JVM, so it is only measured in the default
+     * simulation context: isolated contexts parse concurrently with each
+     * other and would reset each other's peaks.
+     *
+     * @return the peak heap, in bytes, or -1 if it was not measured
+     */
+    public long getPeakHeap() {
+        return peakHeap;
+    }
+
     /**
      * Sets the task list
      *
@@ -87,6 +148,24 @@ public final class WorkflowParser {
      */
     private final Map<String, Task> taskByName;
 
+    /**
+     * The workflows read by the streaming parser, until their tasks are added
+     * to the task list.
+     */
+    private final List<WorkflowGraph> graphs;
+
+    /**
+     * The topological order of the task list, once computed.
+     */
+    private TopologicalOrder topologicalOrder;
+
+    /**
+     * The parse time, in milliseconds, and the peak heap, in bytes, of the
+     * last DAX.
+     */
+    private double parseTime;
+    private long peakHeap;
+
     /**
      * Initialize a WorkflowParser
      *
@@ -95,6 +174,7 @@ public final class WorkflowParser {
     public WorkflowParser(int userId) {
         this.userId = userId;
         this.taskByName = new HashMap<>();
+        this.graphs = new ArrayList<>();
         this.daxPath = Parameters.getDaxPath();
         this.daxPaths = Parameters.getDAXPaths();
         this.jobIdStartsFrom = 1;
@@ -116,24 +196,36 @@ public final class WorkflowParser {
     }
 
     /**
-     * Sets the depth of a task
+     * Parses a DAX file with the parser selected in {@link Parameters} and
+     * reports the parse time and, in the default context, the peak heap.
      *
-     * @param task  the task
-     * @param depth the depth
+     * @param path the DAX path
      */
-    private void setDepth(Task task, int depth) {
-        if (depth > task.getDepth()) {
-            task.setDepth(depth);
+    public void parseXmlFile(String path) {
+        Parameters.ParsingMode mode = Parameters.getParsingMode();
+        topologicalOrder = null;
+        boolean measureHeap = !SimulationContext.current().isIsolated();
+        if (measureHeap) {
+            resetPeakHeap();
         }
-        for (Task childTask : task.getChildList()) {
-            setDepth(childTask, task.getDepth() + 1);
+        long start = System.nanoTime();
+        if (mode == Parameters.ParsingMode.STREAMING) {
+            parseXmlStream(path);
+        } else {
+            parseXmlDocument(path);
         }
+        parseTime = (System.nanoTime() - start) / 1000000.0;
+        peakHeap = measureHeap ? readPeakHeap() : -1;
+        Log.printLine("WorkflowParser: " + mode + " parsing of " + path + " took "
+                + String.format("%.1f", parseTime) + " ms"
+                + (measureHeap ? ", peak heap " + (peakHeap >> 20) + " MB" : ""));
     }
 
     /**
      * Parse a DAX file with jdom
      */
-    public void parseXmlFile(String path) {
+    private void parseXmlDocument(String path) {
+        int first = getTaskList().size();
         try {
             SAXBuilder saxBuilder = new SAXBuilder();
             // parse using builder to get DOM representation of the XML file
@@ -143,21 +235,9 @@ public final class WorkflowParser {
             for (Element element : rootElementChildren) {
                 switch (element.getName().toLowerCase()) {
                     case "job" -> {
-                        long cloudletLength = 0;
                         String nodeName = element.getAttributeValue("id");
                         String nodeType = element.getAttributeValue("name");
-                        double runtime;
-                        if (element.getAttributeValue("runtime") != null) {
-                            String nodeRuntime = element.getAttributeValue("runtime");
-                            runtime = 1000 * Double.parseDouble(nodeRuntime);
-                            if (runtime < 100) {
-                                runtime = 100;
-                            }
-                            cloudletLength = (long) runtime;
-                        } else {
-                            Log.printLine("Cannot find runtime for " + nodeName + ",set it to be 0");
-                        }
-                        cloudletLength *= Parameters.getRuntimeScale();
+                        long cloudletLength = readLength(nodeName, element.getAttributeValue("runtime"));
                         List<Element> fileElements = element.getChildren();
                         List<FileItem> fileItems = new ArrayList<>();
                         for (Element fileElement : fileElements) {
@@ -169,31 +249,9 @@ public final class WorkflowParser {
                                 if (fileName == null) {
                                     Log.print("Error in parsing xml");
                                 }
-                                String fileLink = fileElement.getAttributeValue("link");
-                                double size = 0.0;
-                                String fileSize = fileElement.getAttributeValue("size");
-                                if (fileSize != null) {
-                                    size = Double.parseDouble(fileSize) /* / 1024 */;
-                                } else {
-                                    Log.printLine("File Size not found for " + fileName);
-                                }
-                                if (size == 0) {
-                                    size++;
-                                }
-                                FileType type = FileType.NONE;
-                                switch (fileLink) {
-                                    case "input" -> type = FileType.INPUT;
-                                    case "output" -> type = FileType.OUTPUT;
-                                    default -> Log.printLine("Parsing Error");
-                                }
+                                double size = readFileSize(fileName, fileElement.getAttributeValue("size"));
+                                FileType type = readFileType(fileElement.getAttributeValue("link"));
                                 FileItem fileItem;
-                                /*
-                                 * Already exists an input file (forget output file)
-                                 */
-                                if (size < 0) {
-                                    size = 0 - size;
-                                    Log.printLine("Size is negative, I assume it is a parser error");
-                                }
                                 /*
                                  * Note that CloudSim use size as MB, in this case we use it as Byte
                                  */
@@ -239,8 +297,7 @@ public final class WorkflowParser {
                             Map<Integer, Double> transferCosts = new HashMap<>();
                             for (Element parentNodeElement : parentNodeElements) {
                                 String parentName = parentNodeElement.getAttributeValue("ref");
-                                String transferCostAttribute = parentNodeElement.getAttributeValue("transferCost");
-                                double transferCost = transferCostAttribute != null ? Double.parseDouble(transferCostAttribute) : 0;
+                                double transferCost = readTransferCost(parentNodeElement.getAttributeValue("transferCost"));
                                 if (taskByName.containsKey(parentName)) {
                                     Task parentTask = taskByName.get(parentName);
                                     transferCosts.put(parentTask.getCloudletId(), transferCost);
@@ -254,22 +311,12 @@ public final class WorkflowParser {
                 }
             }
             /*
-             * If a task has no parent, then it is root task.
-             */
-            ArrayList<Task> roots = new ArrayList<>();
-            for (Task task : taskByName.values()) {
-                task.setDepth(0);
-                if (task.getParentList().isEmpty()) {
-                    roots.add(task);
-                }
-            }
-
-            /*
-             * Add depth from top to bottom.
+             * Add depth from top to bottom, in topological order.
              */
-            for (Task task : roots) {
-                setDepth(task, 1);
-            }
+            List<Task> tasks = getTaskList();
+            TopologicalOrder order = new TopologicalOrder(tasks.subList(first, tasks.size()));
+            order.assignDepths();
+            Parameters.setMaxDepth(Math.max(Parameters.getMaxDepth(), order.getMaxDepth()));
             /*
              * Clean them to save memory. Parsing workflow may take much memory
              */
@@ -284,4 +331,159 @@ public final class WorkflowParser {
             Log.printLine("Parsing Exception");
         }
     }
+
+    /**
+     * Parse a DAX file in one pass with StAX into a {@link WorkflowGraph}. Only
+     * the top level job and child elements and their direct children are
+     * read, as the DOM parser does; the tasks are created when the task list
+     * is first requested.
+     */
+    private void parseXmlStream(String path) {
+        WorkflowGraph graph = new WorkflowGraph(this.jobIdStartsFrom, userId, UserInput.getPortDelay());
+        Map<String, Integer> taskIndexes = new HashMap<>();
+        Map<String, String> taskTypes = new HashMap<>();
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try (InputStream in = new BufferedInputStream(new FileInputStream(path))) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                int depth = 0;
+                boolean inJob = false;
+                int child = -1;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    } else if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        String name = reader.getLocalName();
+                        if (depth == 2) {
+                            inJob = name.equalsIgnoreCase("job");
+                            child = -1;
+                            if (inJob) {
+                                String nodeName = reader.getAttributeValue(null, "id");
+                                String nodeType = reader.getAttributeValue(null, "name");
+                                if (nodeType != null) {
+                                    nodeType = taskTypes.computeIfAbsent(nodeType, type -> type);
+                                }
+                                long cloudletLength = readLength(nodeName, reader.getAttributeValue(null, "runtime"));
+                                taskIndexes.put(nodeName, graph.addTask(nodeType, cloudletLength));
+                            } else if (name.equalsIgnoreCase("child")) {
+                                Integer index = taskIndexes.get(reader.getAttributeValue(null, "ref"));
+                                child = index == null ? -1 : index;
+                            }
+                        } else if (depth == 3) {
+                            if (inJob && name.equalsIgnoreCase("uses")) {
+                                String fileName = reader.getAttributeValue(null, "name");// DAX version 3.3
+                                if (fileName == null) {
+                                    fileName = reader.getAttributeValue(null, "file");// DAX version 3.0
+                                }
+                                if (fileName == null) {
+                                    Log.print("Error in parsing xml");
+                                }
+                                double size = readFileSize(fileName, reader.getAttributeValue(null, "size"));
+                                FileType type = readFileType(reader.getAttributeValue(null, "link"));
+                                graph.addFile(fileName, size, type);
+                            } else if (child >= 0) {
+                                Integer parent = taskIndexes.get(reader.getAttributeValue(null, "ref"));
+                                double transferCost = readTransferCost(reader.getAttributeValue(null, "transferCost"));
+                                if (parent != null) {
+                                    graph.addEdge(parent, child, transferCost);
+                                }
+                            }
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            graph.finish();
+            graphs.add(graph);
+            Parameters.setMaxDepth(Math.max(Parameters.getMaxDepth(), graph.getMaxDepth()));
+            this.jobIdStartsFrom += graph.size();
+        } catch (XMLStreamException streamException) {
+            Log.printLine("StAX Exception;Please make sure your dax file is valid");
+        } catch (IOException ioException) {
+            Log.printLine("IO Exception;Please make sure dax.path is correctly set in your config file");
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            Log.printLine("Parsing Exception");
+        }
+    }
+
+    /**
+     * Reads the length of a job from its runtime attribute.
+     */
+    private static long readLength(String nodeName, String nodeRuntime) {
+        long cloudletLength = 0;
+        if (nodeRuntime != null) {
+            double runtime = 1000 * Double.parseDouble(nodeRuntime);
+            if (runtime < 100) {
+                runtime = 100;
+            }
+            cloudletLength = (long) runtime;
+        } else {
+            Log.printLine("Cannot find runtime for " + nodeName + ",set it to be 0");
+        }
+        cloudletLength *= Parameters.getRuntimeScale();
+        return cloudletLength;
+    }
+
+    /**
+     * Reads the size of a file from its size attribute.
+     */
+    private static double readFileSize(String fileName, String fileSize) {
+        double size = 0.0;
+        if (fileSize != null) {
+            size = Double.parseDouble(fileSize) /* / 1024 */;
+        } else {
+            Log.printLine("File Size not found for " + fileName);
+        }
+        if (size == 0) {
+            size++;
+        }
+        /*
+         * Already exists an input file (forget output file)
+         */
+        if (size < 0) {
+            size = 0 - size;
+            Log.printLine("Size is negative, I assume it is a parser error");
+        }
+        return size;
+    }
+
+    /**
+     * Reads the type of a file from its link attribute.
+     */
+    private static FileType readFileType(String fileLink) {
+        FileType type = FileType.NONE;
+        switch (fileLink) {
+            case "input" -> type = FileType.INPUT;
+            case "output" -> type = FileType.OUTPUT;
+            default -> Log.printLine("Parsing Error");
+        }
+        return type;
+    }
+
+    private static double readTransferCost(String transferCostAttribute) {
+        return transferCostAttribute != null ? Double.parseDouble(transferCostAttribute) : 0;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long readPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
 }
@@ -132,6 +132,7 @@ public final class WorkflowPlanner extends SimEntity {
                 setTaskList(getWorkflowParser().getTaskList());
                 processPlanning();
                 processImpactFactors(getTaskList());
+                getClusteringEngine().setTopologicalOrder(getWorkflowParser().getTopologicalOrder());
                 sendNow(getClusteringEngineId(), WorkflowSimTags.JOB_SUBMIT, getTaskList());
             }
             case CloudSimTags.END_OF_SIMULATION -> shutdownEntity();
@@ -147,13 +148,19 @@ public final class WorkflowPlanner extends SimEntity {
         BasePlanningAlgorithm planner = getPlanningAlgorithm(Parameters.getPlanningAlgorithm());
 
         planner.setTaskList(getTaskList());
+        planner.setTopologicalOrder(getWorkflowParser().getTopologicalOrder());
         planner.setVmList(getWorkflowEngine().getAllVmList());
+        long startTime = System.currentTimeMillis();
         try {
             planner.run();
         } catch (Exception e) {
             Log.printLine("Error in configuring scheduler_method");
             e.printStackTrace();
         }
+        // a static planner's running time is the time it took to plan
+        getWorkflowEngine().algorithmTime = System.currentTimeMillis() - startTime;
+        Log.printLine(Parameters.getPlanningAlgorithm() + " planned " + getTaskList().size() + " tasks in "
+                + getWorkflowEngine().algorithmTime + " ms");
     }
 
     /**
@@ -22,6 +22,7 @@ import java.util.Map;
 import org.workflowsim.FileItem;
 import org.workflowsim.Job;
 import org.workflowsim.Task;
+import org.workflowsim.TopologicalOrder;
 import org.workflowsim.utils.Parameters;
 import org.workflowsim.utils.Parameters.ClassType;
 import org.workflowsim.utils.Parameters.FileType;
@@ -59,6 +60,10 @@ public class BasicClustering implements ClusteringInterface {
      * the id index.
      */
     private int idIndex;
+    /**
+     * The topological order of the task list.
+     */
+    private TopologicalOrder topologicalOrder;
 
     /**
      * Gets the files
@@ -92,6 +97,29 @@ public class BasicClustering implements ClusteringInterface {
         this.taskList = list;
     }
 
+    /**
+     * Sets the topological order of the task list, when the workflow already
+     * has one
+     *
+     * @param order the topological order
+     */
+    public final void setTopologicalOrder(TopologicalOrder order) {
+        this.topologicalOrder = order;
+    }
+
+    /**
+     * Gets the topological order of the task list, computing it if it was not
+     * set
+     *
+     * @return the topological order
+     */
+    protected final TopologicalOrder getTopologicalOrder() {
+        if (this.topologicalOrder == null || this.topologicalOrder.size() != this.taskList.size()) {
+            this.topologicalOrder = new TopologicalOrder(this.taskList);
+        }
+        return this.topologicalOrder;
+    }
+
     /**
      * Gets the tasks list
      *
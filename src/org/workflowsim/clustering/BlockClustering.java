@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.workflowsim.Task;
+import org.workflowsim.TopologicalOrder;
 
 /**
  * BlockClustering groups tasks in both horizontal and vertical direction
@@ -94,15 +95,9 @@ public class BlockClustering extends BasicClustering {
 
         // level by level
         if (clusterNum > 0 || clusterSize > 0) {
-            for (Task task : getTaskList()) {
-                int depth = task.getDepth();
-                if (!mDepth2Task.containsKey(depth)) {
-                    mDepth2Task.put(depth, new ArrayList<>());
-                }
-                List list = mDepth2Task.get(depth);
-                if (!list.contains(task)) {
-                    list.add(task);
-                }
+            TopologicalOrder order = getTopologicalOrder();
+            for (int depth = 1; depth <= order.getMaxDepth(); depth++) {
+                mDepth2Task.put(depth, new ArrayList<>(order.getLevel(depth)));
             }
         }
 
@@ -18,12 +18,11 @@ package org.workflowsim.clustering;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import org.workflowsim.Job;
-import org.workflowsim.Task;
+import org.workflowsim.TopologicalOrder;
 
 /**
  * HorizontalClustering merges task at the same horizontal level
@@ -68,17 +67,9 @@ public class HorizontalClustering extends BasicClustering {
     @Override
     public void run() {
         if (clusterNum > 0 || clusterSize > 0) {
-            for (Iterator it = getTaskList().iterator(); it.hasNext();) {
-                Task task = (Task) it.next();
-                int depth = task.getDepth();
-                if (!mDepth2Task.containsKey(depth)) {
-                    mDepth2Task.put(depth, new ArrayList<>());
-                }
-                List list = mDepth2Task.get(depth);
-                if (!list.contains(task)) {
-                    list.add(task);
-                }
-
+            TopologicalOrder order = getTopologicalOrder();
+            for (int depth = 1; depth <= order.getMaxDepth(); depth++) {
+                mDepth2Task.put(depth, new ArrayList<>(order.getLevel(depth)));
             }
         }
         /**
@@ -17,9 +17,15 @@ package org.workflowsim.planning;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 import org.cloudbus.cloudsim.Datacenter;
 import org.workflowsim.CondorVM;
 import org.workflowsim.Task;
+import org.workflowsim.TopologicalOrder;
+import org.workflowsim.utils.Parameters;
+import org.workflowsim.utils.RankIndex;
 
 /**
  * The base planner has implemented the basic features. Every other planning method
@@ -42,6 +48,21 @@ public abstract class BasePlanningAlgorithm implements PlanningAlgorithmInterfac
 
     private static List<Integer> taskOrders;
 
+    /**
+     * the rank of each task id in the task orders.
+     */
+    private static RankIndex taskRanks;
+
+    /**
+     * the threads of the planners, when they plan in parallel.
+     */
+    private static ForkJoinPool planningPool;
+
+    /**
+     * the topological order of the task list.
+     */
+    private TopologicalOrder topologicalOrder;
+
     /**
      * the datacenter list
      */
@@ -56,8 +77,19 @@ public abstract class BasePlanningAlgorithm implements PlanningAlgorithmInterfac
         return taskOrders;
     }
 
+    /**
+     * Gets the rank of each task id in the task orders, computed once when the
+     * orders are set.
+     *
+     * @return the ranks
+     */
+    public static RankIndex getTaskRanks(){
+        return taskRanks;
+    }
+
     protected static void setTaskOrders(List<Integer> taskOrders){
         BasePlanningAlgorithm.taskOrders = new ArrayList<>(taskOrders);
+        BasePlanningAlgorithm.taskRanks = new RankIndex(taskOrders);
     }
 
     /**
@@ -68,6 +100,30 @@ public abstract class BasePlanningAlgorithm implements PlanningAlgorithmInterfac
     @Override
     public void setTaskList(List list) {
         this.taskList = list;
+        this.topologicalOrder = null;
+    }
+
+    /**
+     * Sets the topological order of the task list, when the workflow already
+     * has one.
+     *
+     * @param order the topological order
+     */
+    public void setTopologicalOrder(TopologicalOrder order) {
+        this.topologicalOrder = order;
+    }
+
+    /**
+     * Gets the topological order of the task list, computing it if it was not
+     * set.
+     *
+     * @return the topological order
+     */
+    public TopologicalOrder getTopologicalOrder() {
+        if (this.topologicalOrder == null) {
+            this.topologicalOrder = new TopologicalOrder(getTaskList());
+        }
+        return this.topologicalOrder;
     }
 
     /**
@@ -116,6 +172,70 @@ public abstract class BasePlanningAlgorithm implements PlanningAlgorithmInterfac
         this.datacenterList = list;
     }
     
+    /**
+     * Runs an action for every index from 0 to count - 1. With a planning
+     * parallelism above 1 (see {@link Parameters#setPlanningParallelism(int)})
+     * the indexes are split among the planning threads, so an action must only
+     * write the state of its own index; the writes are visible when this
+     * method returns.
+     *
+     * @param count the number of indexes
+     * @param action the action
+     */
+    protected static void forEachIndex(int count, IntConsumer action) {
+        int parallelism = Parameters.getPlanningParallelism();
+        if (parallelism <= 1 || count < 2) {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+            return;
+        }
+        int grain = Math.max(1, count / (parallelism * 4));
+        getPlanningPool(parallelism).invoke(new IndexRange(action, 0, count, grain));
+    }
+
+    private static synchronized ForkJoinPool getPlanningPool(int parallelism) {
+        if (planningPool == null || planningPool.getParallelism() != parallelism) {
+            if (planningPool != null) {
+                planningPool.shutdown();
+            }
+            planningPool = new ForkJoinPool(parallelism);
+        }
+        return planningPool;
+    }
+
+    /**
+     * The indexes from start to end - 1, split in halves down to grain.
+     */
+    private static class IndexRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer action;
+        private final int start;
+        private final int end;
+        private final int grain;
+
+        IndexRange(IntConsumer action, int start, int end, int grain) {
+            this.action = action;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                for (int i = start; i < end; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new IndexRange(action, start, middle, grain), new IndexRange(action, middle, end, grain));
+        }
+    }
+
     /**
      * The main function
      */
@@ -19,6 +19,7 @@ import org.cloudbus.cloudsim.Vm;
 import org.workflowsim.CondorVM;
 import org.workflowsim.FileItem;
 import org.workflowsim.Task;
+import org.workflowsim.TopologicalOrder;
 import org.workflowsim.utils.Parameters;
 
 import java.util.ArrayList;
@@ -68,23 +69,10 @@ public class DHEFTPlanningAlgorithm extends BasePlanningAlgorithm {
         double[][] earliestFinishTime = new double[taskNum + 1][vmNum];
         int[] allocation = new int[taskNum + 1];
 
-        List<Task> taskList = new ArrayList(getTaskList());
-        List<Task> readyList = new ArrayList<>();
-        while (!taskList.isEmpty()) {
-            readyList.clear();
-            for (Task task : taskList) {
-                boolean ready = true;
-                for (Task parent : task.getParentList()) {
-                    if (taskList.contains(parent)) {
-                        ready = false;
-                        break;
-                    }
-                }
-                if (ready) {
-                    readyList.add(task);
-                }
-            }
-            taskList.removeAll(readyList);
+        // the tasks whose parents are all scheduled are the next level
+        TopologicalOrder order = getTopologicalOrder();
+        for (int depth = 1; depth <= order.getMaxDepth(); depth++) {
+            List<Task> readyList = order.getLevel(depth);
             //schedule readylist
             for (Task task : readyList) {
                 long[] fileSizes = new long[task.getParentList().size()];
@@ -104,29 +92,34 @@ public class DHEFTPlanningAlgorithm extends BasePlanningAlgorithm {
                     parentIndex++;
                 }
 
-                double minTime = Double.MAX_VALUE;
-                int minTimeIndex = 0;
-
-                for (int vmIndex = 0; vmIndex < getVmList().size(); vmIndex++) {
+                // the VMs are evaluated independently, in parallel when the planning parallelism allows it
+                forEachIndex(vmNum, vmIndex -> {
                     Vm vm = (Vm) getVmList().get(vmIndex);
                     double startTime = availableTime[vm.getId()];
-                    parentIndex = 0;
+                    int fileIndex = 0;
                     for (Task parent : task.getParentList()) {
                         int allocatedVmId = allocation[parent.getCloudletId()];
                         double actualFinishTime = earliestFinishTime[parent.getCloudletId()][allocatedVmId];
-                        double communicationTime = fileSizes[parentIndex] / bandwidths[allocatedVmId][vm.getId()];
+                        double communicationTime = fileSizes[fileIndex] / bandwidths[allocatedVmId][vm.getId()];
 
                         if (actualFinishTime + communicationTime > startTime) {
                             startTime = actualFinishTime + communicationTime;
                         }
-                        parentIndex++;
+                        fileIndex++;
                     }
                     earliestStartTime[task.getCloudletId()][vm.getId()] = startTime;
                     double runtime = task.getCloudletLength() / vm.getMips();
                     earliestFinishTime[task.getCloudletId()][vm.getId()] = runtime + startTime;
+                });
 
-                    if (runtime + startTime < minTime) {
-                        minTime = runtime + startTime;
+                // the first VM with the earliest finish time wins, as in a sequential sweep
+                double minTime = Double.MAX_VALUE;
+                int minTimeIndex = 0;
+                for (int vmIndex = 0; vmIndex < vmNum; vmIndex++) {
+                    Vm vm = (Vm) getVmList().get(vmIndex);
+                    double finishTime = earliestFinishTime[task.getCloudletId()][vm.getId()];
+                    if (finishTime < minTime) {
+                        minTime = finishTime;
                         minTimeIndex = vmIndex;
                     }
                 }
@@ -0,0 +1,240 @@
+package org.workflowsim.planning;
+
+import java.util.Arrays;
+
+/**
+ * The idle gaps of the schedule of one VM, for insertion-based planners.
+ *
+ * The gaps between the busy intervals of the VM are kept ordered by time in a
+ * treap, including the gap before the first interval and the unbounded gap
+ * after the last one. Every node also keeps the length of the longest gap of
+ * its subtree, so the earliest start of a task of a given duration that is not
+ * before a ready time is found in O(log n) expected time, instead of scanning
+ * the whole schedule.
+ *
+ * A task starts at the ready time if it fits in the gap holding the ready
+ * time, and otherwise at the beginning of the first later gap it fits in.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class GapIndex {
+
+    private static final int NIL = -1;
+
+    /**
+     * Gap g spans starts[g] to ends[g].
+     */
+    private double[] starts;
+    private double[] ends;
+    private double[] maxLengths;
+    private int[] lefts;
+    private int[] rights;
+    private int[] parents;
+    private int[] priorities;
+    private int size;
+    private int root;
+    private int seed = 0x2545F491;
+
+    /**
+     * The largest absolute finite bound of a gap, which bounds the rounding
+     * error of the lengths.
+     */
+    private double horizon;
+
+    /**
+     * The gap of the last start time found.
+     */
+    private int foundGap = NIL;
+
+    /**
+     * Creates the index of an empty schedule.
+     */
+    public GapIndex() {
+        int capacity = 16;
+        starts = new double[capacity];
+        ends = new double[capacity];
+        maxLengths = new double[capacity];
+        lefts = new int[capacity];
+        rights = new int[capacity];
+        parents = new int[capacity];
+        priorities = new int[capacity];
+        root = newNode(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Gets the number of busy intervals reserved.
+     */
+    public int getIntervalCount() {
+        return size - 1;
+    }
+
+    /**
+     * Finds the earliest time a task can start.
+     *
+     * @param readyTime the first moment the task is available
+     * @param duration the time the task takes
+     * @return the earliest start time, not before readyTime, of an idle slot of
+     * at least duration
+     */
+    public double findStartTime(double readyTime, double duration) {
+        int floor = NIL;
+        for (int node = root; node != NIL; ) {
+            if (starts[node] < readyTime) {
+                floor = node;
+                node = rights[node];
+            } else {
+                node = lefts[node];
+            }
+        }
+        if (floor != NIL && readyTime + duration <= ends[floor]) {
+            foundGap = floor;
+            return readyTime;
+        }
+        // the lengths are rounded, so a gap the task fits in may look slightly shorter
+        double minLength = duration - 2 * Math.ulp(horizon);
+        foundGap = findFirstFit(root, readyTime, duration, minLength);
+        return starts[foundGap];
+    }
+
+    /**
+     * Reserves the earliest idle slot of a task, as found by
+     * {@link #findStartTime(double, double)}.
+     *
+     * @param readyTime the first moment the task is available
+     * @param duration the time the task takes
+     * @return the start time of the slot
+     */
+    public double occupy(double readyTime, double duration) {
+        double startTime = findStartTime(readyTime, duration);
+        double finishTime = startTime + duration;
+        int gap = foundGap;
+        double end = ends[gap];
+        ends[gap] = startTime;
+        updateHorizon(startTime);
+        updateHorizon(finishTime);
+        for (int node = gap; node != NIL; node = parents[node]) {
+            pull(node);
+        }
+        insertAfter(gap, finishTime, end);
+        return startTime;
+    }
+
+    /**
+     * Finds the first gap in the subtree of node that begins at or after
+     * readyTime and is long enough.
+     */
+    private int findFirstFit(int node, double readyTime, double duration, double minLength) {
+        if (node == NIL || maxLengths[node] < minLength) {
+            return NIL;
+        }
+        if (starts[node] < readyTime) {
+            return findFirstFit(rights[node], readyTime, duration, minLength);
+        }
+        int gap = findFirstFit(lefts[node], readyTime, duration, minLength);
+        if (gap != NIL) {
+            return gap;
+        }
+        if (starts[node] + duration <= ends[node]) {
+            return node;
+        }
+        return findFirstFit(rights[node], readyTime, duration, minLength);
+    }
+
+    /**
+     * Adds a gap right after another one in time.
+     */
+    private void insertAfter(int previous, double start, double end) {
+        int node = newNode(start, end);
+        if (rights[previous] == NIL) {
+            rights[previous] = node;
+            parents[node] = previous;
+        } else {
+            int next = rights[previous];
+            while (lefts[next] != NIL) {
+                next = lefts[next];
+            }
+            lefts[next] = node;
+            parents[node] = next;
+        }
+        for (int ancestor = parents[node]; ancestor != NIL; ancestor = parents[ancestor]) {
+            pull(ancestor);
+        }
+        while (parents[node] != NIL && priorities[node] > priorities[parents[node]]) {
+            rotateUp(node);
+        }
+    }
+
+    private void rotateUp(int node) {
+        int parent = parents[node];
+        int grandparent = parents[parent];
+        if (lefts[parent] == node) {
+            lefts[parent] = rights[node];
+            if (rights[node] != NIL) {
+                parents[rights[node]] = parent;
+            }
+            rights[node] = parent;
+        } else {
+            rights[parent] = lefts[node];
+            if (lefts[node] != NIL) {
+                parents[lefts[node]] = parent;
+            }
+            lefts[node] = parent;
+        }
+        parents[parent] = node;
+        parents[node] = grandparent;
+        if (grandparent == NIL) {
+            root = node;
+        } else if (lefts[grandparent] == parent) {
+            lefts[grandparent] = node;
+        } else {
+            rights[grandparent] = node;
+        }
+        pull(parent);
+        pull(node);
+    }
+
+    private void pull(int node) {
+        // the gap before the first interval never begins at or after a ready time
+        double max = starts[node] == Double.NEGATIVE_INFINITY
+                ? Double.NEGATIVE_INFINITY : ends[node] - starts[node];
+        if (lefts[node] != NIL) {
+            max = Math.max(max, maxLengths[lefts[node]]);
+        }
+        if (rights[node] != NIL) {
+            max = Math.max(max, maxLengths[rights[node]]);
+        }
+        maxLengths[node] = max;
+    }
+
+    private void updateHorizon(double time) {
+        if (!Double.isInfinite(time)) {
+            horizon = Math.max(horizon, Math.abs(time));
+        }
+    }
+
+    private int newNode(double start, double end) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            maxLengths = Arrays.copyOf(maxLengths, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+        }
+        int node = size++;
+        starts[node] = start;
+        ends[node] = end;
+        lefts[node] = NIL;
+        rights[node] = NIL;
+        parents[node] = NIL;
+        // xorshift, so the shape of the tree is the same from run to run
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        priorities[node] = seed;
+        pull(node);
+        return node;
+    }
+}
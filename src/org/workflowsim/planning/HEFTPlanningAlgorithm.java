@@ -30,19 +30,18 @@ import java.util.*;
  */
 public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
 
-    private final Map<Task, Map<CondorVM, Double>> computationCosts;
-    private final Map<Task, Map<Task, Double>> transferCosts;
+    private PlanningCostModel costModel;
     private static final List<Integer> taskOrders = new ArrayList<>();
-    private final Map<Task, Double> rank;
+    private double[] upwardRanks;
+    private int[] rankOrder;
     private final Map<CondorVM, List<Event>> schedules;
-    private final Map<Task, Double> earliestFinishTimes;
+    private GapIndex[] gapIndexes;
+    private double[] candidateReadyTimes;
+    private double[] candidateFinishTimes;
+    private double[] earliestFinishTimes;
     private double averageBandwidth;
 
     public HEFTPlanningAlgorithm() {
-        computationCosts = new LinkedHashMap<>();
-        transferCosts = new LinkedHashMap<>();
-        rank = new LinkedHashMap<>();
-        earliestFinishTimes = new LinkedHashMap<>();
         schedules = new LinkedHashMap<>();
     }
 
@@ -55,13 +54,21 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
 
         averageBandwidth = calculateAverageBandwidth();
 
+        // the orders of a previous workflow are not kept
+        taskOrders.clear();
         for (CondorVM vm : getVmList()) {
             schedules.put(vm, new ArrayList<>());
         }
 
         // Prioritization phase
-        calculateComputationCosts();
-        calculateTransferCosts();
+        costModel = new PlanningCostModel(getTopologicalOrder(), getVmList());
+        earliestFinishTimes = new double[costModel.getTaskCount()];
+        gapIndexes = new GapIndex[costModel.getVmCount()];
+        for (int v = 0; v < gapIndexes.length; v++) {
+            gapIndexes[v] = new GapIndex();
+        }
+        candidateReadyTimes = new double[costModel.getVmCount()];
+        candidateFinishTimes = new double[costModel.getVmCount()];
         calculateRanks();
 
         // Selection phase
@@ -86,58 +93,6 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
         return averageBandwidth / getVmList().size();
     }
 
-    /**
-     * Populates the computationCosts field with the time in seconds to compute a
-     * task in a vm.
-     */
-    private void calculateComputationCosts() {
-        for (Task task : getTaskList()) {
-            Map<CondorVM, Double> costsVm = new HashMap<>();
-            for (CondorVM vm : getVmList()) {
-                if (vm.getNumberOfPes() < task.getNumberOfPes()) {
-                    costsVm.put(vm, Double.MAX_VALUE);
-                } else {
-                    costsVm.put(vm, task.getCloudletTotalLength() / vm.getMips());
-                }
-            }
-            computationCosts.put(task, costsVm);
-        }
-    }
-
-    /**
-     * Populates the transferCosts map with the time in seconds to transfer all
-     * files from each parent to each child
-     */
-    private void calculateTransferCosts() {
-        // Initializing the matrix
-        for (Task task1 : getTaskList()) {
-            Map<Task, Double> taskTransferCosts = new HashMap<>();
-            for (Task task2 : getTaskList()) {
-                taskTransferCosts.put(task2, 0.0);
-            }
-            transferCosts.put(task1, taskTransferCosts);
-        }
-
-        // Calculating the actual values
-        for (Task parent : getTaskList()) {
-            for (Task child : parent.getChildList()) {
-                transferCosts.get(parent).put(child, calculateStaticTransferCost(parent, child));
-            }
-        }
-    }
-
-    /**
-     * Accounts the time in seconds necessary to transfer all files described
-     * between parent and child (as statically defined in DAG)
-     *
-     * @param parent parent task
-     * @param child  child task
-     * @return Transfer cost in seconds
-     */
-    private double calculateStaticTransferCost(Task parent, Task child) {
-        return child.getTransferCosts().isEmpty() ? 0 : child.getTransferCosts().get(parent.getCloudletId());
-    }
-
     /**
      * Accounts the time in seconds necessary to transfer all files described
      * between parent and child
@@ -180,42 +135,74 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
     }
 
     /**
-     * Invokes calculateRank for each task to be scheduled
+     * Calculates the rank of each task to be scheduled, level by level from the
+     * deepest one, so the ranks of the children of a task are known when it is
+     * ranked. The tasks of a level are ranked in parallel when the planning
+     * parallelism allows it.
      */
     private void calculateRanks() {
-        for (Task task : getTaskList()) {
-            calculateRank(task);
+        TopologicalOrder order = costModel.getTopologicalOrder();
+        upwardRanks = new double[costModel.getTaskCount()];
+        for (int depth = order.getMaxDepth(); depth >= 1; depth--) {
+            List<Task> level = order.getLevel(depth);
+            forEachIndex(level.size(), i -> calculateRank(costModel.indexOf(level.get(i))));
         }
+        rankOrder = calculateRankOrder();
     }
 
     /**
-     * Populates rank.get(task) with the rank of task as defined in the HEFT paper.
+     * Populates upwardRanks[t] with the rank of task t as defined in the HEFT
+     * paper.
      *
-     * @param task The task have the rank calculates
-     * @return The rank
+     * @param t The index of the task, whose children are already ranked
      */
-    private double calculateRank(Task task) {
-        if (rank.containsKey(task)) {
-            return rank.get(task);
-        }
-
-        double averageComputationCost = 0.0;
-
-        for (Double cost : computationCosts.get(task).values()) {
-            averageComputationCost += cost;
-        }
-
-        averageComputationCost /= computationCosts.get(task).size();
-
+    private void calculateRank(int t) {
         double max = 0.0;
-        for (Task child : task.getChildList()) {
-            double childCost = transferCosts.get(task).get(child) + calculateRank(child);
+        for (int e = costModel.getChildStart(t); e < costModel.getChildEnd(t); e++) {
+            double childCost = costModel.getChildTransferCost(e) + upwardRanks[costModel.getChild(e)];
             max = Math.max(max, childCost);
         }
+        upwardRanks[t] = costModel.getAverageComputationCost(t) + max;
+    }
 
-        rank.put(task, averageComputationCost + max);
-
-        return rank.get(task);
+    /**
+     * Orders the tasks each after all of its children, in a depth-first
+     * traversal from the tasks in list order. The tasks are allocated in this
+     * order when their ranks are equal.
+     *
+     * @return the indexes of the tasks
+     */
+    private int[] calculateRankOrder() {
+        int taskCount = costModel.getTaskCount();
+        int[] order = new int[taskCount];
+        boolean[] visited = new boolean[taskCount];
+        int[] stack = new int[taskCount];
+        int[] nextEdges = new int[taskCount];
+        int size = 0;
+        for (int root = 0; root < taskCount; root++) {
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            stack[0] = root;
+            nextEdges[0] = costModel.getChildStart(root);
+            for (int top = 0; top >= 0; ) {
+                int t = stack[top];
+                if (nextEdges[top] < costModel.getChildEnd(t)) {
+                    int child = costModel.getChild(nextEdges[top]++);
+                    if (!visited[child]) {
+                        visited[child] = true;
+                        top++;
+                        stack[top] = child;
+                        nextEdges[top] = costModel.getChildStart(child);
+                    }
+                } else {
+                    order[size++] = t;
+                    top--;
+                }
+            }
+        }
+        return order;
     }
 
     /**
@@ -223,8 +210,8 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
      */
     private void allocateTasks() {
         List<TaskRank> taskRank = new ArrayList<>();
-        for (Task task : rank.keySet()) {
-            taskRank.add(new TaskRank(task, rank.get(task)));
+        for (int t : rankOrder) {
+            taskRank.add(new TaskRank(costModel.getTask(t), upwardRanks[t]));
         }
 
         // Sorting in non-ascending order of rank
@@ -242,119 +229,70 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
      * @pre All parent tasks are already scheduled
      */
     private void allocateTask(Task task) {
-        CondorVM chosenVM = null;
+        int t = costModel.indexOf(task);
+        forEachIndex(costModel.getVmCount(), v -> evaluateCandidate(t, v));
+
+        // the first VM with the earliest finish time wins, as in a sequential sweep
+        int chosenVM = -1;
         double earliestFinishTime = Double.MAX_VALUE;
         double bestReadyTime = 0.1;
-        double finishTime;
-
-        for (CondorVM vm : getVmList()) {
-            double minReadyTime = 0.1;
-            for (Task parent : task.getParentList()) {
-                double readyTime = earliestFinishTimes.get(parent);
-                if (parent.getVmId() != vm.getId()) {
-                    readyTime += transferCosts.get(parent).get(task);
-                }
-                minReadyTime = Math.max(minReadyTime, readyTime);
-            }
-
-            finishTime = findFinishTime(task, vm, minReadyTime, false);
-
-            if (finishTime < earliestFinishTime) {
-                bestReadyTime = minReadyTime;
-                earliestFinishTime = finishTime;
-                chosenVM = vm;
+        for (int v = 0; v < costModel.getVmCount(); v++) {
+            if (candidateFinishTimes[v] < earliestFinishTime) {
+                bestReadyTime = candidateReadyTimes[v];
+                earliestFinishTime = candidateFinishTimes[v];
+                chosenVM = v;
             }
         }
 
-        findFinishTime(task, chosenVM, bestReadyTime, true);
-        earliestFinishTimes.put(task, earliestFinishTime);
+        assert chosenVM >= 0;
+        findFinishTime(t, chosenVM, bestReadyTime, true);
+        earliestFinishTimes[t] = earliestFinishTime;
 
-        assert chosenVM != null;
-        task.setVmId(chosenVM.getId());
+        task.setVmId(costModel.getVm(chosenVM).getId());
         taskOrders.add(task.getCloudletId());
     }
 
+    /**
+     * Computes the ready time and the finish time of a task on a VM, without
+     * reserving the slot.
+     *
+     * @param t The index of the task
+     * @param v The index of the vm
+     */
+    private void evaluateCandidate(int t, int v) {
+        int vmId = costModel.getVm(v).getId();
+        double minReadyTime = 0.1;
+        for (int e = costModel.getParentStart(t); e < costModel.getParentEnd(t); e++) {
+            int parent = costModel.getParent(e);
+            double readyTime = earliestFinishTimes[parent];
+            if (costModel.getTask(parent).getVmId() != vmId) {
+                readyTime += costModel.getParentTransferCost(e);
+            }
+            minReadyTime = Math.max(minReadyTime, readyTime);
+        }
+        candidateReadyTimes[v] = minReadyTime;
+        candidateFinishTimes[v] = findFinishTime(t, v, minReadyTime, false);
+    }
+
     /**
      * Finds the best time slot available to minimize the finish time of the given
      * task in the vm with the constraint of not scheduling it before readyTime. If
      * occupySlot is true, reserves the time slot in the schedule.
      *
-     * @param task       The task to have the time slot reserved
-     * @param vm         The vm that will execute the task
+     * @param t          The index of the task to have the time slot reserved
+     * @param v          The index of the vm that will execute the task
      * @param readyTime  The first moment that the task is available to be scheduled
      * @param occupySlot If true, reserves the time slot in the schedule.
      * @return The minimal finish time of the task in the vmn
      */
-    private double findFinishTime(Task task, CondorVM vm, double readyTime, boolean occupySlot) {
-        List<Event> currentVmSchedules = schedules.get(vm);
-        double computationCost = computationCosts.get(task).get(vm);
-        double startTime, finishTime;
-        int index;
-
-        if (currentVmSchedules.isEmpty()) {
-            if (occupySlot) {
-                currentVmSchedules.add(new Event(task, readyTime, readyTime + computationCost));
-            }
-            return readyTime + computationCost;
-        }
-
-        if (currentVmSchedules.size() == 1) {
-            if (readyTime >= currentVmSchedules.get(0).finishTime) {
-                index = 1;
-                startTime = readyTime;
-            } else if (readyTime + computationCost <= currentVmSchedules.get(0).startTime) {
-                index = 0;
-                startTime = readyTime;
-            } else {
-                index = 1;
-                startTime = currentVmSchedules.get(0).finishTime;
-            }
-
-            if (occupySlot) {
-                currentVmSchedules.add(index, new Event(task, startTime, startTime + computationCost));
-            }
-            return startTime + computationCost;
-        }
-
-        // Trivial case: Start after the latest task scheduled
-        startTime = Math.max(readyTime, currentVmSchedules.get(currentVmSchedules.size() - 1).finishTime);
-        finishTime = startTime + computationCost;
-        int currentIndex = currentVmSchedules.size() - 1;
-        int previousIndex = currentVmSchedules.size() - 2;
-        index = currentIndex + 1;
-        while (previousIndex >= 0) {
-            Event currentEvent = currentVmSchedules.get(currentIndex);
-            Event previousEvent = currentVmSchedules.get(previousIndex);
-
-            if (readyTime > previousEvent.finishTime) {
-                if (readyTime + computationCost <= currentEvent.startTime) {
-                    startTime = readyTime;
-                    finishTime = readyTime + computationCost;
-                }
-                break;
-            }
-            if (previousEvent.finishTime + computationCost <= currentEvent.startTime) {
-                startTime = previousEvent.finishTime;
-                finishTime = previousEvent.finishTime + computationCost;
-                index = currentIndex;
-            }
-            currentIndex--;
-            previousIndex--;
-        }
-
-        if (readyTime + computationCost <= currentVmSchedules.get(0).startTime) {
-            index = 0;
-            startTime = readyTime;
-
-            if (occupySlot) {
-                currentVmSchedules.add(index, new Event(task, startTime, startTime + computationCost));
-            }
-            return startTime + computationCost;
-        }
-        if (occupySlot) {
-            currentVmSchedules.add(index, new Event(task, startTime, finishTime));
+    private double findFinishTime(int t, int v, double readyTime, boolean occupySlot) {
+        double computationCost = costModel.getComputationCost(t, v);
+        if (!occupySlot) {
+            return gapIndexes[v].findStartTime(readyTime, computationCost) + computationCost;
         }
-        return finishTime;
+        double startTime = gapIndexes[v].occupy(readyTime, computationCost);
+        schedules.get(costModel.getVm(v)).add(new Event(costModel.getTask(t), startTime, startTime + computationCost));
+        return startTime + computationCost;
     }
 
     private void print() {
@@ -388,17 +326,17 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
 
     private void printComputationCosts() {
         System.out.println("Calculate Computation Costs of Each Task to Every VMs");
-        for (Map.Entry<Task, Map<CondorVM, Double>> tasks : computationCosts.entrySet()) {
-            Task task = tasks.getKey();
+        for (int t = 0; t < costModel.getTaskCount(); t++) {
+            Task task = costModel.getTask(t);
             int taskId = task.getCloudletId();
             double taskLength = task.getCloudletTotalLength();
             System.out.println("Task ID: " + taskId);
             System.out.println("Cloudlet Length: " + taskLength);
-            for (Map.Entry<CondorVM, Double> vms : tasks.getValue().entrySet()) {
-                CondorVM vm = vms.getKey();
+            for (int v = 0; v < costModel.getVmCount(); v++) {
+                CondorVM vm = costModel.getVm(v);
                 int vmId = vm.getId();
                 double mips = vm.getMips();
-                double computationCost = vms.getValue();
+                double computationCost = costModel.getComputationCost(t, v);
                 System.out.println("VM ID: " + vmId + " MIPS: " + mips);
                 System.out.println("Computation Cost (Length / MIPS): " + computationCost);
             }
@@ -408,14 +346,14 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
 
     private void printTransferCosts() {
         System.out.println("Calculate Time Taken in Transferring Files from Each Parent to Children");
-        for (Map.Entry<Task, Map<Task, Double>> parentTasks : transferCosts.entrySet()) {
-            Task parentTask = parentTasks.getKey();
+        for (int t = 0; t < costModel.getTaskCount(); t++) {
+            Task parentTask = costModel.getTask(t);
             int parentTaskId = parentTask.getCloudletId();
             System.out.println("Parent Task ID: " + parentTaskId);
-            for (Map.Entry<Task, Double> childTasks : parentTasks.getValue().entrySet()) {
-                Task childTask = childTasks.getKey();
+            for (int e = costModel.getChildStart(t); e < costModel.getChildEnd(t); e++) {
+                Task childTask = costModel.getTask(costModel.getChild(e));
                 int childTaskId = childTask.getCloudletId();
-                double transferCost = childTasks.getValue();
+                double transferCost = costModel.getChildTransferCost(e);
                 if (transferCost == 0)
                     continue;
                 System.out.println("Child Task ID: " + childTaskId);
@@ -427,10 +365,10 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
 
     private void printTaskRanks() {
         System.out.println("Calculate Rank of Each Task");
-        for (Map.Entry<Task, Double> ranks : rank.entrySet()) {
-            Task task = ranks.getKey();
+        for (int t : rankOrder) {
+            Task task = costModel.getTask(t);
             int taskId = task.getCloudletId();
-            double rank = ranks.getValue();
+            double rank = upwardRanks[t];
             System.out.println("Task Id: " + taskId);
             System.out.println("Rank (average computation cost + max transfer cost): " + rank);
             System.out.println();
@@ -443,7 +381,9 @@ public class HEFTPlanningAlgorithm extends BasePlanningAlgorithm {
             CondorVM vm = schedule.getKey();
             int vmId = vm.getId();
             System.out.println("VM ID: " + vmId);
-            List<Event> events = schedule.getValue();
+            // the events are kept in the order they were planned
+            List<Event> events = new ArrayList<>(schedule.getValue());
+            Collections.sort(events);
             for (Event event : events) {
                 Task task = event.task;
                 int taskId = task.getCloudletId();
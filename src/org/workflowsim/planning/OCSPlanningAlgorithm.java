@@ -2,61 +2,85 @@ package org.workflowsim.planning;
 
 import org.cloudbus.cloudsim.Log;
 import org.workflowsim.*;
+import org.workflowsim.utils.PortSlotAllocator;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
 
-    private final Map<Task, Map<CondorVM, Double>> computationCosts;
-    private final Map<Task, Map<Task, Double>> transferCosts;
+    private PlanningCostModel costModel;
     private static final List<Integer> taskOrders = new ArrayList<>();
-    private final Map<Task, Double> rank;
     private final Map<CondorVM, List<Event>> schedules;
-    private final Map<Task, Double> earliestFinishTimes;
+    private GapIndex[] gapIndexes;
+    private double[] earliestFinishTimes;
     private double averageBandwidth;
 
     private List<List<Task>> paths;
     private List<TaskPath> pathCosts;
     private List<Task> criticalPath;
-    private final Set<Double> eventTimes;
+    private final PortSlotAllocator timeSlots;
     private Set<Task> scheduledTasks;
 
+    /**
+     * The most paths from the entry tasks to the exit tasks that are
+     * enumerated; a workflow with more is planned along chains of its heaviest
+     * paths.
+     */
+    private static int pathBudget = 10_000;
+
     public OCSPlanningAlgorithm() {
-        computationCosts = new LinkedHashMap<>();
-        transferCosts = new LinkedHashMap<>();
-        rank = new LinkedHashMap<>();
-        earliestFinishTimes = new LinkedHashMap<>();
         schedules = new LinkedHashMap<>();
         paths = new ArrayList<>();
         pathCosts = new ArrayList<>();
         criticalPath = new ArrayList<>();
-        eventTimes = new HashSet<>();
+        timeSlots = new PortSlotAllocator();
         scheduledTasks = new HashSet<>();
     }
 
+    /**
+     * Sets the most paths from the entry tasks to the exit tasks that are
+     * enumerated.
+     *
+     * @param budget the number of paths
+     */
+    public static void setPathBudget(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("the path budget must be positive");
+        }
+        pathBudget = budget;
+    }
+
     @Override
     public void run() throws Exception {
         Log.printLine("OCS planner running with " + getTaskList().size() + " tasks.");
 
         averageBandwidth = calculateAverageBandwidth();
 
+        // the orders of a previous workflow are not kept
+        taskOrders.clear();
         for (CondorVM vm : getVmList()) {
             schedules.put(vm, new ArrayList<>());
         }
 
         // Prioritization phase
-        calculateComputationCosts();
-        calculateTransferCosts();
-        //calculateRanks();
-        paths = findAllPaths();
-        pathCosts = calculatePathCost(paths);
+        costModel = new PlanningCostModel(getTopologicalOrder(), getVmList());
+        earliestFinishTimes = new double[costModel.getTaskCount()];
+        gapIndexes = new GapIndex[costModel.getVmCount()];
+        for (int v = 0; v < gapIndexes.length; v++) {
+            gapIndexes[v] = new GapIndex();
+        }
+        pathCosts = findPathCosts();
         Collections.sort(pathCosts);
-        System.out.println("path cost: " + pathCosts);
-        System.out.println("critical path: " + criticalPath);
+        // the paths of a large workflow are too many to print
+        Log.debug(() -> "paths: " + pathCosts.size() + ", costliest: " + (pathCosts.isEmpty() ? "none" : pathCosts.get(0)));
+        Log.debug(() -> "critical path: " + criticalPath);
         calculateSchedulingTime(pathCosts);
-        for (Task task : getTaskList()) {
-            System.out.println("id: " + task + " start: " + task.getEstimatedStartTime() + " finish: " + task.getEstimatedFinishTime());
+        estimateRemainingTasks();
+        if (Log.isDebugEnabled()) {
+            for (Task task : getTaskList()) {
+                Log.printLine("id: " + task + " start: " + task.getEstimatedStartTime() + " finish: " + task.getEstimatedFinishTime());
+            }
         }
         // Selection phase
         allocateTasks();
@@ -64,65 +88,152 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
         setTaskOrders(taskOrders);
     }
 
-    private List<List<Task>> findAllPaths() {
-        List<List<Task>> preprocessPaths = new ArrayList<>();
-        List<List<Task>> pathsWithMultipleExits = new ArrayList<>();
-        List<List<Task>> validPaths = new ArrayList<>();
-        List<Task> roots = getTaskList()
-                .stream()
-                .filter(task -> task.getParentList().isEmpty())
-                .toList();
+    /**
+     * Finds the paths the tasks are estimated along, with their costs. When
+     * there are no more paths from the entry tasks to the exit tasks than the
+     * path budget, they are all enumerated; otherwise the tasks are split into
+     * chains along the heaviest paths.
+     */
+    private List<TaskPath> findPathCosts() {
+        if (countPaths() <= pathBudget) {
+            paths = enumeratePaths();
+            return calculatePathCost(paths);
+        }
+        Log.printLine("OCS planner: more than " + pathBudget + " paths, planning along the heaviest paths.");
+        List<TaskPath> chains = findHeaviestChains();
+        paths = new ArrayList<>(chains.size());
+        for (TaskPath chain : chains) {
+            paths.add(chain.getPath());
+        }
+        return chains;
+    }
 
-        for (Task root : roots) {
-            for (Task child : root.getChildList()) {
-                preprocessPaths.add(findPath(new ArrayList<>(List.of(root, child)), child));
+    /**
+     * Counts the paths from the entry tasks to the exit tasks, up to one more
+     * than the path budget.
+     */
+    private long countPaths() {
+        TopologicalOrder order = costModel.getTopologicalOrder();
+        long[] counts = new long[costModel.getTaskCount()];
+        long total = 0;
+        for (int position = order.size() - 1; position >= 0; position--) {
+            int t = costModel.indexOf(order.get(position));
+            long count = costModel.getChildStart(t) == costModel.getChildEnd(t) ? 1 : 0;
+            for (int e = costModel.getChildStart(t); e < costModel.getChildEnd(t); e++) {
+                count = Math.min(count + counts[costModel.getChild(e)], pathBudget + 1L);
             }
-        }
-
-        for (List<Task> path : preprocessPaths) {
-            int numberOfExitTask = 0;
-            for (Task task : path) {
-                if (task.getChildList().isEmpty()) numberOfExitTask++;
+            counts[t] = count;
+            if (costModel.getParentStart(t) == costModel.getParentEnd(t)) {
+                total = Math.min(total + count, pathBudget + 1L);
             }
-            if (numberOfExitTask > 1) pathsWithMultipleExits.add(path);
-            else validPaths.add(path);
         }
+        return total;
+    }
 
-        // [1, 2, 8, 10, 9, 10]
-        //[1, 5, 11, 12, 13, 17, 18, 19, 20, 14, 17, 18, 19, 20, 15, 17, 18, 19, 20, 16, 17, 18, 19, 20]
-        // 1 5 11 12 13 17 18 21 13 17 19 21 13 17 20 21 14 17 18 21 14 17 19 21 14 17 20 21 15 17 18 21 15 17 19 21 15 17 20 21
-        for (List<Task> path : pathsWithMultipleExits) {
-            Task root = path.get(0);
-            int startIndex = 1;
-            Task currentTask = path.get(startIndex);
-            System.out.println(path);
-            List<Task> pathBeforeMultipleBranches = new ArrayList<>(List.of(root, currentTask));
-            while (currentTask.getChildList().size() == 1) {
-                currentTask = currentTask.getChildList().get(0);
-                pathBeforeMultipleBranches.add(currentTask);
-                startIndex++;
+    /**
+     * Enumerates the paths from the entry tasks to the exit tasks, depth first
+     * from the entry tasks in list order.
+     */
+    private List<List<Task>> enumeratePaths() {
+        int taskCount = costModel.getTaskCount();
+        List<List<Task>> validPaths = new ArrayList<>();
+        int[] stack = new int[taskCount];
+        int[] nextEdges = new int[taskCount];
+        for (int root = 0; root < taskCount; root++) {
+            if (costModel.getParentStart(root) != costModel.getParentEnd(root)) {
+                continue;
             }
-            List<Task> newPath = new ArrayList<>(List.copyOf(pathBeforeMultipleBranches));
-            for (int i = startIndex + 1; i < path.size(); i++) {
-                Task nextTask = path.get(i);
-                if (nextTask.getParentList().contains(newPath.get(newPath.size() - 1))) {
-                    newPath.add(nextTask);
-                }
-                if (nextTask.getChildList().isEmpty()) {
-                    validPaths.add(newPath);
-                    newPath = new ArrayList<>(List.copyOf(pathBeforeMultipleBranches));
+            stack[0] = root;
+            nextEdges[0] = costModel.getChildStart(root);
+            for (int top = 0; top >= 0; ) {
+                int t = stack[top];
+                if (costModel.getChildStart(t) == costModel.getChildEnd(t)) {
+                    List<Task> path = new ArrayList<>(top + 1);
+                    for (int i = 0; i <= top; i++) {
+                        path.add(costModel.getTask(stack[i]));
+                    }
+                    validPaths.add(path);
+                    top--;
+                } else if (nextEdges[top] == costModel.getChildEnd(t)) {
+                    top--;
+                } else {
+                    int child = costModel.getChild(nextEdges[top]++);
+                    top++;
+                    stack[top] = child;
+                    nextEdges[top] = costModel.getChildStart(child);
                 }
             }
         }
         return validPaths;
     }
 
-    private List<Task> findPath(List<Task> path, Task task) {
-        for (Task child : task.getChildList()) {
-            path.add(child);
-            findPath(path, child);
+    /**
+     * Splits the tasks into chains, from the task with the costliest path from
+     * an entry task to an exit task through it to the one with the cheapest.
+     * The chain of a task that is not on a chain yet follows that path, both
+     * ways, as long as its tasks are not on a chain either, and costs as much
+     * as the whole path. The first chain is the critical path, and every task
+     * is on exactly one chain, so the chains take O(V + E) time and memory
+     * however many paths the workflow has.
+     */
+    private List<TaskPath> findHeaviestChains() {
+        TopologicalOrder order = costModel.getTopologicalOrder();
+        int taskCount = costModel.getTaskCount();
+        // the costliest path from an entry task to the start of each task, and from its start to an exit task
+        double[] heads = new double[taskCount];
+        double[] tails = new double[taskCount];
+        int[] heaviestParents = new int[taskCount];
+        int[] heaviestChildren = new int[taskCount];
+        Integer[] tasks = new Integer[taskCount];
+        for (int position = 0; position < taskCount; position++) {
+            int t = costModel.indexOf(order.get(position));
+            tasks[position] = t;
+            heaviestParents[t] = -1;
+            for (int e = costModel.getParentStart(t); e < costModel.getParentEnd(t); e++) {
+                int parent = costModel.getParent(e);
+                double head = heads[parent] + costModel.getAverageComputationCost(parent)
+                        + costModel.getParentTransferCost(e);
+                if (heaviestParents[t] < 0 || head > heads[t]) {
+                    heads[t] = head;
+                    heaviestParents[t] = parent;
+                }
+            }
+        }
+        for (int position = taskCount - 1; position >= 0; position--) {
+            int t = tasks[position];
+            double max = 0.0;
+            heaviestChildren[t] = -1;
+            for (int e = costModel.getChildStart(t); e < costModel.getChildEnd(t); e++) {
+                double tail = costModel.getChildTransferCost(e) + tails[costModel.getChild(e)];
+                if (heaviestChildren[t] < 0 || tail > max) {
+                    max = tail;
+                    heaviestChildren[t] = costModel.getChild(e);
+                }
+            }
+            tails[t] = costModel.getAverageComputationCost(t) + max;
+        }
+        // the sort is stable, so equal costs keep the topological order
+        Arrays.sort(tasks, (t1, t2) -> Double.compare(heads[t2] + tails[t2], heads[t1] + tails[t1]));
+
+        List<TaskPath> chains = new ArrayList<>();
+        boolean[] chained = new boolean[taskCount];
+        for (int t : tasks) {
+            if (chained[t]) {
+                continue;
+            }
+            List<Task> chain = new ArrayList<>();
+            for (int current = t; current >= 0 && !chained[current]; current = heaviestParents[current]) {
+                chain.add(costModel.getTask(current));
+                chained[current] = true;
+            }
+            Collections.reverse(chain);
+            for (int current = heaviestChildren[t]; current >= 0 && !chained[current]; current = heaviestChildren[current]) {
+                chain.add(costModel.getTask(current));
+                chained[current] = true;
+            }
+            chains.add(new TaskPath(chain, heads[t] + tails[t]));
         }
-        return path;
+        return chains;
     }
 
     private List<TaskPath> calculatePathCost(List<List<Task>> paths) {
@@ -132,9 +243,11 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
             for (int i = 0; i < path.size() - 1; i++) {
                 Task parent = path.get(i);
                 Task child = path.get(i + 1);
-                double parentCost = getAverageComputationCost(computationCosts.get(parent).values());
-                double childCost = getAverageComputationCost(computationCosts.get(child).values());
-                double transferCost = transferCosts.get(parent).get(child);
+                int p = costModel.indexOf(parent);
+                int c = costModel.indexOf(child);
+                double parentCost = costModel.getAverageComputationCost(p);
+                double childCost = costModel.getAverageComputationCost(c);
+                double transferCost = costModel.getTransferCost(p, c);
                 cost += parentCost + transferCost;
                 if (child.getChildList().isEmpty()) {
                     cost += childCost;
@@ -145,10 +258,6 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
         return pathCosts;
     }
 
-    private double getAverageComputationCost(Collection<Double> costs) {
-        return costs.stream().mapToDouble(Double::doubleValue).sum() / costs.size();
-    }
-
     private void calculateSchedulingTime(List<TaskPath> pathCosts) {
         // TODO: create an arraylist to keep track of the scheduling order
         for (TaskPath pathCost : pathCosts) {
@@ -195,7 +304,7 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
         List<List<Task>> reIndexTasks = findReIndexedTasks(siblings);
         // TODO: find scheduling time of each re-index tasks by including its child node
         // TODO: set final estimation to the combination that has the lowest makespan (finish time)
-        System.out.println(reIndexTasks);
+        Log.debug(() -> String.valueOf(reIndexTasks));
     }
 
     private List<List<Task>> findReIndexedTasks(List<Task> siblings) {
@@ -213,24 +322,37 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
         return reIndexedTasks;
     }
 
+    /**
+     * Estimates sibling tasks in the arrangement whose last task finishes
+     * first. The parents of the siblings are all estimated, and a tentative
+     * estimate does not reserve its event times, so the estimate of a sibling
+     * does not depend on the arrangement: the finish time of an arrangement is
+     * that of its last task alone. The best arrangement is thus found with one
+     * estimate per sibling instead of trying every permutation. Of the
+     * siblings that finish first, the last one in the list goes last, and the
+     * others keep their order, which is the first such permutation in
+     * lexicographic order.
+     */
     private void estimateTaskPermutationSchedulingTime(List<Task> siblings) {
-        List<List<Task>> taskPermutation = findTaskPermutation(siblings);
-        List<Task> minTaskArrangement = new ArrayList<>();
-        double estimatedFinishTime;
+        int last = -1;
         double minEstimatedFinishTime = Double.MAX_VALUE;
-        for (List<Task> taskArrangement : taskPermutation) {
-            for (Task task : taskArrangement) {
-                estimateSchedulingTime(task, false);
-            }
-            estimatedFinishTime = taskArrangement.get(taskArrangement.size() - 1).getEstimatedFinishTime();
-            if (estimatedFinishTime < minEstimatedFinishTime) {
+        for (int i = 0; i < siblings.size(); i++) {
+            estimateSchedulingTime(siblings.get(i), false);
+            double estimatedFinishTime = siblings.get(i).getEstimatedFinishTime();
+            if (estimatedFinishTime < Double.MAX_VALUE && estimatedFinishTime <= minEstimatedFinishTime) {
                 minEstimatedFinishTime = estimatedFinishTime;
-                minTaskArrangement = taskArrangement;
+                last = i;
             }
         }
-        for (Task task : minTaskArrangement) {
-            estimateSchedulingTime(task, true);
+        if (last < 0) {
+            return;
+        }
+        for (int i = 0; i < siblings.size(); i++) {
+            if (i != last) {
+                estimateSchedulingTime(siblings.get(i), true);
+            }
         }
+        estimateSchedulingTime(siblings.get(last), true);
     }
 
     private boolean isReadyToFindTaskPriority(List<Task> tasks) {
@@ -243,27 +365,6 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
         return true;
     }
 
-    private List<List<Task>> findTaskPermutation(List<Task> tasks) {
-        List<List<Task>> taskPermutation = new ArrayList<>();
-        permute(taskPermutation, new ArrayList<>(), tasks);
-        return taskPermutation;
-    }
-
-    private void permute(List<List<Task>> taskPermutation, List<Task> currentArrangement, List<Task> tasks) {
-        if (currentArrangement.size() == tasks.size()) {
-            taskPermutation.add(new ArrayList<>(currentArrangement));
-        } else {
-            for (int i = 0; i < tasks.size(); i++) {
-                if (currentArrangement.contains(tasks.get(i))) {
-                    continue;
-                }
-                currentArrangement.add(tasks.get(i));
-                permute(taskPermutation, currentArrangement, tasks);
-                currentArrangement.remove(currentArrangement.size() - 1);
-            }
-        }
-    }
-
     private void estimateSchedulingTime(Task task, boolean allocateTimeSlot) {
         double startTime = Double.MIN_VALUE;
         double finishTime;
@@ -271,14 +372,16 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
             startTime = Math.max(startTime, parent.getEstimatedFinishTime());
         }
         if (startTime == Double.MIN_VALUE) startTime = 0.1;
-        finishTime = startTime + getAverageComputationCost(computationCosts.get(task).values());
-        while (eventTimes.contains(startTime) || eventTimes.contains(finishTime)) {
-            startTime += task.getSendingLatency();
-            finishTime += task.getSendingLatency();
+        finishTime = startTime + costModel.getAverageComputationCost(costModel.indexOf(task));
+        // without a latency to shift by, a task keeps a reserved event time
+        double latency = task.getSendingLatency();
+        if (latency > 0) {
+            long steps = timeSlots.stepsToFreeSlot(startTime, finishTime, latency);
+            startTime += steps * latency;
+            finishTime += steps * latency;
         }
         if (allocateTimeSlot) {
-            eventTimes.add(startTime);
-            eventTimes.add(finishTime);
+            timeSlots.occupy(startTime, finishTime);
             task.setEstimated(true);
         }
         task.setEstimatedStartTime(startTime);
@@ -299,113 +402,54 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
     }
 
     /**
-     * Populates the computationCosts field with the time in seconds to compute a
-     * task in a vm.
+     * Estimates, in topological order, the tasks that no path estimated.
      */
-    private void calculateComputationCosts() {
-        for (Task task : getTaskList()) {
-            Map<CondorVM, Double> costsVm = new HashMap<>();
-            for (CondorVM vm : getVmList()) {
-                if (vm.getNumberOfPes() < task.getNumberOfPes()) {
-                    costsVm.put(vm, Double.MAX_VALUE);
-                } else {
-                    costsVm.put(vm, task.getCloudletTotalLength() / vm.getMips());
-                }
+    private void estimateRemainingTasks() {
+        TopologicalOrder order = costModel.getTopologicalOrder();
+        for (int position = 0; position < order.size(); position++) {
+            Task task = order.get(position);
+            if (!task.isEstimated()) {
+                estimateSchedulingTime(task, true);
             }
-            computationCosts.put(task, costsVm);
         }
     }
 
     /**
-     * Populates the transferCosts map with the time in seconds to transfer all
-     * files from each parent to each child
+     * Allocates all tasks to be scheduled in the order of their estimated start
+     * times, each one once all of its parents are allocated. Tasks estimated to
+     * start at the same time keep the topological order.
      */
-    private void calculateTransferCosts() {
-        // Initializing the matrix
-        for (Task task1 : getTaskList()) {
-            Map<Task, Double> taskTransferCosts = new HashMap<>();
-            for (Task task2 : getTaskList()) {
-                taskTransferCosts.put(task2, 0.0);
+    private void allocateTasks() {
+        TopologicalOrder order = costModel.getTopologicalOrder();
+        int taskCount = costModel.getTaskCount();
+        int[] positions = new int[taskCount];
+        for (int position = 0; position < taskCount; position++) {
+            positions[costModel.indexOf(order.get(position))] = position;
+        }
+        PriorityQueue<Integer> readyTasks = new PriorityQueue<>((t1, t2) -> {
+            int byStartTime = Double.compare(costModel.getTask(t1).getEstimatedStartTime(),
+                    costModel.getTask(t2).getEstimatedStartTime());
+            return byStartTime != 0 ? byStartTime : Integer.compare(positions[t1], positions[t2]);
+        });
+        int[] waitingParents = new int[taskCount];
+        for (int t = 0; t < taskCount; t++) {
+            waitingParents[t] = costModel.getParentEnd(t) - costModel.getParentStart(t);
+            if (waitingParents[t] == 0) {
+                readyTasks.add(t);
             }
-            transferCosts.put(task1, taskTransferCosts);
         }
-
-        // Calculating the actual values
-        for (Task parent : getTaskList()) {
-            for (Task child : parent.getChildList()) {
-                transferCosts.get(parent).put(child, calculateStaticTransferCost(parent, child));
+        while (!readyTasks.isEmpty()) {
+            int t = readyTasks.poll();
+            allocateTask(costModel.getTask(t));
+            for (int e = costModel.getChildStart(t); e < costModel.getChildEnd(t); e++) {
+                int child = costModel.getChild(e);
+                if (--waitingParents[child] == 0) {
+                    readyTasks.add(child);
+                }
             }
         }
     }
 
-    /**
-     * Accounts the time in seconds necessary to transfer all files described
-     * between parent and child (as statically defined in DAG)
-     *
-     * @param parent parent task
-     * @param child  child task
-     * @return Transfer cost in seconds
-     */
-    private double calculateStaticTransferCost(Task parent, Task child) {
-        return child.getTransferCosts().isEmpty() ? 0 : child.getTransferCosts().get(parent.getCloudletId());
-    }
-
-    /**
-     * Invokes calculateRank for each task to be scheduled
-     */
-    private void calculateRanks() {
-        for (Task task : getTaskList()) {
-            calculateRank(task);
-        }
-    }
-
-    /**
-     * Populates rank.get(task) with the rank of task as defined in the HEFT paper.
-     *
-     * @param task The task have the rank calculates
-     * @return The rank
-     */
-    private double calculateRank(Task task) {
-//        System.out.print(task.getCloudletId()+" ");
-        if (rank.containsKey(task)) {
-            return rank.get(task);
-        }
-
-        double averageComputationCost = 0.0;
-
-        for (Double cost : computationCosts.get(task).values()) {
-            averageComputationCost += cost;
-        }
-
-        averageComputationCost /= computationCosts.get(task).size();
-
-        double max = 0.0;
-        for (Task child : task.getChildList()) {
-            double childCost = transferCosts.get(task).get(child) + calculateRank(child);
-            max = Math.max(max, childCost);
-        }
-
-        rank.put(task, averageComputationCost + max);
-
-        return rank.get(task);
-    }
-
-    /**
-     * Allocates all tasks to be scheduled in non-ascending order of schedule.
-     */
-    private void allocateTasks() {
-        List<TaskRank> taskRank = new ArrayList<>();
-        for (Task task : rank.keySet()) {
-            taskRank.add(new TaskRank(task, rank.get(task)));
-        }
-
-        // Sorting in non-ascending order of rank
-        Collections.sort(taskRank);
-        for (TaskRank rank : taskRank) {
-            allocateTask(rank.task);
-        }
-    }
-
     /**
      * Schedules the task given in one of the VMs minimizing the earliest finish
      * time
@@ -414,35 +458,38 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
      * @pre All parent tasks are already scheduled
      */
     private void allocateTask(Task task) {
-        CondorVM chosenVM = null;
+        int t = costModel.indexOf(task);
+        int chosenVM = -1;
         double earliestFinishTime = Double.MAX_VALUE;
         double bestReadyTime = 0.1;
         double finishTime;
 
-        for (CondorVM vm : getVmList()) {
+        for (int v = 0; v < costModel.getVmCount(); v++) {
+            int vmId = costModel.getVm(v).getId();
             double minReadyTime = 0.1;
-            for (Task parent : task.getParentList()) {
-                double readyTime = earliestFinishTimes.get(parent);
-                if (parent.getVmId() != vm.getId()) {
-                    readyTime += transferCosts.get(parent).get(task);
+            for (int e = costModel.getParentStart(t); e < costModel.getParentEnd(t); e++) {
+                int parent = costModel.getParent(e);
+                double readyTime = earliestFinishTimes[parent];
+                if (costModel.getTask(parent).getVmId() != vmId) {
+                    readyTime += costModel.getParentTransferCost(e);
                 }
                 minReadyTime = Math.max(minReadyTime, readyTime);
             }
 
-            finishTime = findFinishTime(task, vm, minReadyTime, false);
+            finishTime = findFinishTime(t, v, minReadyTime, false);
 
             if (finishTime < earliestFinishTime) {
                 bestReadyTime = minReadyTime;
                 earliestFinishTime = finishTime;
-                chosenVM = vm;
+                chosenVM = v;
             }
         }
 
-        findFinishTime(task, chosenVM, bestReadyTime, true);
-        earliestFinishTimes.put(task, earliestFinishTime);
+        assert chosenVM >= 0;
+        findFinishTime(t, chosenVM, bestReadyTime, true);
+        earliestFinishTimes[t] = earliestFinishTime;
 
-        assert chosenVM != null;
-        task.setVmId(chosenVM.getId());
+        task.setVmId(costModel.getVm(chosenVM).getId());
         taskOrders.add(task.getCloudletId());
     }
 
@@ -451,82 +498,19 @@ public class OCSPlanningAlgorithm extends BasePlanningAlgorithm {
      * task in the vm with the constraint of not scheduling it before readyTime. If
      * occupySlot is true, reserves the time slot in the schedule.
      *
-     * @param task       The task to have the time slot reserved
-     * @param vm         The vm that will execute the task
+     * @param t          The index of the task to have the time slot reserved
+     * @param v          The index of the vm that will execute the task
      * @param readyTime  The first moment that the task is available to be scheduled
      * @param occupySlot If true, reserves the time slot in the schedule.
      * @return The minimal finish time of the task in the vmn
      */
-    private double findFinishTime(Task task, CondorVM vm, double readyTime, boolean occupySlot) {
-        List<Event> currentVmSchedules = schedules.get(vm);
-        double computationCost = computationCosts.get(task).get(vm);
-        double startTime, finishTime;
-        int index;
-
-        if (currentVmSchedules.isEmpty()) {
-            if (occupySlot) {
-                currentVmSchedules.add(new Event(task, readyTime, readyTime + computationCost));
-            }
-            return readyTime + computationCost;
-        }
-
-        if (currentVmSchedules.size() == 1) {
-            if (readyTime >= currentVmSchedules.get(0).finishTime) {
-                index = 1;
-                startTime = readyTime;
-            } else if (readyTime + computationCost <= currentVmSchedules.get(0).startTime) {
-                index = 0;
-                startTime = readyTime;
-            } else {
-                index = 1;
-                startTime = currentVmSchedules.get(0).finishTime;
-            }
-
-            if (occupySlot) {
-                currentVmSchedules.add(index, new Event(task, startTime, startTime + computationCost));
-            }
-            return startTime + computationCost;
-        }
-
-        // Trivial case: Start after the latest task scheduled
-        startTime = Math.max(readyTime, currentVmSchedules.get(currentVmSchedules.size() - 1).finishTime);
-        finishTime = startTime + computationCost;
-        int currentIndex = currentVmSchedules.size() - 1;
-        int previousIndex = currentVmSchedules.size() - 2;
-        index = currentIndex + 1;
-        while (previousIndex >= 0) {
-            Event currentEvent = currentVmSchedules.get(currentIndex);
-            Event previousEvent = currentVmSchedules.get(previousIndex);
-
-            if (readyTime > previousEvent.finishTime) {
-                if (readyTime + computationCost <= currentEvent.startTime) {
-                    startTime = readyTime;
-                    finishTime = readyTime + computationCost;
-                }
-
-                break;
-            }
-            if (previousEvent.finishTime + computationCost <= currentEvent.startTime) {
-                startTime = previousEvent.finishTime;
-                finishTime = previousEvent.finishTime + computationCost;
-                index = currentIndex;
-            }
-            currentIndex--;
-            previousIndex--;
-        }
-
-        if (readyTime + computationCost <= currentVmSchedules.get(0).startTime) {
-            index = 0;
-            startTime = readyTime;
-
-            if (occupySlot) {
-                currentVmSchedules.add(index, new Event(task, startTime, startTime + computationCost));
-            }
-            return startTime + computationCost;
-        }
-        if (occupySlot) {
-            currentVmSchedules.add(index, new Event(task, startTime, finishTime));
-        }
-        return finishTime;
+    private double findFinishTime(int t, int v, double readyTime, boolean occupySlot) {
+        double computationCost = costModel.getComputationCost(t, v);
+        if (!occupySlot) {
+            return gapIndexes[v].findStartTime(readyTime, computationCost) + computationCost;
+        }
+        double startTime = gapIndexes[v].occupy(readyTime, computationCost);
+        schedules.get(costModel.getVm(v)).add(new Event(costModel.getTask(t), startTime, startTime + computationCost));
+        return startTime + computationCost;
     }
 }
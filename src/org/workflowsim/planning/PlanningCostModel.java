@@ -0,0 +1,221 @@
+package org.workflowsim.planning;
+
+import java.util.Arrays;
+import java.util.List;
+import org.workflowsim.CondorVM;
+import org.workflowsim.Task;
+import org.workflowsim.TopologicalOrder;
+
+/**
+ * The costs a list scheduling planner works with, indexed by dense integers:
+ * task t is the t-th task of the workflow, as indexed by its
+ * {@link TopologicalOrder}, and VM v is the v-th VM of the planner.
+ *
+ * The computation costs, the time in seconds to run a task on a VM, are kept
+ * in one array of tasks x VMs. The transfer costs, the time in seconds to send
+ * the files of a parent to a child as given in the DAG, are only kept for the
+ * dependencies of the workflow, in compressed rows by parent and by child, so
+ * they take O(V + E) memory instead of a matrix of every pair of tasks.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class PlanningCostModel {
+
+    private final TopologicalOrder order;
+    private final List<CondorVM> vms;
+    private final int taskCount;
+    private final int vmCount;
+
+    /**
+     * The computation cost of task t on VM v is computationCosts[t * vmCount + v].
+     */
+    private final double[] computationCosts;
+    private final double[] averageComputationCosts;
+
+    /**
+     * The dependencies from parent t are the edges childIndex[t] to
+     * childIndex[t + 1] - 1, in the order of its child list.
+     */
+    private final int[] childIndex;
+    private final int[] children;
+    private final double[] childTransferCosts;
+
+    /**
+     * The dependencies to child t are the edges parentIndex[t] to
+     * parentIndex[t + 1] - 1, in the order of the parent indexes.
+     */
+    private final int[] parentIndex;
+    private final int[] parents;
+    private final double[] parentTransferCosts;
+
+    /**
+     * Computes the costs of a workflow.
+     *
+     * @param order the topological order of the workflow
+     * @param vms the VMs of the planner
+     */
+    public PlanningCostModel(TopologicalOrder order, List<CondorVM> vms) {
+        this.order = order;
+        this.vms = vms;
+        this.taskCount = order.size();
+        this.vmCount = vms.size();
+        List<Task> tasks = order.getTaskList();
+
+        this.computationCosts = new double[taskCount * vmCount];
+        this.averageComputationCosts = new double[taskCount];
+        for (int t = 0; t < taskCount; t++) {
+            Task task = tasks.get(t);
+            double sum = 0.0;
+            for (int v = 0; v < vmCount; v++) {
+                CondorVM vm = vms.get(v);
+                double cost = vm.getNumberOfPes() < task.getNumberOfPes()
+                        ? Double.MAX_VALUE : task.getCloudletTotalLength() / vm.getMips();
+                computationCosts[t * vmCount + v] = cost;
+                sum += cost;
+            }
+            averageComputationCosts[t] = sum / vmCount;
+        }
+
+        this.childIndex = new int[taskCount + 1];
+        for (int t = 0; t < taskCount; t++) {
+            for (Task child : tasks.get(t).getChildList()) {
+                if (order.indexOf(child) >= 0) {
+                    childIndex[t + 1]++;
+                }
+            }
+        }
+        for (int t = 0; t < taskCount; t++) {
+            childIndex[t + 1] += childIndex[t];
+        }
+        int edgeCount = childIndex[taskCount];
+        this.children = new int[edgeCount];
+        this.childTransferCosts = new double[edgeCount];
+        this.parentIndex = new int[taskCount + 1];
+        for (int t = 0, e = 0; t < taskCount; t++) {
+            Task parent = tasks.get(t);
+            for (Task child : parent.getChildList()) {
+                int c = order.indexOf(child);
+                if (c >= 0) {
+                    children[e] = c;
+                    childTransferCosts[e] = calculateStaticTransferCost(parent, child);
+                    parentIndex[c + 1]++;
+                    e++;
+                }
+            }
+        }
+        for (int t = 0; t < taskCount; t++) {
+            parentIndex[t + 1] += parentIndex[t];
+        }
+        this.parents = new int[edgeCount];
+        this.parentTransferCosts = new double[edgeCount];
+        int[] fill = Arrays.copyOf(parentIndex, taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            for (int e = childIndex[t]; e < childIndex[t + 1]; e++) {
+                int c = children[e];
+                parents[fill[c]] = t;
+                parentTransferCosts[fill[c]] = childTransferCosts[e];
+                fill[c]++;
+            }
+        }
+    }
+
+    /**
+     * Accounts the time in seconds necessary to transfer all files described
+     * between parent and child (as statically defined in DAG)
+     */
+    private static double calculateStaticTransferCost(Task parent, Task child) {
+        return child.getTransferCosts().isEmpty() ? 0 : child.getTransferCosts().get(parent.getCloudletId());
+    }
+
+    public TopologicalOrder getTopologicalOrder() {
+        return order;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public int getVmCount() {
+        return vmCount;
+    }
+
+    public Task getTask(int task) {
+        return order.getTaskList().get(task);
+    }
+
+    public CondorVM getVm(int vm) {
+        return vms.get(vm);
+    }
+
+    /**
+     * Gets the index of a task.
+     *
+     * @param task the task
+     * @return the index, or -1 if the task is not in the workflow
+     */
+    public int indexOf(Task task) {
+        return order.indexOf(task);
+    }
+
+    public double getComputationCost(int task, int vm) {
+        return computationCosts[task * vmCount + vm];
+    }
+
+    /**
+     * Gets the computation cost of a task averaged over the VMs.
+     *
+     * @param task the index of the task
+     * @return the average computation cost
+     */
+    public double getAverageComputationCost(int task) {
+        return averageComputationCosts[task];
+    }
+
+    /**
+     * Gets the transfer cost of a dependency.
+     *
+     * @param parent the index of the parent
+     * @param child the index of the child
+     * @return the transfer cost, or 0 if the child does not depend on the parent
+     */
+    public double getTransferCost(int parent, int child) {
+        for (int e = childIndex[parent]; e < childIndex[parent + 1]; e++) {
+            if (children[e] == child) {
+                return childTransferCosts[e];
+            }
+        }
+        return 0.0;
+    }
+
+    public int getChildStart(int task) {
+        return childIndex[task];
+    }
+
+    public int getChildEnd(int task) {
+        return childIndex[task + 1];
+    }
+
+    public int getChild(int edge) {
+        return children[edge];
+    }
+
+    public double getChildTransferCost(int edge) {
+        return childTransferCosts[edge];
+    }
+
+    public int getParentStart(int task) {
+        return parentIndex[task];
+    }
+
+    public int getParentEnd(int task) {
+        return parentIndex[task + 1];
+    }
+
+    public int getParent(int edge) {
+        return parents[edge];
+    }
+
+    public double getParentTransferCost(int edge) {
+        return parentTransferCosts[edge];
+    }
+}
@@ -0,0 +1,29 @@
+package org.workflowsim.scheduling;
+
+import java.util.List;
+
+/**
+ * Scores the candidates of the GA and PSO searches in a batch, instead of
+ * running each of them in the simulation one after the other.
+ *
+ * @see PopulationEvaluator
+ * @see ScheduleEvaluator
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public interface FitnessEvaluator {
+
+    /**
+     * Scores a population.
+     *
+     * @param schedules the job to VM assignment of each candidate, indexed by
+     *                  job id
+     * @return the time, energy and cost of each candidate, in the same order
+     * @throws Exception if a candidate cannot be scored
+     */
+    double[][] evaluate(List<int[]> schedules) throws Exception;
+
+    /**
+     * Releases the resources held by this evaluator.
+     */
+    void shutdown();
+}
@@ -34,8 +34,21 @@ public class GASchedulingAlgorithm {
 	public static int[] bestParent;
 	public static int initFlag=0;
 	public static List<Double> fitness=new ArrayList<Double>();
+	/**
+	 * The random generator of the search. Seed it with {@link #setSeed(long)} to repeat a run.
+	 */
+	private static Random random=new Random();
 	//public static List<Double> best_fitness=new ArrayList<Double>();
 	
+	/**
+	 * Seeds the random generator of the search.
+	 * 
+	 * @param seed the seed
+	 */
+	public static void setSeed(long seed) {
+		random=new Random(seed);
+	}
+	
 	public  static void initPopsRandomly(int taskNum1,int vmNum1)
 	{
 		taskNum=taskNum1;
@@ -48,7 +61,7 @@ public class GASchedulingAlgorithm {
 			int[] schedule=new int[taskNum];
 			for(int j=0;j<taskNum;j++)
 			{
-				schedule[j]=new Random().nextInt(vmNum);
+				schedule[j]=random.nextInt(vmNum);
 			}
 			schedules.add(schedule);
 		}
@@ -61,7 +74,7 @@ public class GASchedulingAlgorithm {
 			//selection phase:select two parents each time.
 			for(int i=0;i<2;i++)
 			{
-				double prob = new Random().nextDouble();
+				double prob = random.nextDouble();
 				for (int j = 0; j < schedules.size(); j++)
 				{
  					if (isBetween(prob, probSegments.get(j)))
@@ -78,9 +91,9 @@ public class GASchedulingAlgorithm {
 			p2 = tempParents.get(tempParents.size() -1).clone();
 			p2temp = tempParents.get(tempParents.size() -1).clone();
 			
-			if(new Random().nextDouble()<crossoverProb)
+			if(random.nextDouble()<crossoverProb)
 			{
-				int crossPosition = new Random().nextInt(taskNum+1);//生成的数字：0-->任务数-1
+				int crossPosition = random.nextInt(taskNum+1);//生成的数字：0-->任务数-1
 				//cross-over operation
 				for (int i = crossPosition; i < taskNum; i++)
 				{
@@ -98,7 +111,7 @@ public class GASchedulingAlgorithm {
 			//children.add(getFitness(p1temp) < getFitness(p1) ? p1temp : p1);//适应度低的作为children
 			//children.add(getFitness(p2temp) < getFitness(p2) ? p2temp : p2);	
 			// mutation phase.
-			if (new Random().nextDouble() < mutationRate&&children.size()>0)
+			if (random.nextDouble() < mutationRate&&children.size()>0)
 			{
 				// mutation operations bellow.
 				int maxIndex = children.size() - 1;
@@ -113,11 +126,11 @@ public class GASchedulingAlgorithm {
 	
 	public static void operateMutation(int []child) //变异
 	{
-		int mutationIndex = new Random().nextInt(taskNum);
-		int newVmId = new Random().nextInt(vmNum);
+		int mutationIndex = random.nextInt(taskNum);
+		int newVmId = random.nextInt(vmNum);
 		while (child[mutationIndex] == newVmId)
 		{
-			newVmId = new Random().nextInt(vmNum);
+			newVmId = random.nextInt(vmNum);
 		}
 
 		child[mutationIndex] = newVmId;
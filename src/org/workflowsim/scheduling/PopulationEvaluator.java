@@ -0,0 +1,168 @@
+package org.workflowsim.scheduling;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+/**
+ * Scores a population of GA chromosomes or PSO particles concurrently.
+ *
+ * Each worker thread owns a replica of the simulator: an isolated
+ * {@link SimulationContext}, in which the {@link ReplayScenario} is rebuilt and
+ * the candidates are replayed with {@link ScheduleReplay}. The population is
+ * cut into one contiguous slice per worker.
+ *
+ * Each candidate is replayed in a freshly built simulation, and its result is
+ * the time, energy and cost that
+ * {@link org.workflowsim.WorkflowEngine#caculatefitness()} reads from the
+ * controller at the end of that simulation. The candidate by candidate flow
+ * gets the same values for its first candidate; its later candidates run in a
+ * simulation that is reset to 0.1 but still holds the events and resource
+ * state left by the previous ones, so their scores depend on the order in
+ * which the population is evaluated.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public class PopulationEvaluator implements FitnessEvaluator {
+
+    /**
+     * the serialized scenario.
+     */
+    private final byte[] scenario;
+    /**
+     * the number of worker threads.
+     */
+    private final int threads;
+    /**
+     * the worker threads.
+     */
+    private final ExecutorService executor;
+    /**
+     * the replica owned by each worker thread.
+     */
+    private final ThreadLocal<SimulationContext> replicas = new ThreadLocal<>();
+    /**
+     * all the replicas, to be closed on shutdown.
+     */
+    private final List<SimulationContext> contexts = new ArrayList<>();
+
+    /**
+     * Creates an evaluator with one worker per available processor.
+     *
+     * @param scenario the scenario of the running simulation
+     */
+    public PopulationEvaluator(ReplayScenario scenario) {
+        this(scenario, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an evaluator.
+     *
+     * @param scenario the scenario of the running simulation
+     * @param threads the number of worker threads
+     */
+    public PopulationEvaluator(ReplayScenario scenario, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.scenario = serialize(scenario);
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "PopulationEvaluator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public double[][] evaluate(List<int[]> schedules) throws Exception {
+        int size = schedules.size();
+        double[][] results = new double[size][];
+        if (size == 0) {
+            return results;
+        }
+        int slices = Math.min(threads, size);
+        List<Future<double[][]>> futures = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            int from = (int) ((long) size * i / slices);
+            int to = (int) ((long) size * (i + 1) / slices);
+            int[][] slice = new int[to - from][];
+            for (int j = from; j < to; j++) {
+                slice[j - from] = schedules.get(j).clone();
+            }
+            futures.add(executor.submit(() -> replay(slice)));
+        }
+        int index = 0;
+        for (Future<double[][]> future : futures) {
+            try {
+                for (double[] result : future.get()) {
+                    results[index++] = result;
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stops the worker threads and releases their replicas.
+     */
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+        synchronized (contexts) {
+            for (SimulationContext context : contexts) {
+                context.close();
+            }
+            contexts.clear();
+        }
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return the number of worker threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Replays a slice of the population in the replica of the current thread.
+     *
+     * @param schedules the slice
+     * @return the time, energy and cost of each candidate of the slice
+     * @throws Exception if the replica fails
+     */
+    private double[][] replay(int[][] schedules) throws Exception {
+        SimulationContext replica = replicas.get();
+        if (replica == null) {
+            replica = SimulationContext.create();
+            replicas.set(replica);
+            synchronized (contexts) {
+                contexts.add(replica);
+            }
+        }
+        return (double[][]) replica.invoke(ScheduleReplay.class.getName(), "replay",
+                new Class<?>[]{byte[].class, int[][].class}, scenario, schedules);
+    }
+
+    private static byte[] serialize(ReplayScenario scenario) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(scenario);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("the scenario cannot be serialized", e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -31,6 +31,19 @@ public class PsoScheduling {
 	public static double[] v;
 	public static int taskNum;
 	public static int vmNum;
+	/**
+	 * The random generator of the search. Seed it with {@link #setSeed(long)} to repeat a run.
+	 */
+	private static Random random=new Random();
+	
+	/**
+	 * Seeds the random generator of the search.
+	 * 
+	 * @param seed the seed
+	 */
+	public static void setSeed(long seed) {
+		random=new Random(seed);
+	}
 	
 	public static void init(int jobNum,int maxVmNum) {
 		pbest_fitness=new double[particleNum];
@@ -44,9 +57,9 @@ public class PsoScheduling {
 				double[] v=new double[taskNum];
 				for(int j=0;j<taskNum;j++)
 				{
-					x[j]=new Random().nextInt(vmNum);
+					x[j]=random.nextInt(vmNum);
 					pbestSchedule[j]=x[j];
-					v[j]=new Random().nextDouble();
+					v[j]=random.nextDouble();
 				}
 				schedules.add(x);
 				pbest_schedule.add(pbestSchedule);
@@ -69,8 +82,8 @@ public class PsoScheduling {
 			for(int j=0;j<x.length;j++) {
 				temp1[j] = pbest[j]-x[j];
 				temp2[j] = gbest_schedule[j]-x[j];
-				double r1 = new Random().nextDouble();
-				double r2 = new Random().nextDouble();
+				double r1 = random.nextDouble();
+				double r2 = random.nextDouble();
 				sum[j] = c1*r1*temp1[j]+c2*r2*temp2[j];
 				v[j] = w*v[j]+sum[j];
 				x[j] = x[j]+(int)v[j];
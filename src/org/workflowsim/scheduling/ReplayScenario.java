@@ -0,0 +1,23 @@
+package org.workflowsim.scheduling;
+
+import java.io.Serializable;
+
+/**
+ * A recipe for the entities of one simulation, used by {@link PopulationEvaluator}
+ * to rebuild the simulation inside an isolated class loader. It is serialized
+ * once by the caller and deserialized inside each replica, so it should only
+ * hold plain values (numbers, strings, collections of them) and create every
+ * simulation object in {@link #build()}.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public interface ReplayScenario extends Serializable {
+
+    /**
+     * Initializes CloudSim and creates the devices, the virtual machines, the
+     * workflow engine and the controller, without starting the simulation.
+     *
+     * @throws Exception if the simulation cannot be created
+     */
+    void build() throws Exception;
+}
@@ -0,0 +1,671 @@
+package org.workflowsim.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.fog.entities.Controller;
+import org.fog.entities.FogDevice;
+import org.fog.entities.FogTopology;
+import org.fog.utils.FogLinearPowerModel;
+import org.workflowsim.FileItem;
+import org.workflowsim.Job;
+import org.workflowsim.Task;
+import org.workflowsim.WorkflowEngine;
+import org.workflowsim.utils.Parameters.ClassType;
+import org.workflowsim.utils.Parameters.FileType;
+import org.workflowsim.utils.ReplicaCatalog;
+
+/**
+ * Scores fixed job to VM assignments analytically, with one list scheduling
+ * pass over the workflow instead of a run of the simulation.
+ *
+ * The pass follows what the devices of the simulation do with the jobs: a job
+ * is released when its last parent returns, delayed by the transfer costs of
+ * the parents placed on other VMs as in {@code FogBroker}, and each VM runs
+ * its jobs one at a time in arrival order. A job that finds its VM idle also
+ * pays the stage-in of its input files, which is added to its length as in
+ * {@link org.cloudbus.cloudsim.CloudletSchedulerSpaceShared}; a queued job
+ * does not. The cost is the one of {@link Controller#getDatacenterCost(int)},
+ * and the energy is the one the controller models for the mobile device, busy
+ * and idle power from its {@link FogLinearPowerModel} plus the power to send
+ * the inputs of the offloaded jobs and receive the output of the last one.
+ *
+ * The simulation adds its own rounding to the finish times (the minimum
+ * interval between device events), so the times and costs are close to the
+ * ones of a replay rather than equal. A reference evaluator can be set with
+ * {@link #setVerification(FitnessEvaluator, int)} to replay a sample of the
+ * candidates and measure the difference. The controller never assigns its
+ * total energy, so the replayed energy is not compared.
+ *
+ * An evaluator keeps its working arrays between calls and is not thread safe.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public class ScheduleEvaluator implements FitnessEvaluator {
+
+    /**
+     * the id of each job, which indexes the schedules.
+     */
+    private final int[] ids;
+    /**
+     * the length of each job, in MI.
+     */
+    private final long[] lengths;
+    /**
+     * the parents of job j are parents[parentIndex[j]] to
+     * parents[parentIndex[j + 1] - 1].
+     */
+    private final int[] parentIndex;
+    private final int[] parents;
+    /**
+     * the transfer cost of each parent edge, paid when the parent and the
+     * child run on different VMs.
+     */
+    private final double[] transferCosts;
+    /**
+     * the children of each job, in the same layout as the parents.
+     */
+    private final int[] childIndex;
+    private final int[] children;
+    /**
+     * the size of the input files each job stages in.
+     */
+    private final double[] stageInSizes;
+    /**
+     * the input and output sizes exchanged with the mobile device.
+     */
+    private final double[] inputSizes;
+    private final double[] outputSizes;
+    /**
+     * the device each job is offloaded to, or -1.
+     */
+    private int[] offloadingDevices;
+    /**
+     * the MIPS of each VM, indexed by VM id.
+     */
+    private final double[] mips;
+    /**
+     * the device of each VM.
+     */
+    private final int[] vmDevices;
+    /**
+     * the cost of one second of each VM.
+     */
+    private final double[] costRates;
+    /**
+     * the power of each VM of the mobile device while it runs a job.
+     */
+    private final double[] busyPowers;
+    /**
+     * the first VM and the number of VMs of each device.
+     */
+    private final int[] deviceFirstVms;
+    private final int[] deviceVmCounts;
+    /**
+     * the transfer time of one byte between the mobile device and each device.
+     */
+    private final double[] transferRates;
+    /**
+     * the mobile device.
+     */
+    private final int mobileDevice;
+    private final FogLinearPowerModel mobilePowerModel;
+    /**
+     * the time the first jobs are released.
+     */
+    private double startTime = 0.0;
+
+    /**
+     * the evaluator replaying the verified candidates, or null.
+     */
+    private FitnessEvaluator reference;
+    /**
+     * one in every verificationInterval candidates is verified.
+     */
+    private int verificationInterval;
+    private long evaluatedCount;
+    private int verifiedCount;
+    private double maxTimeError;
+    private double maxCostError;
+
+    /**
+     * working arrays of a pass.
+     */
+    private final int[] vms;
+    private final int[] pending;
+    private final double[] starts;
+    private final double[] finishes;
+    private final int[] next;
+    private final int[] queueHeads;
+    private final int[] queueTails;
+    private final boolean[] busy;
+    private final int[] heap;
+    private final long[] sequences;
+    private final boolean[] running;
+    private int heapSize;
+    private long sequence;
+
+    /**
+     * Creates an evaluator. Jobs are indexed by their position in the job list
+     * and VMs by their id.
+     *
+     * @param ids the id of each job, which indexes the schedules
+     * @param lengths the length of each job, in MI
+     * @param parentIndex the first parent of each job in parents, plus the
+     *                    number of parent edges at the end
+     * @param parents the index of the parents of each job
+     * @param stageInSizes the size of the input files each job stages in
+     * @param inputSizes the input size each job receives from the mobile device
+     * @param outputSizes the output size each job sends back to the mobile device
+     * @param mips the MIPS of each VM
+     * @param vmDevices the device of each VM
+     * @param costRates the cost of one second of each VM
+     * @param utilizations the share of its host each VM uses
+     * @param transferRates the transfer time of one byte between the mobile
+     *                      device and each device
+     * @param mobileDevice the mobile device
+     * @param mobilePowerModel the power model of the mobile device
+     */
+    public ScheduleEvaluator(int[] ids, long[] lengths, int[] parentIndex, int[] parents,
+            double[] stageInSizes, double[] inputSizes, double[] outputSizes,
+            double[] mips, int[] vmDevices, double[] costRates, double[] utilizations,
+            double[] transferRates, int mobileDevice, FogLinearPowerModel mobilePowerModel) {
+        int jobs = ids.length;
+        if (lengths.length != jobs || parentIndex.length != jobs + 1 || stageInSizes.length != jobs
+                || inputSizes.length != jobs || outputSizes.length != jobs) {
+            throw new IllegalArgumentException("the job arrays have different lengths");
+        }
+        int vmNum = mips.length;
+        if (vmDevices.length != vmNum || costRates.length != vmNum || utilizations.length != vmNum) {
+            throw new IllegalArgumentException("the VM arrays have different lengths");
+        }
+        this.ids = ids;
+        this.lengths = lengths;
+        this.parentIndex = parentIndex;
+        this.parents = parents;
+        this.transferCosts = new double[parents.length];
+        this.stageInSizes = stageInSizes;
+        this.inputSizes = inputSizes;
+        this.outputSizes = outputSizes;
+        this.mips = mips;
+        this.vmDevices = vmDevices;
+        this.costRates = costRates;
+        this.transferRates = transferRates;
+        this.mobileDevice = mobileDevice;
+        this.mobilePowerModel = mobilePowerModel;
+
+        busyPowers = new double[vmNum];
+        deviceFirstVms = new int[transferRates.length];
+        deviceVmCounts = new int[transferRates.length];
+        Arrays.fill(deviceFirstVms, -1);
+        for (int v = 0; v < vmNum; v++) {
+            int device = vmDevices[v];
+            if (device == mobileDevice) {
+                busyPowers[v] = mobilePowerModel.getPower(utilizations[v]);
+            }
+            if (deviceFirstVms[device] < 0) {
+                deviceFirstVms[device] = v;
+            }
+            deviceVmCounts[device]++;
+        }
+
+        childIndex = new int[jobs + 1];
+        for (int edge = 0; edge < parents.length; edge++) {
+            childIndex[parents[edge] + 1]++;
+        }
+        for (int j = 0; j < jobs; j++) {
+            childIndex[j + 1] += childIndex[j];
+        }
+        children = new int[parents.length];
+        int[] fill = Arrays.copyOf(childIndex, jobs);
+        for (int j = 0; j < jobs; j++) {
+            for (int edge = parentIndex[j]; edge < parentIndex[j + 1]; edge++) {
+                children[fill[parents[edge]]++] = j;
+            }
+        }
+
+        vms = new int[jobs];
+        pending = new int[jobs];
+        starts = new double[jobs];
+        finishes = new double[jobs];
+        next = new int[jobs];
+        queueHeads = new int[vmNum];
+        queueTails = new int[vmNum];
+        busy = new boolean[vmNum];
+        heap = new int[jobs];
+        sequences = new long[jobs];
+        running = new boolean[jobs];
+    }
+
+    /**
+     * Creates an evaluator from the jobs, VMs and devices of a simulation.
+     * The transfer costs of the jobs are taken as well, so the delays of a
+     * planning algorithm are applied when it set them.
+     *
+     * @param engine the workflow engine, after its jobs were submitted
+     * @param offloading whether the VM of a job is moved to the device chosen
+     *                   by the offloading strategy, as the GA does
+     * @return the evaluator
+     */
+    public static ScheduleEvaluator create(WorkflowEngine engine, boolean offloading) {
+        List<Job> jobs = WorkflowEngine.jobList;
+        Controller controller = engine.getController();
+        List<FogDevice> devices = controller.getFogDevices();
+        Map<Integer, Integer> deviceIndexes = new HashMap<>();
+        double[] transferRates = new double[devices.size()];
+        for (int d = 0; d < devices.size(); d++) {
+            deviceIndexes.put(devices.get(d).getId(), d);
+            transferRates[d] = controller.getTransferTime(devices.get(d).getId(), 1.0);
+        }
+        FogDevice mobile = controller.getmobile();
+        int mobileDevice = deviceIndexes.get(mobile.getId());
+
+        List<? extends Vm> vmList = engine.getAllVmList();
+        int vmNum = 0;
+        for (Vm vm : vmList) {
+            vmNum = Math.max(vmNum, vm.getId() + 1);
+        }
+        double[] mips = new double[vmNum];
+        int[] vmDevices = new int[vmNum];
+        double[] costRates = new double[vmNum];
+        double[] utilizations = new double[vmNum];
+        for (Vm vm : vmList) {
+            int v = vm.getId();
+            PowerHost host = (PowerHost) vm.getHost();
+            FogDevice device = (FogDevice) host.getDatacenter();
+            mips[v] = vm.getMips();
+            vmDevices[v] = deviceIndexes.get(device.getId());
+            utilizations[v] = vm.getMips() / host.getTotalMips();
+            if (controller.getTopology().getTier(device.getId()) != FogTopology.Tier.END) {
+                costRates[v] = host.getTotalMips() / vm.getMips() * host.getcostPerMips();
+            }
+        }
+
+        int jobNum = jobs.size();
+        Map<Integer, Integer> jobIndexes = new HashMap<>();
+        for (int j = 0; j < jobNum; j++) {
+            jobIndexes.put(jobs.get(j).getCloudletId(), j);
+        }
+        int[] ids = new int[jobNum];
+        long[] lengths = new long[jobNum];
+        int[] parentIndex = new int[jobNum + 1];
+        List<Integer> parentList = new ArrayList<>();
+        List<Double> costList = new ArrayList<>();
+        double[] stageInSizes = new double[jobNum];
+        double[] inputSizes = new double[jobNum];
+        double[] outputSizes = new double[jobNum];
+        int[] offloadingDevices = new int[jobNum];
+        boolean shared = ReplicaCatalog.getFileSystem() == ReplicaCatalog.FileSystem.SHARED;
+        for (int j = 0; j < jobNum; j++) {
+            Job job = jobs.get(j);
+            ids[j] = job.getCloudletId();
+            // the simulation lengthens the job itself by its stage-in, so add up its tasks
+            long length = 0;
+            for (Task task : job.getTaskList()) {
+                length += task.getCloudletLength();
+            }
+            lengths[j] = job.getTaskList().isEmpty() ? job.getCloudletLength() : length;
+            Map<Integer, Double> costs = job.getTransferCosts();
+            for (Task parent : job.getParentList()) {
+                Integer index = jobIndexes.get(parent.getCloudletId());
+                if (index != null) {
+                    parentList.add(index);
+                    Double cost = costs.get(parent.getCloudletId());
+                    costList.add(cost == null ? 0.0 : cost);
+                }
+            }
+            parentIndex[j + 1] = parentList.size();
+            if (shared && job.getClassType() == ClassType.COMPUTE.value) {
+                for (FileItem file : job.getFileList()) {
+                    if (file.isRealInputFile(job.getFileList())) {
+                        stageInSizes[j] += file.getSize();
+                    }
+                }
+            }
+            inputSizes[j] = job.getInputsize();
+            for (FileItem file : job.getFileList()) {
+                if (file.getType() == FileType.OUTPUT) {
+                    outputSizes[j] = job.getOutputsize();
+                    break;
+                }
+            }
+            Integer device = offloading ? deviceIndexes.get(job.getoffloading()) : null;
+            offloadingDevices[j] = device == null ? -1 : device;
+        }
+        int[] parents = new int[parentList.size()];
+        double[] transferCosts = new double[parentList.size()];
+        for (int edge = 0; edge < parents.length; edge++) {
+            parents[edge] = parentList.get(edge);
+            transferCosts[edge] = costList.get(edge);
+        }
+
+        ScheduleEvaluator evaluator = new ScheduleEvaluator(ids, lengths, parentIndex, parents,
+                stageInSizes, inputSizes, outputSizes, mips, vmDevices, costRates, utilizations,
+                transferRates, mobileDevice, (FogLinearPowerModel) mobile.getHost().getPowerModel());
+        evaluator.setTransferCosts(transferCosts);
+        evaluator.setOffloadingDevices(offloadingDevices);
+        evaluator.setStartTime(getStartTime(engine));
+        return evaluator;
+    }
+
+    /**
+     * Gets the time the first jobs of the simulation started, which is when a
+     * replay releases its entry jobs.
+     */
+    private static double getStartTime(WorkflowEngine engine) {
+        double startTime = Double.MAX_VALUE;
+        for (Object received : engine.getJobsReceivedList()) {
+            startTime = Math.min(startTime, ((Job) received).getExecStartTime());
+        }
+        return startTime == Double.MAX_VALUE ? 0.0 : startTime;
+    }
+
+    /**
+     * Sets the transfer cost of each parent edge, in the order of the parents
+     * given to the constructor. A child waits for the transfer from the
+     * parents placed on another VM.
+     *
+     * @param transferCosts the transfer costs
+     */
+    public void setTransferCosts(double[] transferCosts) {
+        if (transferCosts.length != parents.length) {
+            throw new IllegalArgumentException("one transfer cost per parent edge is needed");
+        }
+        System.arraycopy(transferCosts, 0, this.transferCosts, 0, transferCosts.length);
+    }
+
+    /**
+     * Sets the device each job is offloaded to. A job assigned to a VM of
+     * another device runs on a VM of its device instead, chosen as the GA
+     * scheduling of {@code FogBroker} does.
+     *
+     * @param offloadingDevices the device of each job, or -1 to keep its VM
+     */
+    public void setOffloadingDevices(int[] offloadingDevices) {
+        if (offloadingDevices != null && offloadingDevices.length != ids.length) {
+            throw new IllegalArgumentException("one offloading device per job is needed");
+        }
+        this.offloadingDevices = offloadingDevices;
+    }
+
+    public void setStartTime(double startTime) {
+        this.startTime = startTime;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Cross-checks the candidates against a full simulation: one in every
+     * interval candidates is also scored by the reference, and the largest
+     * relative differences of the time and the cost are kept.
+     *
+     * @param reference the evaluator replaying the candidates, or null to stop
+     *                  verifying
+     * @param interval one in every interval candidates is verified
+     */
+    public void setVerification(FitnessEvaluator reference, int interval) {
+        if (reference != null && interval < 1) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        this.reference = reference;
+        this.verificationInterval = interval;
+    }
+
+    public int getVerifiedCount() {
+        return verifiedCount;
+    }
+
+    public double getMaxTimeError() {
+        return maxTimeError;
+    }
+
+    public double getMaxCostError() {
+        return maxCostError;
+    }
+
+    @Override
+    public double[][] evaluate(List<int[]> schedules) throws Exception {
+        double[][] results = new double[schedules.size()][];
+        List<int[]> samples = new ArrayList<>();
+        List<double[]> expected = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            int[] schedule = schedules.get(i);
+            results[i] = evaluate(schedule);
+            if (reference != null && evaluatedCount++ % verificationInterval == 0) {
+                samples.add(schedule);
+                expected.add(results[i]);
+            }
+        }
+        if (!samples.isEmpty()) {
+            verify(samples, expected);
+        }
+        return results;
+    }
+
+    /**
+     * Scores one candidate.
+     *
+     * @param schedule the job to VM assignment, indexed by job id
+     * @return the time, energy and cost of the candidate
+     */
+    public double[] evaluate(int[] schedule) {
+        int jobs = ids.length;
+        Arrays.fill(queueHeads, -1);
+        Arrays.fill(busy, false);
+        heapSize = 0;
+        sequence = 0;
+        for (int j = 0; j < jobs; j++) {
+            vms[j] = getVm(j, schedule[ids[j]]);
+            pending[j] = parentIndex[j + 1] - parentIndex[j];
+            running[j] = false;
+        }
+        for (int j = 0; j < jobs; j++) {
+            if (pending[j] == 0) {
+                arrive(j, startTime);
+            }
+        }
+
+        double time = startTime;
+        int lastJob = -1;
+        while (heapSize > 0) {
+            int j = poll();
+            time = finishes[j];
+            if (!running[j]) {
+                // a job released after its transfer delay
+                arrive(j, time);
+                continue;
+            }
+            lastJob = j;
+            int vm = vms[j];
+            busy[vm] = false;
+            int queued = queueHeads[vm];
+            if (queued >= 0) {
+                queueHeads[vm] = next[queued];
+                start(queued, time, false);
+            }
+            for (int edge = childIndex[j]; edge < childIndex[j + 1]; edge++) {
+                int child = children[edge];
+                if (--pending[child] == 0) {
+                    double delay = getTransferDelay(child);
+                    if (delay > 0) {
+                        finishes[child] = time + delay;
+                        push(child);
+                    } else {
+                        arrive(child, time);
+                    }
+                }
+            }
+        }
+
+        double cost = 0.0;
+        double busyTime = 0.0;
+        double busyEnergy = 0.0;
+        double sendTime = 0.0;
+        for (int j = 0; j < jobs; j++) {
+            int vm = vms[j];
+            int device = vmDevices[vm];
+            double cpuTime = finishes[j] - starts[j];
+            cost += cpuTime * costRates[vm];
+            if (device == mobileDevice) {
+                busyTime += cpuTime;
+                busyEnergy += cpuTime * busyPowers[vm];
+            } else {
+                sendTime += inputSizes[j] * transferRates[device];
+            }
+        }
+        double receiveTime = lastJob < 0 ? 0.0 : outputSizes[lastJob] * transferRates[vmDevices[vms[lastJob]]];
+        double energy = busyEnergy + (time - busyTime) * mobilePowerModel.getStaticPower()
+                + sendTime * mobilePowerModel.getSendPower() + receiveTime * mobilePowerModel.getRecePower();
+        return new double[]{time, energy / 1000, cost};
+    }
+
+    /**
+     * Releases the verification reference.
+     */
+    @Override
+    public void shutdown() {
+        reference = null;
+    }
+
+    /**
+     * Gets the VM a job runs on, moving it to its offloading device if needed.
+     */
+    private int getVm(int job, int vm) {
+        if (offloadingDevices == null || offloadingDevices[job] < 0) {
+            return vm;
+        }
+        int device = offloadingDevices[job];
+        if (vmDevices[vm] == device) {
+            return vm;
+        }
+        return deviceFirstVms[device] + vm % deviceVmCounts[device];
+    }
+
+    /**
+     * Gets the extra time a child waits for the data of the parents placed on
+     * another VM, as {@code FogBroker} computes it.
+     */
+    private double getTransferDelay(int child) {
+        double latestFinishTime = 0.0;
+        double minReadyTime = 0.0;
+        for (int edge = parentIndex[child]; edge < parentIndex[child + 1]; edge++) {
+            int parent = parents[edge];
+            double readyTime = finishes[parent];
+            latestFinishTime = Math.max(latestFinishTime, readyTime);
+            if (vms[parent] != vms[child]) {
+                readyTime += transferCosts[edge];
+            }
+            minReadyTime = Math.max(minReadyTime, readyTime);
+        }
+        return minReadyTime - latestFinishTime;
+    }
+
+    /**
+     * A job reaches its VM: it starts if the VM is idle and waits otherwise.
+     */
+    private void arrive(int job, double time) {
+        int vm = vms[job];
+        if (!busy[vm]) {
+            start(job, time, true);
+        } else {
+            next[job] = -1;
+            if (queueHeads[vm] < 0) {
+                queueHeads[vm] = job;
+            } else {
+                next[queueTails[vm]] = job;
+            }
+            queueTails[vm] = job;
+        }
+    }
+
+    /**
+     * Starts a job. Only a job submitted to an idle VM stages its files in.
+     */
+    private void start(int job, double time, boolean stageIn) {
+        int vm = vms[job];
+        busy[vm] = true;
+        running[job] = true;
+        long length = lengths[job];
+        if (stageIn) {
+            length += mips[vm] * stageInSizes[job] * transferRates[vmDevices[vm]];
+        }
+        starts[job] = time;
+        finishes[job] = time + length / mips[vm];
+        push(job);
+    }
+
+    /**
+     * Adds a job to the event heap, ordered by its finish (or release) time
+     * and then by the order of the events.
+     */
+    private void push(int job) {
+        sequences[job] = sequence++;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(job, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = job;
+    }
+
+    private int poll() {
+        int first = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], last)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return first;
+    }
+
+    private boolean before(int a, int b) {
+        return finishes[a] < finishes[b] || (finishes[a] == finishes[b] && sequences[a] < sequences[b]);
+    }
+
+    /**
+     * Replays the sampled candidates with the reference and keeps the largest
+     * relative differences.
+     */
+    private void verify(List<int[]> samples, List<double[]> expected) throws Exception {
+        double[][] actual = reference.evaluate(samples);
+        for (int i = 0; i < actual.length; i++) {
+            double timeError = getRelativeError(expected.get(i)[0], actual[i][0]);
+            double costError = getRelativeError(expected.get(i)[2], actual[i][2]);
+            maxTimeError = Math.max(maxTimeError, timeError);
+            maxCostError = Math.max(maxCostError, costError);
+            verifiedCount++;
+        }
+        Log.formatLine("ScheduleEvaluator: %d candidates verified, max time error %.4f, max cost error %.4f",
+                verifiedCount, maxTimeError, maxCostError);
+    }
+
+    private static double getRelativeError(double expected, double actual) {
+        if (expected == actual) {
+            return 0.0;
+        }
+        return Math.abs(expected - actual) / Math.max(Math.abs(expected), Math.abs(actual));
+    }
+}
@@ -0,0 +1,55 @@
+package org.workflowsim.scheduling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.fog.utils.FogUtils;
+import org.workflowsim.WorkflowEngine;
+
+/**
+ * Replays fixed schedules inside a replica of the simulator. This class is
+ * loaded by the isolated {@link org.cloudbus.cloudsim.core.SimulationContext}
+ * of a {@link PopulationEvaluator} worker, so the static state it touches
+ * belongs to that replica only. Its arguments and results are primitive
+ * arrays, which are shared by all the contexts.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class ScheduleReplay {
+
+    private ScheduleReplay() {
+    }
+
+    /**
+     * Replays each schedule in a simulation of its own, freshly built from the
+     * scenario, and reads the time, energy and cost from the controller as
+     * {@link WorkflowEngine#caculatefitness()} does.
+     *
+     * @param scenario the serialized {@link ReplayScenario}
+     * @param schedules the job to VM assignments
+     * @return the time, energy and cost of each schedule
+     * @throws Exception if the scenario cannot be built or run
+     */
+    public static double[][] replay(byte[] scenario, int[][] schedules) throws Exception {
+        ReplayScenario replayScenario;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(scenario))) {
+            replayScenario = (ReplayScenario) in.readObject();
+        }
+        Log.disable();
+        double[][] results = new double[schedules.length][];
+        for (int i = 0; i < schedules.length; i++) {
+            WorkflowEngine.clearFlag();
+            FogUtils.set1();
+            replayScenario.build();
+            WorkflowEngine.startReplay(schedules[i]);
+            CloudSim.startSimulation();
+            results[i] = WorkflowEngine.getReplayResult();
+            if (results[i] == null) {
+                throw new IllegalStateException("the replay of schedule " + i + " did not complete");
+            }
+        }
+        WorkflowEngine.clearFlag();
+        return results;
+    }
+}
@@ -86,6 +86,15 @@ public class Parameters {
         }
     }
     
+    /**
+     * The DAX parser
+     * DOM: builds the whole document with JDOM before creating the tasks
+     * STREAMING: reads the DAX in one pass with StAX into a WorkflowGraph
+     */
+    public enum ParsingMode{
+        DOM, STREAMING
+    }
+    
     /** 
      * Source Host (submit host)
      */
@@ -180,6 +189,17 @@ public class Parameters {
      */
     private static CostModel costModel = CostModel.DATACENTER;
     
+    /**
+     * The DAX parser
+     */
+    private static ParsingMode parsingMode = ParsingMode.STREAMING;
+    
+    /**
+     * The number of threads the planners evaluate the VMs and ranks with; 1
+     * plans sequentially
+     */
+    private static int planningParallelism = 1;
+    
     /**
      * A static function so that you can specify them in any place
      *
@@ -425,6 +445,41 @@ public class Parameters {
         costModel = model;
     }
     
+    /**
+     * Sets the DAX parser
+     * @param mode the parsing mode
+     */
+    public static void setParsingMode(ParsingMode mode){
+        parsingMode = mode;
+    }
+    
+    /**
+     * Gets the DAX parser
+     * @return the parsing mode
+     */
+    public static ParsingMode getParsingMode(){
+        return parsingMode;
+    }
+    
+    /**
+     * Sets the number of threads the planners use
+     * @param parallelism the number of threads, 1 to plan sequentially
+     */
+    public static void setPlanningParallelism(int parallelism){
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("planning needs at least one thread");
+        }
+        planningParallelism = parallelism;
+    }
+    
+    /**
+     * Gets the number of threads the planners use
+     * @return the planning parallelism
+     */
+    public static int getPlanningParallelism(){
+        return planningParallelism;
+    }
+    
     /**
      * Gets the runtime scale
      * @return 
@@ -0,0 +1,193 @@
+package org.workflowsim.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The time slots taken on the I/O ports: the finish time of the last job of
+ * each VM, in an array indexed by VM id, and the instants at which a job
+ * starts or finishes, in a hash set. A job that would start before one of
+ * its bounds is delayed by a whole number of port delays, computed as
+ * ceil((bound - start) / delay) instead of adding the delay until the bound is
+ * passed.
+ * <p>
+ * A job that lands on a taken instant is moved along its delay grid, the
+ * instants start + k * delay, until it finds a free one. The runs of taken
+ * grid steps found on the way are remembered per grid, so the jobs that
+ * share a start and a delay jump over them instead of testing each step
+ * again. Instants are only ever taken, so a run stays taken.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class PortSlotAllocator {
+
+    /**
+     * The finish time of a VM that has no job yet.
+     */
+    public static final double NONE = Double.MIN_VALUE;
+
+    private double[] lastFinishTimes = new double[0];
+
+    private final Set<Double> eventTimes = new HashSet<>();
+
+    /**
+     * The grids searched so far, by delay and then by start time.
+     */
+    private final Map<Double, Map<Double, Grid>> grids = new HashMap<>();
+
+    /**
+     * Gets the number of delays a time has to be moved by to be after a bound.
+     *
+     * @param time the time
+     * @param bound the bound
+     * @param delay the delay, greater than 0
+     * @return the smallest k such that time + k * delay &gt; bound
+     */
+    public static long stepsAfter(double time, double bound, double delay) {
+        if (time > bound) {
+            return 0;
+        }
+        long steps = (long) Math.ceil((bound - time) / delay);
+        // the division is rounded, so the bound may still be reached
+        while (time + steps * delay <= bound) {
+            steps++;
+        }
+        while (steps > 1 && time + (steps - 1) * delay > bound) {
+            steps--;
+        }
+        return steps;
+    }
+
+    /**
+     * Gets the finish time of the last job of a VM.
+     *
+     * @param vmId the VM id
+     * @return the finish time, or {@link #NONE} if the VM has no job yet
+     */
+    public double getLastFinishTime(int vmId) {
+        return vmId >= 0 && vmId < lastFinishTimes.length ? lastFinishTimes[vmId] : NONE;
+    }
+
+    /**
+     * Whether a job starts or finishes at an instant.
+     */
+    public boolean isOccupied(double time) {
+        return eventTimes.contains(time);
+    }
+
+    /**
+     * Gets the number of delays a start time has to be moved by to be an
+     * instant at which no job starts or finishes.
+     *
+     * @param startTime the start time
+     * @param delay the delay, greater than 0
+     * @return the number of delays
+     */
+    public long stepsToFreeInstant(double startTime, double delay) {
+        return grid(startTime, delay).firstFreeStep(0);
+    }
+
+    /**
+     * Gets the number of delays a slot has to be moved by for neither its
+     * start nor its finish to be an instant at which a job starts or finishes.
+     *
+     * @param startTime the start time of the slot
+     * @param finishTime the finish time of the slot
+     * @param delay the delay, greater than 0
+     * @return the number of delays
+     */
+    public long stepsToFreeSlot(double startTime, double finishTime, double delay) {
+        Grid starts = grid(startTime, delay);
+        Grid finishes = grid(finishTime, delay);
+        long steps = 0;
+        while (true) {
+            long startSteps = starts.firstFreeStep(steps);
+            steps = finishes.firstFreeStep(startSteps);
+            if (steps == startSteps) {
+                return steps;
+            }
+        }
+    }
+
+    private Grid grid(double startTime, double delay) {
+        return grids.computeIfAbsent(delay, key -> new HashMap<>())
+                .computeIfAbsent(startTime, key -> new Grid(startTime, delay));
+    }
+
+    /**
+     * Takes the start and the finish instants of a slot.
+     */
+    public void occupy(double startTime, double finishTime) {
+        eventTimes.add(startTime);
+        eventTimes.add(finishTime);
+    }
+
+    /**
+     * Takes the start and the finish instants of a slot, which becomes the
+     * last one of a VM.
+     */
+    public void occupy(int vmId, double startTime, double finishTime) {
+        if (vmId >= lastFinishTimes.length) {
+            int length = lastFinishTimes.length;
+            lastFinishTimes = Arrays.copyOf(lastFinishTimes, Math.max(vmId + 1, 2 * length));
+            Arrays.fill(lastFinishTimes, length, lastFinishTimes.length, NONE);
+        }
+        if (vmId >= 0) {
+            lastFinishTimes[vmId] = finishTime;
+        }
+        occupy(startTime, finishTime);
+    }
+
+    /**
+     * The instants start + k * delay, with the runs of taken steps found so
+     * far.
+     */
+    private final class Grid {
+
+        private final double startTime;
+        private final double delay;
+
+        /**
+         * The runs of taken steps, from their first step to the step after
+         * their last one.
+         */
+        private final TreeMap<Long, Long> takenRuns = new TreeMap<>();
+
+        Grid(double startTime, double delay) {
+            this.startTime = startTime;
+            this.delay = delay;
+        }
+
+        /**
+         * Gets the first free step from a step on, and records the taken
+         * steps passed on the way.
+         */
+        long firstFreeStep(long step) {
+            long runStart = step;
+            Map.Entry<Long, Long> run = takenRuns.floorEntry(step);
+            if (run != null && run.getValue() >= step) {
+                runStart = run.getKey();
+                step = run.getValue();
+            }
+            while (true) {
+                // a run that starts here is joined to the current one
+                Long runEnd = takenRuns.remove(step);
+                if (runEnd != null) {
+                    step = runEnd;
+                } else if (isOccupied(startTime + step * delay)) {
+                    step++;
+                } else {
+                    break;
+                }
+            }
+            if (step > runStart) {
+                takenRuns.put(runStart, step);
+            }
+            return step;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.workflowsim.utils;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The position of each cloudlet id in an order, such as the task order of a
+ * planning algorithm, kept in an array indexed by id. Cloudlets are put in
+ * that order by sorting them on their rank, instead of searching the list for
+ * every id of the order.
+ *
+ * @since FogWorkflowSim Toolkit 1.0
+ */
+public final class RankIndex {
+
+    private static final int NONE = -1;
+
+    private final int[] ranks;
+
+    /**
+     * Creates the index of an order. An id that occurs more than once is
+     * ranked by its first occurrence.
+     *
+     * @param order the cloudlet ids, in order
+     */
+    public RankIndex(List<Integer> order) {
+        int maxId = -1;
+        for (int id : order) {
+            maxId = Math.max(maxId, id);
+        }
+        ranks = new int[maxId + 1];
+        Arrays.fill(ranks, NONE);
+        for (int rank = 0; rank < order.size(); rank++) {
+            int id = order.get(rank);
+            if (id >= 0 && ranks[id] == NONE) {
+                ranks[id] = rank;
+            }
+        }
+    }
+
+    /**
+     * Whether an id is in the order.
+     */
+    public boolean contains(int id) {
+        return getRank(id) != NONE;
+    }
+
+    /**
+     * Gets the position of an id in the order.
+     *
+     * @param id the cloudlet id
+     * @return the position, or -1 if the id is not in the order
+     */
+    public int getRank(int id) {
+        return id >= 0 && id < ranks.length ? ranks[id] : NONE;
+    }
+
+    /**
+     * Puts cloudlets in the order. The cloudlets whose id is not in the order
+     * come last, in the order of the list.
+     *
+     * @param cloudlets the cloudlets
+     * @return a new list with the cloudlets sorted by rank
+     */
+    public <T extends Cloudlet> List<T> sort(List<T> cloudlets) {
+        List<T> sorted = new ArrayList<>(cloudlets);
+        sorted.sort(Comparator.comparingInt(cloudlet -> {
+            int rank = getRank(cloudlet.getCloudletId());
+            return rank == NONE ? Integer.MAX_VALUE : rank;
+        }));
+        return sorted;
+    }
+}
@@ -0,0 +1,105 @@
+package test.org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CloudletSchedulerSpaceSharedTest {
+    private final int numberOfCloudlet = 200;
+    private final long cloudletLength = 1_000;
+    private final List<Double> mipsShare = List.of(1_000.0);
+    private final PrintStream standardOut = System.out;
+    private ListedCloudletScheduler scheduler;
+    private List<Cloudlet> cloudlets;
+
+    @BeforeEach
+    void setUp() {
+        // the scheduler prints every cloudlet that has to wait
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        scheduler = new ListedCloudletScheduler();
+        scheduler.updateVmProcessing(0, mipsShare);
+        cloudlets = new ArrayList<>();
+        for (int id = 0; id < numberOfCloudlet; id++) {
+            cloudlets.add(new Cloudlet(id, cloudletLength, 1, 0, 0, new UtilizationModelFull(),
+                    new UtilizationModelFull(), new UtilizationModelFull()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(standardOut);
+    }
+
+    /**
+     * Runs all the cloudlets one after the other, one second each, without
+     * taking them from the finished list, as a run of the workflow does
+     * between two resets.
+     */
+    private void runIteration() {
+        for (Cloudlet cloudlet : cloudlets) {
+            scheduler.cloudletSubmit(cloudlet);
+        }
+        for (int time = 1; time <= numberOfCloudlet; time++) {
+            scheduler.updateVmProcessing(time, mipsShare);
+        }
+        scheduler.clear();
+        scheduler.updateVmProcessing(0, mipsShare);
+    }
+
+    @Test
+    @DisplayName("Each finished cloudlet is recorded once per iteration")
+    void testCompletedCloudletsAreDeduplicated() {
+        for (Cloudlet cloudlet : cloudlets) {
+            scheduler.cloudletSubmit(cloudlet);
+        }
+        for (int time = 1; time <= numberOfCloudlet; time++) {
+            scheduler.updateVmProcessing(time, mipsShare);
+            assertEquals(time, scheduler.getCompletedCloudletCount());
+        }
+        assertTrue(scheduler.isFinishedCloudlets());
+    }
+
+    @Test
+    @DisplayName("Clearing resets the finished cloudlets and empties the ledger")
+    void testClearResetsCompletedCloudlets() {
+        runIteration();
+        assertEquals(0, scheduler.getCompletedCloudletCount());
+        assertFalse(scheduler.isFinishedCloudlets());
+        assertEquals(0, scheduler.runningCloudlets());
+        for (Cloudlet cloudlet : cloudlets) {
+            assertEquals(Cloudlet.CREATED, cloudlet.getCloudletStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("The scheduler lists stay empty across iterations")
+    void testListsAreFlatAcrossIterations() {
+        for (int i = 0; i < 1_000; i++) {
+            runIteration();
+            assertEquals(0, scheduler.getCompletedCloudletCount());
+            assertEquals(0, scheduler.getListedCloudletCount());
+        }
+    }
+
+    /**
+     * Exposes the number of cloudlets held in the lists of the scheduler.
+     */
+    private static class ListedCloudletScheduler extends CloudletSchedulerSpaceShared {
+
+        int getListedCloudletCount() {
+            return getCloudletWaitingList().size() + getCloudletExecList().size()
+                    + getCloudletPausedList().size() + getCloudletFinishedList().size();
+        }
+    }
+}
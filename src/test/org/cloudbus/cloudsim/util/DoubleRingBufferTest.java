@@ -0,0 +1,26 @@
+package test.org.cloudbus.cloudsim.util;
+
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleRingBufferTest {
+
+    @Test
+    @DisplayName("The buffer keeps its latest values, the newest first")
+    void testKeepsLatestValuesFirst() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(3);
+        assertTrue(buffer.isEmpty());
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i);
+        }
+        assertEquals(3, buffer.size());
+        assertArrayEquals(new double[]{5, 4, 3}, buffer.toArray());
+        assertEquals(Arrays.asList(5.0, 4.0, 3.0), buffer.asList());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(3));
+    }
+}
@@ -0,0 +1,38 @@
+package test.org.cloudbus.cloudsim.util;
+
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
+import org.cloudbus.cloudsim.util.MathUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MathUtilTest {
+
+    @Test
+    @DisplayName("The median and the MAD match the percentile, for arrays and ring buffers")
+    void testMedianMatchesPercentile() {
+        Random random = new Random(3);
+        for (int run = 0; run < 2000; run++) {
+            double[] data = new double[1 + random.nextInt(40)];
+            for (int i = 0; i < data.length; i++) {
+                // few distinct values in half of the runs, to have ties
+                data[i] = run % 2 == 0 ? random.nextDouble() : random.nextInt(4) / 4.0;
+            }
+            double[] copy = data.clone();
+            assertEquals(MathUtil.getStatistics(data).getPercentile(50), MathUtil.median(data));
+            assertArrayEquals(copy, data);
+
+            int length = Math.min(data.length, 30);
+            DoubleRingBuffer buffer = new DoubleRingBuffer(30);
+            for (int i = data.length - 1; i >= 0; i--) {
+                buffer.add(data[i]);
+            }
+            assertEquals(MathUtil.median(data, length), MathUtil.median(buffer));
+            assertEquals(MathUtil.mad(Arrays.copyOf(data, length)), MathUtil.mad(buffer));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package test.org.workflowsim.planning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.workflowsim.planning.GapIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GapIndexTest {
+
+    @Test
+    @DisplayName("A task starts at its ready time on an empty schedule")
+    void testStartsAtReadyTimeOnEmptySchedule() {
+        GapIndex gapIndex = new GapIndex();
+        assertEquals(0.1, gapIndex.findStartTime(0.1, 5));
+        assertEquals(0, gapIndex.getIntervalCount());
+    }
+
+    @Test
+    @DisplayName("A task is inserted into the first gap long enough from its ready time")
+    void testInsertsIntoGapHoldingReadyTime() {
+        GapIndex gapIndex = new GapIndex();
+        assertEquals(0.0, gapIndex.occupy(0, 10));
+        assertEquals(20.0, gapIndex.occupy(20, 10));
+        assertEquals(12.0, gapIndex.occupy(12, 5));
+        // the gap from 17 to 20 is too short
+        assertEquals(30.0, gapIndex.findStartTime(12, 5));
+        assertEquals(17.0, gapIndex.findStartTime(12, 3));
+        assertEquals(3, gapIndex.getIntervalCount());
+    }
+
+    @Test
+    @DisplayName("The start times match a linear scan of the busy intervals")
+    void testMatchesLinearScan() {
+        Random random = new Random(7);
+        for (int run = 0; run < 50; run++) {
+            GapIndex gapIndex = new GapIndex();
+            List<double[]> intervals = new ArrayList<>();
+            for (int task = 0; task < 300; task++) {
+                double readyTime = random.nextInt(2000) / 4.0;
+                double duration = random.nextInt(5) == 0 ? 0 : random.nextInt(200) / 8.0;
+                double expected = scan(intervals, readyTime, duration);
+                assertEquals(expected, gapIndex.findStartTime(readyTime, duration));
+                assertEquals(expected, gapIndex.occupy(readyTime, duration));
+                intervals.add(new double[]{expected, expected + duration});
+                intervals.sort((a, b) -> Double.compare(a[0], b[0]));
+            }
+        }
+    }
+
+    /**
+     * The earliest start not before readyTime that does not overlap a busy
+     * interval.
+     */
+    private static double scan(List<double[]> intervals, double readyTime, double duration) {
+        double previousFinish = Double.NEGATIVE_INFINITY;
+        for (double[] interval : intervals) {
+            double start = Math.max(previousFinish, readyTime);
+            if (start + duration <= interval[0]) {
+                return start;
+            }
+            previousFinish = Math.max(previousFinish, interval[1]);
+        }
+        return Math.max(previousFinish, readyTime);
+    }
+}